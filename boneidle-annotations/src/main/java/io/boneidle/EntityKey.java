@@ -0,0 +1,20 @@
+package io.boneidle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method that returns the identity of the entity an object represents, such as a customer's ID. When a
+ * factory has a shared entity cache, proxies of objects of the same class with equal (non-null) keys share their
+ * loaded state, so each loader is invoked once per entity rather than once per proxy.
+ *
+ * The method must be an instance method taking no parameters and returning a value, whose equals and hashCode identify
+ * the entity. It's called once, on the original object, when each proxy is created. A class may have at most one,
+ * declared in the class or one of its superclasses.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EntityKey {
+}
@@ -0,0 +1,27 @@
+package io.boneidle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a field as lazily initialised: the first time a proxy's method that reads the field is called, the field is
+ * set to the value returned by its supplier method, before the call is delegated to the original object. Each lazy
+ * field is initialised independently, so a call only pays for the fields it reads.
+ *
+ * The methods that read a lazy field are its bean getter (getX(), or isX(), for a field x), and any methods annotated
+ * with {@link ReadsLazyFields} that name it. A method can read several lazy fields, and can also have a loader (see
+ * {@link LazyLoadWith}), in which case the loader is invoked first.
+ *
+ * Lazy fields may not be static or final.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LazyField {
+    /**
+     * The name of the supplier method, declared in the same class as the field: an instance method taking no
+     * parameters, and returning a value that can be assigned to the field.
+     */
+    String value();
+}
@@ -8,5 +8,118 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LazyLoadWith {
+    /**
+     * The name of the loader method, declared in the same class as the annotated method (or class). This is either
+     * an instance method taking no parameters, or a batch loader: a static method taking a single List of the objects
+     * to load. Proxies created together with LazyFactory.proxyAll() invoke a batch loader once for all of their
+     * objects that need loading; other proxies invoke it with just their own object.
+     */
     String value();
+
+    /**
+     * The names of loader methods that must be invoked before this annotation's loader, because it uses data that
+     * they load. Loader dependencies may not be cyclic. When a loader has several dependencies that haven't yet been
+     * invoked, they are invoked in parallel.
+     */
+    String[] after() default {};
+
+    /**
+     * If true, the loader is started in the background as soon as a proxy is created, rather than waiting for the
+     * first call to a lazily loaded method. A call made while the loader is still running waits for it to finish.
+     */
+    boolean prefetch() default false;
+
+    /**
+     * If positive, the number of milliseconds after the loader was last invoked that it is invoked again, by the next
+     * call that needs it. That call waits for the loader, as if it were being invoked for the first time.
+     *
+     * If a loader is named by several annotations, its shortest expiry period is used.
+     */
+    long expireAfterWriteMillis() default 0;
+
+    /**
+     * If positive, the number of milliseconds after the loader was last invoked that it is refreshed: the next call
+     * that needs it starts invoking it again in the background, and neither it nor any other call waits for the
+     * refresh to finish (unless the loader has also expired). If the refresh fails, the next call tries again.
+     *
+     * Loaders should therefore be careful to publish refreshed data safely. If a loader is named by several
+     * annotations, its shortest refresh period is used.
+     */
+    long refreshAfterWriteMillis() default 0;
+
+    /**
+     * The name of an instance method taking no parameters, declared alongside the loader, that clears the data the
+     * loader loads. If set, the loaded data may be unloaded when the proxy's factory is over its budget of loaded
+     * entries, or when the heap is under pressure, in which case the loader is invoked again by the next call that
+     * needs it.
+     *
+     * Unloading doesn't wait for calls that are already using the data to finish, so lazily loaded methods should
+     * tolerate it being cleared underneath them.
+     */
+    String unloadWith() default "";
+
+    /**
+     * If positive, the maximum number of milliseconds that a call waits for the loader, whether the call invoked it or
+     * another thread did. A loader with a timeout is invoked on the loader executor rather than by the calling thread,
+     * and if it hasn't finished in time, the call throws LazyLoaderTimeoutRuntimeException. The invocation carries on
+     * regardless, and once it finishes, later calls use what it loaded.
+     *
+     * If a loader is named by several annotations, its shortest timeout is used.
+     */
+    long timeoutMillis() default 0;
+
+    /**
+     * The number of times the loader is invoked before giving up, if it throws an exception. Errors aren't retried.
+     * Every attempt happens within the same call, and within its timeout, if it has one; see
+     * {@link #retryBackoffMillis()}.
+     *
+     * If a loader is named by several annotations, its largest number of attempts is used.
+     */
+    int maxAttempts() default 1;
+
+    /**
+     * The number of milliseconds to wait before invoking the loader a second time, if it has more than one attempt.
+     * The wait doubles before each further attempt.
+     *
+     * If a loader is named by several annotations, its longest backoff is used.
+     */
+    long retryBackoffMillis() default 0;
+
+    /**
+     * If positive, the number of milliseconds after the loader last failed during which calls that need it fail
+     * straight away, by rethrowing the same exception, rather than invoking it again. This spares a failing backend
+     * from being retried on every call.
+     *
+     * If a loader is named by several annotations, its longest period is used.
+     */
+    long cacheFailureMillis() default 0;
+
+    /**
+     * If true, the loader isn't invoked by a call to the annotated method while the field backing it (x, for a bean
+     * getter getX() or isX()) isn't null, so objects that arrive with their data already set, e.g. from a cache or a
+     * deserialiser, aren't loaded again. The field may not be primitive. On a class, this applies to each bean getter
+     * with a backing field, and other methods are loaded as usual.
+     *
+     * As with the other ways of telling that a method's data is already there, this is only checked while the loader
+     * hasn't been invoked, and doesn't mark it as invoked, so the loader is still invoked by calls to any other
+     * methods that need it. Invalidating the loader doesn't clear the field, so a method whose field is still set
+     * carries on using it.
+     */
+    boolean loadedIfFieldSet() default false;
+
+    /**
+     * The names of other loader methods, declared alongside the loader, any one of which having been invoked means
+     * that the data the annotated method needs is already there, so the loader isn't invoked by calls to it. For
+     * example, a method needing a summary needn't invoke the summary's loader if the loader of the full details,
+     * which include the summary, has been invoked.
+     */
+    String[] loadedIfAnyInvoked() default {};
+
+    /**
+     * The name of an instance method taking no parameters and returning a boolean, declared alongside the loader,
+     * that returns true if the data the annotated method needs is already there, in which case the loader isn't
+     * invoked by the call. The method is called by every call to the annotated method until the loader is invoked, so
+     * should be cheap.
+     */
+    String loadedIf() default "";
 }
@@ -0,0 +1,50 @@
+package io.boneidle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as returning a paged list: rather than delegating to the original object, a proxy returns a List
+ * that loads its elements a page at a time, with the page loader, as they're read. Reading the first few elements,
+ * or iterating until the caller has seen enough, only loads the pages needed.
+ *
+ * The annotated method must take no parameters and return List, Collection or Iterable; the original's
+ * implementation is never called by a proxy. Each proxy returns the same list from every call, until the proxy is
+ * invalidated. If the method also has loaders (see {@link LazyLoadWith} and {@link LazyField}), they're invoked
+ * first, so the page loader can use the data they load.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LoadPagesWith {
+    /**
+     * The name of the page loader method, declared in the same class as the annotated method: an instance method
+     * taking two int parameters, the offset of the page's first element and the page size, and returning a List of
+     * the page's elements. Only the last page may have fewer elements than the page size.
+     */
+    String value();
+
+    /**
+     * The name of an instance method taking no parameters and returning an int, declared alongside the page loader,
+     * that returns the number of elements in the list. If unset, finding the list's size loads every page.
+     */
+    String sizeWith() default "";
+
+    /**
+     * The number of elements in each page
+     */
+    int pageSize() default 100;
+
+    /**
+     * The maximum number of pages each list keeps. Once it has more, the least recently read are dropped, and loaded
+     * again if they're needed again.
+     */
+    int maxCachedPages() default 10;
+
+    /**
+     * If true, loading a page also starts loading the next page in the background (on the factory's prefetch
+     * executor), so a caller iterating through the list doesn't wait for each page in turn
+     */
+    boolean prefetchNextPage() default false;
+}
@@ -0,0 +1,20 @@
+package io.boneidle;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the lazy fields (see {@link LazyField}) that the annotated method reads, each of which is initialised before
+ * the method is called if it hasn't been already. Bean getters read the field they're named after without needing
+ * this annotation; annotating one replaces the field it reads by name with those given.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadsLazyFields {
+    /**
+     * The names of the lazy fields, declared in the same class as the method or one of its superclasses
+     */
+    String[] value();
+}
@@ -0,0 +1,33 @@
+package io.boneidle;
+
+/**
+ * A typical lazily loaded entity, for use as a proxying target in the benchmarks
+ */
+public class BenchmarkEntity {
+    private String name;
+    private Integer size;
+
+    public String getUnannotated() {
+        return "unannotated";
+    }
+
+    @LazyLoadWith("loadName")
+    public String getName() {
+        return name;
+    }
+
+    @LazyLoadWith("loadSize")
+    public Integer getSize() {
+        return size;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private void loadName() {
+        name = "name";
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private void loadSize() {
+        size = 42;
+    }
+}
@@ -0,0 +1,49 @@
+package io.boneidle;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The entry point of benchmarks.jar. Takes the same arguments as JMH's own main class, but unless told otherwise with
+ * -rf and -rff, writes the results as JSON to benchmark-results.json, so that they can be compared between builds.
+ */
+public final class BenchmarkMain {
+    static final String DEFAULT_RESULT_FILE = "benchmark-results.json";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (commandLineOptions.shouldHelp()
+                || commandLineOptions.shouldList()
+                || commandLineOptions.shouldListWithParams()
+                || commandLineOptions.shouldListProfilers()
+                || commandLineOptions.shouldListResultFormats())
+        {
+            // Leave anything other than running benchmarks to JMH
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
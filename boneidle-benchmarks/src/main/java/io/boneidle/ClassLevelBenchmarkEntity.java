@@ -0,0 +1,30 @@
+package io.boneidle;
+
+/**
+ * The same entity as {@link BenchmarkEntity}, but lazily loaded with a class-level annotation, for comparing the cost
+ * of resolving class-level and method-level annotations
+ */
+@LazyLoadWith("load")
+public class ClassLevelBenchmarkEntity {
+    private String name;
+    private Integer size;
+
+    @ExcludeFromLazyLoading
+    public String getExcluded() {
+        return "excluded";
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    private void load() {
+        name = "name";
+        size = 42;
+    }
+}
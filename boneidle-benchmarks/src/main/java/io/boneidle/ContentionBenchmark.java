@@ -0,0 +1,54 @@
+package io.boneidle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calls from several threads at once on a single shared proxy, against the same calls on a shared original
+ * object. Once a loader has been invoked, checking it needs no locking, so the proxied calls should scale as well as
+ * the direct ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class ContentionBenchmark {
+    private final BenchmarkEntity original = new BenchmarkEntity();
+    private BenchmarkEntity sharedProxy;
+
+    @Setup
+    public void setUp() {
+        sharedProxy = LazyFactory.proxy(new BenchmarkEntity());
+        sharedProxy.getName();
+        sharedProxy.getSize();
+    }
+
+    @Benchmark
+    public String sharedDirectCall() {
+        return original.getName();
+    }
+
+    @Benchmark
+    public String sharedProxyCall() {
+        return sharedProxy.getName();
+    }
+
+    @Benchmark
+    public Integer sharedProxyCallsOnDifferentLoaders() {
+        return sharedProxy.getSize() + sharedProxy.getName().length();
+    }
+}
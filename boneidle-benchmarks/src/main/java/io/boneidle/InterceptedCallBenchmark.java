@@ -0,0 +1,79 @@
+package io.boneidle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calls on proxies against the same calls made directly on the original object: lazily loaded methods
+ * whose loader has already been invoked, methods that aren't lazily loaded (unannotated, or excluded from a
+ * class-level annotation), and the first call on a new proxy, which invokes the loader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InterceptedCallBenchmark {
+    private final BenchmarkEntity original = new BenchmarkEntity();
+    private final ClassLevelBenchmarkEntity classLevelOriginal = new ClassLevelBenchmarkEntity();
+    private BenchmarkEntity loadedProxy;
+    private ClassLevelBenchmarkEntity classLevelProxy;
+
+    @Setup
+    public void setUp() {
+        loadedProxy = LazyFactory.proxy(new BenchmarkEntity());
+        loadedProxy.getName();
+        classLevelProxy = LazyFactory.proxy(new ClassLevelBenchmarkEntity());
+        classLevelProxy.getName();
+    }
+
+    @Benchmark
+    public String directCall() {
+        return original.getName();
+    }
+
+    @Benchmark
+    public String loadedProxyCall() {
+        return loadedProxy.getName();
+    }
+
+    @Benchmark
+    public String directUnannotatedCall() {
+        return original.getUnannotated();
+    }
+
+    @Benchmark
+    public String unannotatedProxyCall() {
+        return loadedProxy.getUnannotated();
+    }
+
+    @Benchmark
+    public String directExcludedCall() {
+        return classLevelOriginal.getExcluded();
+    }
+
+    @Benchmark
+    public String excludedProxyCall() {
+        return classLevelProxy.getExcluded();
+    }
+
+    /**
+     * Includes creating the proxy (and the original), so compare against
+     * {@link ProxyCreationBenchmark#steadyStateProxy()} to find the cost of the first, loading, call
+     */
+    @Benchmark
+    public String firstCallOnNewProxy() {
+        return LazyFactory.proxy(new BenchmarkEntity()).getName();
+    }
+}
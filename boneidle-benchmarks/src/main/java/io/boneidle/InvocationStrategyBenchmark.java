@@ -0,0 +1,67 @@
+package io.boneidle;
+
+import io.boneidle.InvocationStrategy.DelegateInvoker;
+import io.boneidle.InvocationStrategy.LoaderInvoker;
+import net.sf.cglib.core.Signature;
+import net.sf.cglib.proxy.MethodProxy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares invoking loaders and delegating intercepted methods with the method handle strategy against the
+ * reflective / CGLIB MethodProxy fallback strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InvocationStrategyBenchmark {
+    private static final Object[] NO_ARGS = new Object[0];
+
+    @Param({ "methodHandle", "reflective" })
+    public String strategy;
+
+    private final BenchmarkEntity original = new BenchmarkEntity();
+    private LoaderInvoker loader;
+    private DelegateInvoker delegate;
+    private MethodProxy methodProxy;
+
+    @Setup
+    public void setUp() throws Exception {
+        InvocationStrategy invocationStrategy = strategy.equals("methodHandle")
+                ? new MethodHandleInvocationStrategy()
+                : new ReflectiveInvocationStrategy();
+
+        loader = invocationStrategy.bindLoader(BenchmarkEntity.class.getDeclaredMethod("loadName"));
+
+        Method getName = BenchmarkEntity.class.getDeclaredMethod("getName");
+        delegate = invocationStrategy.bindDelegate(getName);
+
+        Class<?> proxyClass = LazyFactory.proxy(original).getClass();
+        methodProxy = MethodProxy.find(proxyClass, new Signature("getName", "()Ljava/lang/String;"));
+    }
+
+    @Benchmark
+    public void invokeLoader() throws Throwable {
+        loader.invoke(original);
+    }
+
+    @Benchmark
+    public Object invokeDelegate() throws Throwable {
+        return delegate.invoke(original, NO_ARGS, methodProxy);
+    }
+}
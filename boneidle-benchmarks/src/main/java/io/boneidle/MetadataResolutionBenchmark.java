@@ -0,0 +1,37 @@
+package io.boneidle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares resolving the loaders of a class annotated method by method against one annotated at class level. This is
+ * done once per proxied class, when its proxy class is generated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetadataResolutionBenchmark {
+    private final LoaderMethodResolver resolver = new LoaderMethodResolver();
+
+    @Benchmark
+    public Object methodLevelAnnotations() {
+        return resolver.resolve(BenchmarkEntity.class);
+    }
+
+    @Benchmark
+    public Object classLevelAnnotation() {
+        return resolver.resolve(ClassLevelBenchmarkEntity.class);
+    }
+}
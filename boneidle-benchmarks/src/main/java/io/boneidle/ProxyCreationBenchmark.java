@@ -0,0 +1,63 @@
+package io.boneidle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the first proxy created for a class (which has to generate the proxy class) against the
+ * steady-state cost of proxying further instances of that class, both when proxying an existing object and when
+ * proxying a class (which also has to instantiate it).
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProxyCreationBenchmark {
+    private final BenchmarkEntity original = new BenchmarkEntity();
+
+    /**
+     * Each fork is a fresh JVM, and each measures only a single call, so this is always the first proxy of its class.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public BenchmarkEntity firstProxyOfClass() {
+        return LazyFactory.proxy(original);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public BenchmarkEntity steadyStateProxy() {
+        return LazyFactory.proxy(original);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public BenchmarkEntity firstProxyOfClassFromClass() {
+        return LazyFactory.proxy(BenchmarkEntity.class);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @Fork(1)
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public BenchmarkEntity steadyStateProxyFromClass() {
+        return LazyFactory.proxy(BenchmarkEntity.class);
+    }
+}
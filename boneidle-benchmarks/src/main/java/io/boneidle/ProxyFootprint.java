@@ -0,0 +1,55 @@
+package io.boneidle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained per proxy, by creating a million proxies of {@link BenchmarkEntity} (with their loaders
+ * invoked, and without) and comparing the used heap before and after. JMH doesn't measure footprint, so this is a
+ * plain main class; run it with
+ * {@code java -cp boneidle-benchmarks/target/benchmarks.jar io.boneidle.ProxyFootprint}, ideally with a fixed heap
+ * size (e.g. -Xms2g -Xmx2g) so that the measurements are stable.
+ */
+public final class ProxyFootprint {
+    private static final int PROXY_COUNT = 1000000;
+
+    private ProxyFootprint() {}
+
+    public static void main(String[] args) {
+        measure("original objects only", LazyFactory.builder().build(), false, false);
+        measure("proxies, not loaded", LazyFactory.builder().build(), true, false);
+        measure("proxies, loaded", LazyFactory.builder().build(), true, true);
+        measure("in-place proxies, not loaded", LazyFactory.builder().inPlaceProxies(true).build(), true, false);
+        measure("in-place proxies, loaded", LazyFactory.builder().inPlaceProxies(true).build(), true, true);
+    }
+
+    private static void measure(String description, LazyFactory factory, boolean proxy, boolean load) {
+        // Warm up, so that proxy classes and the like aren't counted
+        factory.createProxy(new BenchmarkEntity()).getName();
+
+        List<BenchmarkEntity> entities = new ArrayList<BenchmarkEntity>(PROXY_COUNT);
+        long before = usedHeap();
+        for (int i = 0; i < PROXY_COUNT; i++) {
+            BenchmarkEntity entity = proxy ? factory.createProxy(new BenchmarkEntity()) : new BenchmarkEntity();
+            if (load) {
+                entity.getName();
+                entity.getSize();
+            }
+            entities.add(entity);
+        }
+        long after = usedHeap();
+
+        System.out.printf("%-30s %6.1f bytes per object%n", description, (after - before) / (double) PROXY_COUNT);
+        if (entities.size() != PROXY_COUNT) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
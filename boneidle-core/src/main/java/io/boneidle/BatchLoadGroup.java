@@ -0,0 +1,59 @@
+package io.boneidle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A group of proxies of the same class, created together, whose batch loaders are invoked together: when one proxy
+ * needs a batch loader, it is invoked once with the originals of every proxy in the group that hasn't already loaded
+ * it (or started loading it), rather than once per proxy.
+ *
+ * The group holds on to every member, so the originals of a group stay reachable for as long as any of its proxies
+ * is.
+ */
+final class BatchLoadGroup {
+    private final LazyLoadingMetadata metadata;
+    private volatile LazyLoadWithMethodInterceptor<?>[] members = new LazyLoadWithMethodInterceptor<?>[0];
+
+    BatchLoadGroup(LazyLoadingMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    /**
+     * Sets the members of the group. Must be called before any of the members' proxies are used.
+     */
+    void setMembers(List<? extends LazyLoadWithMethodInterceptor<?>> members) {
+        this.members = members.toArray(new LazyLoadWithMethodInterceptor<?>[members.size()]);
+    }
+
+    /**
+     * Invokes a batch loader for the given member, and for every other member that has loaded the batch loader's
+     * dependencies but hasn't started loading the batch loader itself. The requesting member must have already started
+     * loading it, and is responsible for finishing loading it; the others are finished here.
+     */
+    void load(int loaderIndex, LazyLoadWithMethodInterceptor<?> requester) throws Throwable {
+        LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+        List<LazyLoadWithMethodInterceptor<?>> others = new ArrayList<LazyLoadWithMethodInterceptor<?>>();
+        for (LazyLoadWithMethodInterceptor<?> member : members) {
+            if (member != requester && member.areLoaded(loader.dependencies) && member.startLoading(loaderIndex)) {
+                others.add(member);
+            }
+        }
+
+        List<Object> originals = new ArrayList<Object>(others.size() + 1);
+        originals.add(requester.getOriginal());
+        for (LazyLoadWithMethodInterceptor<?> member : others) {
+            originals.add(member.getOriginal());
+        }
+
+        boolean loaded = false;
+        try {
+            loader.batchInvoker.invoke(originals);
+            loaded = true;
+        } finally {
+            for (LazyLoadWithMethodInterceptor<?> member : others) {
+                member.finishLoading(loaderIndex, loaded);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateObjectToProxyRuntimeException;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.NoOp;
+import org.objenesis.ObjenesisStd;
+import org.objenesis.instantiator.ObjectInstantiator;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A CGLIB-generated proxy class, along with the lazy-loading metadata of the class it proxies and a precomputed
+ * instantiator for creating instances of it without calling a constructor. The instantiator isn't kept in Objenesis's
+ * (static) cache, which would otherwise stop the proxy class, and the class loader of the class it proxies, from ever
+ * being garbage collected.
+ *
+ * Instances are created with no callbacks registered on the class, so each proxy instance is wired up to its own
+ * callbacks directly (rather than via CGLIB's thread-local callback registration).
+ *
+ * In-place proxies are their own original, so are created with a copy of the original's fields, or by calling the
+ * proxy class's no-arg constructor (which calls the proxied class's), and their interceptor invokes loaders on them.
+ *
+ * If the factory has an entity cache, a proxy of an entity that's already been proxied shares the earlier proxy's
+ * interceptor, and delegates to the earlier proxy's original rather than its own. Otherwise, if the factory was built
+ * with a snapshot holding the entity's state, the new proxy is restored from it before any loaders are prefetched.
+ */
+final class CglibProxyClass extends ProxyClass {
+    private final ObjectInstantiator instantiator;
+    private final LazyLoadingMetadata metadata;
+    private final LoadingOptions options;
+    /**
+     * For in-place proxies, the proxied class's instance fields, and its no-arg constructor (if it has one)
+     */
+    private final Field[] fields;
+    private final Constructor<?> constructor;
+
+    CglibProxyClass(Class<?> proxyClass, LazyClass lazyClass) {
+        super(lazyClass);
+        this.instantiator = new ObjenesisStd(false).getInstantiatorOf(proxyClass);
+        this.metadata = lazyClass.getMetadata();
+        this.options = lazyClass.getOptions();
+        this.fields = options.inPlace ? getInstanceFields(metadata.getProxiedClass()) : null;
+        this.constructor = options.inPlace ? getNoArgConstructor(proxyClass) : null;
+    }
+
+    @Override
+    public <T> T newProxy(T original) {
+        T proxy = instantiate(original);
+        LazyLoadWithMethodInterceptor<T> interceptor =
+                new LazyLoadWithMethodInterceptor<T>(metadata, target(original, proxy), options, null);
+        LazyLoadWithMethodInterceptor<T> sharedInterceptor = share(interceptor);
+        setCallbacks(proxy, sharedInterceptor.getOriginal(), sharedInterceptor);
+        if (sharedInterceptor == interceptor) {
+            restore(interceptor);
+            prefetch(interceptor);
+        }
+        return proxy;
+    }
+
+    @Override
+    <T> T newProxy(Class<T> originalClass) {
+        if (constructor == null) {
+            return super.newProxy(originalClass);
+        }
+
+        T proxy;
+        try {
+            proxy = originalClass.cast(constructor.newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw CannotCreateObjectToProxyRuntimeException.create(originalClass, e);
+        }
+        LazyLoadWithMethodInterceptor<T> interceptor =
+                new LazyLoadWithMethodInterceptor<T>(metadata, proxy, options, null);
+        setCallbacks(proxy, proxy, interceptor);
+        prefetch(interceptor);
+        return proxy;
+    }
+
+    /**
+     * If the proxied class has batch loaders, the proxies are put in a {@link BatchLoadGroup}, so that each batch
+     * loader is invoked once for all of them (apart from any sharing an earlier proxy's interceptor, which keep that
+     * proxy's group)
+     */
+    @Override
+    <T> List<T> newProxies(List<T> originals) {
+        if (!metadata.hasBatchLoaders()) {
+            return super.newProxies(originals);
+        }
+
+        BatchLoadGroup group = new BatchLoadGroup(metadata);
+        List<LazyLoadWithMethodInterceptor<T>> interceptors = new ArrayList<LazyLoadWithMethodInterceptor<T>>();
+        List<T> proxies = new ArrayList<T>(originals.size());
+        for (T original : originals) {
+            T proxy = instantiate(original);
+            LazyLoadWithMethodInterceptor<T> interceptor =
+                    new LazyLoadWithMethodInterceptor<T>(metadata, target(original, proxy), options, group);
+            LazyLoadWithMethodInterceptor<T> sharedInterceptor = share(interceptor);
+            setCallbacks(proxy, sharedInterceptor.getOriginal(), sharedInterceptor);
+            if (sharedInterceptor == interceptor) {
+                interceptors.add(interceptor);
+            }
+            proxies.add(proxy);
+        }
+        group.setMembers(interceptors);
+
+        for (LazyLoadWithMethodInterceptor<T> interceptor : interceptors) {
+            restore(interceptor);
+            prefetch(interceptor);
+        }
+        return proxies;
+    }
+
+    /**
+     * @return The interceptor of the given proxy, or null if the object isn't a proxy created with CGLIB by a
+     * {@link LazyFactory}
+     */
+    static LazyLoadWithMethodInterceptor<?> findInterceptor(Object proxy) {
+        if (proxy instanceof Factory) {
+            Callback[] callbacks = ((Factory) proxy).getCallbacks();
+            if (callbacks.length > LazyLoadingCallbackFilter.INTERCEPT
+                    && callbacks[LazyLoadingCallbackFilter.INTERCEPT] instanceof LazyLoadWithMethodInterceptor)
+            {
+                return (LazyLoadWithMethodInterceptor<?>) callbacks[LazyLoadingCallbackFilter.INTERCEPT];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a proxy instance, without any callbacks, copying the original's fields into it if it's in-place
+     */
+    private <T> T instantiate(T original) {
+        // The proxy class subclasses the original's class
+        @SuppressWarnings("unchecked")
+        T proxy = (T) instantiator.newInstance();
+        if (fields != null) {
+            try {
+                for (Field field : fields) {
+                    field.set(proxy, field.get(original));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return proxy;
+    }
+
+    /**
+     * @return The object on which the proxy's loaders are invoked, and to which its lazily loaded methods delegate
+     */
+    private <T> T target(T original, T proxy) {
+        return options.inPlace ? proxy : original;
+    }
+
+    /**
+     * @return The interceptor of an earlier proxy of the same entity as the given interceptor's original, from the
+     * entity cache, or else the given interceptor
+     */
+    private <T> LazyLoadWithMethodInterceptor<T> share(LazyLoadWithMethodInterceptor<T> interceptor) {
+        return options.entityCache == null ? interceptor : options.entityCache.share(metadata, interceptor);
+    }
+
+    private <T> void setCallbacks(T proxy, T original, LazyLoadWithMethodInterceptor<T> interceptor) {
+        // Indexed by LazyLoadingCallbackFilter's callback indices
+        Callback[] callbacks = new Callback[] {
+                options.inPlace ? NoOp.INSTANCE : new OriginalDispatcher(original),
+                interceptor
+        };
+        ((Factory) proxy).setCallbacks(callbacks);
+    }
+
+    private <T> void restore(LazyLoadWithMethodInterceptor<T> interceptor) {
+        if (options.snapshot != null) {
+            options.snapshot.restore(metadata, interceptor);
+        }
+    }
+
+    private void prefetch(LazyLoadWithMethodInterceptor<?> interceptor) {
+        if (metadata.getPrefetchedLoaderIndices().length > 0) {
+            interceptor.prefetch();
+        }
+    }
+
+    private static Field[] getInstanceFields(Class<?> proxiedClass) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Class<?> c = proxiedClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields.toArray(new Field[fields.size()]);
+    }
+
+    private static Constructor<?> getNoArgConstructor(Class<?> proxyClass) {
+        try {
+            Constructor<?> constructor = proxyClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
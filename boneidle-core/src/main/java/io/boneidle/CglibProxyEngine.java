@@ -0,0 +1,53 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
+import net.sf.cglib.proxy.Dispatcher;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.NoOp;
+
+/**
+ * Generates lazy-loading subclasses with CGLIB (see {@link ProxyEngine#CGLIB}).
+ *
+ * CGLIB's own cache of generated classes is bypassed: it strongly refers to each class's callback filter, and so to
+ * the proxied class and its class loader, from a map that's only weakly keyed by that loader, so the loader could
+ * never be collected. Factories cache their proxy classes per proxied class anyway.
+ */
+final class CglibProxyEngine extends ProxyEngine {
+    @Override
+    public ProxyClass createProxyClass(LazyClass lazyClass) {
+        Class<?> originalClass = lazyClass.getProxiedClass();
+        LazyLoadingMetadata metadata = lazyClass.getMetadata();
+        LoadingOptions options = lazyClass.getOptions();
+        Enhancer enhancer = new Enhancer();
+
+        enhancer.setSuperclass(originalClass);
+        enhancer.setUseCache(false);
+        Class<?> dispatcherType = options.inPlace ? NoOp.class : Dispatcher.class;
+        enhancer.setCallbackTypes(new Class[] { dispatcherType, LazyLoadWithMethodInterceptor.class });
+        enhancer.setCallbackFilter(new LazyLoadingCallbackFilter(metadata, options.inPlace));
+
+        Class<?> proxyClass = tryCreateClass(enhancer, originalClass);
+        return new CglibProxyClass(proxyClass, lazyClass);
+    }
+
+    @Override
+    public LazyHandler findHandler(Object proxy) {
+        LazyLoadWithMethodInterceptor<?> interceptor = CglibProxyClass.findInterceptor(proxy);
+        return interceptor == null
+                ? null
+                : new LazyHandler(new LazyClass(interceptor.getMetadata(), interceptor.getOptions()), interceptor);
+    }
+
+    private Class<?> tryCreateClass(Enhancer enhancer, Class<?> originalClass) {
+        try {
+            return enhancer.createClass();
+        } catch (IllegalArgumentException e) {
+            throw CannotCreateLazyProxyRuntimeException.create(originalClass, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CGLIB";
+    }
+}
@@ -0,0 +1,38 @@
+package io.boneidle;
+
+/**
+ * Invalidations of every proxy of a class created by a factory (see {@link LazyFactory#invalidateProxies(Class)}),
+ * counted in generations. Each proxy's interceptor remembers the generation it has caught up with, and catches up with
+ * the latest the next time one of its lazily loaded methods is called, so invalidating a class costs nothing per proxy
+ * until then, and checking for invalidations costs a call a volatile read of a field that's rarely written.
+ */
+final class ClassInvalidations {
+    private volatile int generation = 0;
+    /**
+     * The generation of the latest invalidation that didn't refresh in the background
+     */
+    private volatile int lastReloadingGeneration = 0;
+
+    /**
+     * @param refresh Whether proxies refresh their loaded state in the background, rather than reloading it on the
+     * next call that needs it
+     */
+    synchronized void invalidate(boolean refresh) {
+        // The reloading generation is written first, so that it's seen by anyone who sees the new generation
+        if (!refresh) {
+            lastReloadingGeneration = generation + 1;
+        }
+        generation++;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return true if any invalidation since the given generation was one that reloads, rather than refreshes
+     */
+    boolean reloadsSince(int generation) {
+        return lastReloadingGeneration - generation > 0;
+    }
+}
@@ -0,0 +1,46 @@
+package io.boneidle;
+
+import java.lang.reflect.Method;
+
+/**
+ * Passes measurements on to two other sinks, for when Flight Recorder events are enabled as well as a metrics sink
+ */
+final class CompositeMetricsSink implements LoaderMetricsSink {
+    private final LoaderMetricsSink first;
+    private final LoaderMetricsSink second;
+
+    CompositeMetricsSink(LoaderMetricsSink first, LoaderMetricsSink second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void callIntercepted(Class<?> proxiedClass, Method loader) {
+        first.callIntercepted(proxiedClass, loader);
+        second.callIntercepted(proxiedClass, loader);
+    }
+
+    @Override
+    public void loadSkipped(Class<?> proxiedClass, Method loader) {
+        first.loadSkipped(proxiedClass, loader);
+        second.loadSkipped(proxiedClass, loader);
+    }
+
+    @Override
+    public void loadSucceeded(Class<?> proxiedClass, Method loader, long durationNanos) {
+        first.loadSucceeded(proxiedClass, loader, durationNanos);
+        second.loadSucceeded(proxiedClass, loader, durationNanos);
+    }
+
+    @Override
+    public void loadFailed(Class<?> proxiedClass, Method loader, long durationNanos, Throwable failure) {
+        first.loadFailed(proxiedClass, loader, durationNanos, failure);
+        second.loadFailed(proxiedClass, loader, durationNanos, failure);
+    }
+
+    @Override
+    public void loadAwaited(Class<?> proxiedClass, Method loader, long waitNanos) {
+        first.loadAwaited(proxiedClass, loader, waitNanos);
+        second.loadAwaited(proxiedClass, loader, waitNanos);
+    }
+}
@@ -0,0 +1,48 @@
+package io.boneidle;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default executor for invoking loaders in the background (prefetching them, or loading independent dependencies
+ * in parallel): a virtual thread per task where the JVM supports them (Java 21+), and otherwise a cached pool of
+ * daemon threads. The underlying executor is only created when first used.
+ */
+final class DefaultLoaderExecutor implements Executor {
+    static final DefaultLoaderExecutor INSTANCE = new DefaultLoaderExecutor();
+
+    private DefaultLoaderExecutor() {}
+
+    @Override
+    public void execute(Runnable command) {
+        Holder.EXECUTOR.execute(command);
+    }
+
+    private static final class Holder {
+        private static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return createDaemonThreadPool();
+            }
+        }
+
+        private static ExecutorService createDaemonThreadPool() {
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                private final AtomicInteger threadCount = new AtomicInteger();
+
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "boneidle-loader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+}
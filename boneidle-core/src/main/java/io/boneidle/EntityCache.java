@@ -0,0 +1,82 @@
+package io.boneidle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A factory's cache of the interceptors of proxies of entities (objects of classes with an {@link EntityKey}), keyed
+ * by class and entity key, so that every proxy of the same entity can share one interceptor, and so one original
+ * object and one set of loader states: each loader is invoked once per entity, and concurrent calls on different
+ * proxies of an entity wait for each other's loads just as calls on the same proxy do.
+ *
+ * The cache holds at most a fixed number of entities, evicting the least recently proxied. Evicting an entity doesn't
+ * affect the proxies already created for it, but the next proxy of it starts afresh. The cache is only consulted when
+ * a proxy is created, so it's simply synchronized.
+ */
+final class EntityCache {
+    private final Map<Key, LazyLoadWithMethodInterceptor<?>> interceptors;
+
+    EntityCache(final int maxEntities) {
+        this.interceptors = new LinkedHashMap<Key, LazyLoadWithMethodInterceptor<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LazyLoadWithMethodInterceptor<?>> eldest) {
+                return size() > maxEntities;
+            }
+        };
+    }
+
+    /**
+     * @return The cached interceptor of the given interceptor's entity, if there is one, or else the given
+     * interceptor, which is cached if its original has an entity key
+     */
+    <T> LazyLoadWithMethodInterceptor<T> share(LazyLoadingMetadata metadata,
+                                               LazyLoadWithMethodInterceptor<T> interceptor)
+    {
+        if (!metadata.hasEntityKey()) {
+            return interceptor;
+        }
+        Object entityKey = metadata.getEntityKey(interceptor.getOriginal());
+        if (entityKey == null) {
+            return interceptor;
+        }
+        return share(metadata.getProxiedClass(), entityKey, interceptor);
+    }
+
+    private synchronized <T> LazyLoadWithMethodInterceptor<T> share(Class<?> proxiedClass, Object entityKey,
+                                                                    LazyLoadWithMethodInterceptor<T> interceptor)
+    {
+        Key key = new Key(proxiedClass, entityKey);
+        // Keyed by the proxied class, so a cached interceptor's original is of the same class as this one's
+        @SuppressWarnings("unchecked")
+        LazyLoadWithMethodInterceptor<T> cached = (LazyLoadWithMethodInterceptor<T>) interceptors.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        interceptors.put(key, interceptor);
+        return interceptor;
+    }
+
+    private static final class Key {
+        private final Class<?> proxiedClass;
+        private final Object entityKey;
+
+        Key(Class<?> proxiedClass, Object entityKey) {
+            this.proxiedClass = proxiedClass;
+            this.entityKey = entityKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return proxiedClass == other.proxiedClass && entityKey.equals(other.entityKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * proxiedClass.hashCode() + entityKey.hashCode();
+        }
+    }
+}
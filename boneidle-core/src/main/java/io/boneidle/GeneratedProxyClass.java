@@ -0,0 +1,110 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lazy-loading subclass generated at compile time by the boneidle-processor annotation processor, if one is on
+ * the classpath for the proxied class.
+ *
+ * Generated subclasses are named after the binary name of the class they proxy plus {@link #SUFFIX}, and have a
+ * constructor taking the original object and a counter of invalidations of the class, which each factory shares
+ * between its proxies: invalidating them all just increments it. A generated subclass also has a method invalidating
+ * a single proxy's loaders, though it can't refresh them in the background, so a refresh is an invalidation.
+ */
+final class GeneratedProxyClass extends ProxyClass {
+    /**
+     * Must match the suffix used by io.boneidle.processor.LazyProxyProcessor
+     */
+    static final String SUFFIX = "$$BoneidleLazy";
+
+    private static final String INVALIDATE_METHOD_NAME = "boneidle$invalidate";
+
+    private final Constructor<?> constructor;
+    private final AtomicInteger invalidations = new AtomicInteger();
+
+    private GeneratedProxyClass(Constructor<?> constructor) {
+        this.constructor = constructor;
+    }
+
+    /**
+     * @return The generated proxy class for originalClass, or null if there is none on the classpath
+     */
+    static GeneratedProxyClass find(Class<?> originalClass) {
+        Class<?> generatedClass;
+        try {
+            generatedClass = Class.forName(originalClass.getName() + SUFFIX, true, originalClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+
+        if (generatedClass.getSuperclass() != originalClass) {
+            return null;
+        }
+
+        try {
+            Constructor<?> constructor = generatedClass.getDeclaredConstructor(originalClass, AtomicInteger.class);
+            constructor.setAccessible(true);
+            return new GeneratedProxyClass(constructor);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the object is a proxy generated at compile time by boneidle-processor
+     */
+    static boolean isGeneratedProxy(Object proxy) {
+        Class<?> superclass = proxy.getClass().getSuperclass();
+        return superclass != null && proxy.getClass().getName().equals(superclass.getName() + SUFFIX);
+    }
+
+    /**
+     * Invalidates the loaders of a generated proxy with the given name, or all of them if it's null
+     *
+     * @throws IllegalArgumentException if the proxied class has no loader with the given name
+     */
+    static void invalidate(Object proxy, String loaderName) {
+        boolean invalidated;
+        try {
+            Method invalidate = proxy.getClass().getDeclaredMethod(INVALIDATE_METHOD_NAME, String.class);
+            invalidate.setAccessible(true);
+            invalidated = (Boolean) invalidate.invoke(proxy, loaderName);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(proxy + " is not a lazy-loading proxy that can be invalidated", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        if (!invalidated) {
+            throw new IllegalArgumentException(
+                    proxy.getClass().getSuperclass().getName() + " has no lazy loader named " + loaderName);
+        }
+    }
+
+    /**
+     * Proxies catch up with the invalidation the next time one of their lazily loaded methods is called. As they can't
+     * refresh in the background, they invalidate their loaders even when refreshing.
+     */
+    @Override
+    void invalidateProxies(boolean refresh) {
+        invalidations.incrementAndGet();
+    }
+
+    @Override
+    public <T> T newProxy(T original) {
+        try {
+            // The generated class subclasses the original's class
+            @SuppressWarnings("unchecked")
+            T proxy = (T) constructor.newInstance(original, invalidations);
+            return proxy;
+        } catch (ReflectiveOperationException e) {
+            throw CannotCreateLazyProxyRuntimeException.create(original, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A {@link Proxy} class implementing every interface of the class it proxies.
+ *
+ * Each proxy has its own invocation handler, which hands every call to the proxy's {@link LazyHandler}. So, like any
+ * engine outside this package could, it only uses the public parts of {@link LazyClass} and {@link LazyHandler}.
+ */
+final class InterfaceProxyClass extends ProxyClass {
+    private final LazyClass lazyClass;
+    private final Constructor<?> constructor;
+
+    /**
+     * @throws CannotCreateLazyProxyRuntimeException if the class implements no interfaces, or a proxy class can't be
+     * created for them
+     */
+    InterfaceProxyClass(LazyClass lazyClass) {
+        super(lazyClass);
+        Class<?> originalClass = lazyClass.getProxiedClass();
+        Class<?>[] interfaces = getInterfaces(originalClass);
+        if (interfaces.length == 0) {
+            throw CannotCreateLazyProxyRuntimeException.create(originalClass,
+                    new IllegalArgumentException("Interface proxies need a class that implements an interface"));
+        }
+        try {
+            this.constructor = Proxy.getProxyClass(originalClass.getClassLoader(), interfaces)
+                    .getConstructor(InvocationHandler.class);
+        } catch (IllegalArgumentException e) {
+            throw CannotCreateLazyProxyRuntimeException.create(originalClass, e);
+        } catch (NoSuchMethodException e) {
+            throw CannotCreateLazyProxyRuntimeException.create(originalClass, e);
+        }
+        this.lazyClass = lazyClass;
+    }
+
+    @Override
+    public <T> T newProxy(T original) {
+        try {
+            // Only holds while T is one of the original's interfaces, which callers must proxy it as
+            @SuppressWarnings("unchecked")
+            T proxy = (T) constructor.newInstance(new Handler(lazyClass.newHandler(original)));
+            return proxy;
+        } catch (ReflectiveOperationException e) {
+            throw CannotCreateLazyProxyRuntimeException.create(original, e);
+        }
+    }
+
+    /**
+     * @return The handler of the given proxy, or null if the object isn't an interface proxy created by a
+     * {@link LazyFactory}
+     */
+    static LazyHandler findHandler(Object proxy) {
+        if (Proxy.isProxyClass(proxy.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+            if (handler instanceof Handler) {
+                return ((Handler) handler).lazyHandler;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?>[] getInterfaces(Class<?> originalClass) {
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        for (Class<?> c = originalClass; c != null; c = c.getSuperclass()) {
+            for (Class<?> anInterface : c.getInterfaces()) {
+                interfaces.add(anInterface);
+            }
+        }
+        return interfaces.toArray(new Class<?>[interfaces.size()]);
+    }
+
+    private static final class Handler implements InvocationHandler {
+        private final LazyHandler lazyHandler;
+
+        Handler(LazyHandler lazyHandler) {
+            this.lazyHandler = lazyHandler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return lazyHandler.invoke(method, args);
+        }
+    }
+}
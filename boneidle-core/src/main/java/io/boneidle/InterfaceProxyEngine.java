@@ -0,0 +1,22 @@
+package io.boneidle;
+
+/**
+ * Creates lazy-loading {@link java.lang.reflect.Proxy} classes for the interfaces of proxied classes (see
+ * {@link ProxyEngine#INTERFACES}).
+ */
+final class InterfaceProxyEngine extends ProxyEngine {
+    @Override
+    public ProxyClass createProxyClass(LazyClass lazyClass) {
+        return new InterfaceProxyClass(lazyClass);
+    }
+
+    @Override
+    public LazyHandler findHandler(Object proxy) {
+        return InterfaceProxyClass.findHandler(proxy);
+    }
+
+    @Override
+    public String toString() {
+        return "INTERFACES";
+    }
+}
@@ -0,0 +1,58 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Strategy for invoking loader methods on the original object, and for delegating intercepted methods to it.
+ *
+ * Methods are bound once per proxied class, when its lazy-loading metadata is resolved, so the invokers returned
+ * should do any expensive preparation up front.
+ */
+interface InvocationStrategy {
+    LoaderInvoker bindLoader(Method loaderMethod);
+
+    /**
+     * @param batchLoaderMethod A static method taking a single List of original objects
+     */
+    BatchLoaderInvoker bindBatchLoader(Method batchLoaderMethod);
+
+    /**
+     * @return An invoker that sets the lazy field to the value returned by its supplier
+     */
+    LoaderInvoker bindFieldSupplier(Method supplierMethod, Field field);
+
+    DelegateInvoker bindDelegate(Method method);
+
+    /**
+     * @return An invoker that tells whether the field is set (not null)
+     */
+    CheckInvoker bindFieldSetCheck(Field field);
+
+    /**
+     * @param predicateMethod An instance method taking no parameters and returning boolean
+     */
+    CheckInvoker bindPredicate(Method predicateMethod);
+
+    interface LoaderInvoker {
+        void invoke(Object original) throws Throwable;
+    }
+
+    interface BatchLoaderInvoker {
+        void invoke(List<?> originals) throws Throwable;
+    }
+
+    interface DelegateInvoker {
+        /**
+         * @param methodProxy CGLIB's proxy for the intercepted method, which strategies may use to delegate
+         */
+        Object invoke(Object original, Object[] args, MethodProxy methodProxy) throws Throwable;
+    }
+
+    interface CheckInvoker {
+        boolean invoke(Object original) throws Throwable;
+    }
+}
@@ -0,0 +1,129 @@
+package io.boneidle;
+
+import io.boneidle.LazyLoadingMetadata.LazyMethod;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A class being proxied, with its lazy-loading configuration and the options of the factory proxying it, as given to
+ * a {@link ProxyEngine}.
+ *
+ * Each method called on a proxy is dispatched to the proxied class's implementation of it (its nearest concrete
+ * declaration in the class or its superclasses), or, if the class inherits a default implementation from an
+ * interface, to the method itself. How each method is dispatched is worked out the first time it's called.
+ */
+public final class LazyClass {
+    private final LazyLoadingMetadata metadata;
+    private final LoadingOptions options;
+    private final ConcurrentMap<Method, Dispatch> dispatches = new ConcurrentHashMap<Method, Dispatch>();
+
+    LazyClass(LazyLoadingMetadata metadata, LoadingOptions options) {
+        this.metadata = metadata;
+        this.options = options;
+    }
+
+    public Class<?> getProxiedClass() {
+        return metadata.getProxiedClass();
+    }
+
+    /**
+     * @param method A method of the proxied class, or of one of its superclasses or interfaces
+     * @return true if calling the method invokes loaders, or returns a paged list
+     */
+    public boolean isLazilyLoaded(Method method) {
+        return getDispatch(method).lazyMethod != null;
+    }
+
+    /**
+     * Creates the handler for a new proxy of the given original. If the factory shares entities' loaded state, the
+     * handler may share an earlier proxy's original; otherwise, the new proxy's state is restored from the factory's
+     * snapshot, if it has one, and its prefetched loaders are started.
+     */
+    public <T> LazyHandler newHandler(T original) {
+        LazyLoadWithMethodInterceptor<T> interceptor =
+                new LazyLoadWithMethodInterceptor<T>(metadata, original, options, null);
+        LazyLoadWithMethodInterceptor<T> sharedInterceptor = options.entityCache == null
+                ? interceptor
+                : options.entityCache.share(metadata, interceptor);
+
+        if (sharedInterceptor == interceptor) {
+            if (options.snapshot != null) {
+                options.snapshot.restore(metadata, interceptor);
+            }
+            if (metadata.getPrefetchedLoaderIndices().length > 0) {
+                interceptor.prefetch();
+            }
+        }
+        return new LazyHandler(this, sharedInterceptor);
+    }
+
+    LazyLoadingMetadata getMetadata() {
+        return metadata;
+    }
+
+    LoadingOptions getOptions() {
+        return options;
+    }
+
+    Dispatch getDispatch(Method method) {
+        Dispatch dispatch = dispatches.get(method);
+        if (dispatch == null) {
+            dispatch = createDispatch(method);
+            Dispatch existing = dispatches.putIfAbsent(method, dispatch);
+            if (existing != null) {
+                dispatch = existing;
+            }
+        }
+        return dispatch;
+    }
+
+    private Dispatch createDispatch(Method method) {
+        Method implementation = findImplementation(method);
+        if (implementation == null) {
+            // A default method isn't declared by the class, so isn't lazily loaded
+            method.setAccessible(true);
+            return new Dispatch(method, null);
+        }
+        implementation.setAccessible(true);
+        // A generic interface's method may be implemented by a bridge to the method actually declared
+        Method declaration = implementation.isBridge()
+                ? LoaderMethodResolver.findBridgedMethod(implementation)
+                : implementation;
+        return new Dispatch(implementation, declaration == null ? null : metadata.getLazyMethod(declaration));
+    }
+
+    /**
+     * @return The nearest concrete declaration of the given method in the class or its superclasses, or null if
+     * there's none, as the class inherits a default method
+     */
+    private Method findImplementation(Method method) {
+        for (Class<?> c = metadata.getProxiedClass(); c != null; c = c.getSuperclass()) {
+            try {
+                Method declared = c.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                if (!Modifier.isAbstract(declared.getModifiers())) {
+                    return declared;
+                }
+            } catch (NoSuchMethodException e) {
+                // Try the superclass
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The method, made accessible, that a call to a method is dispatched to, and its lazy method, or null if it isn't
+     * lazily loaded
+     */
+    static final class Dispatch {
+        final Method implementation;
+        final LazyMethod lazyMethod;
+
+        Dispatch(Method implementation, LazyMethod lazyMethod) {
+            this.implementation = implementation;
+            this.lazyMethod = lazyMethod;
+        }
+    }
+}
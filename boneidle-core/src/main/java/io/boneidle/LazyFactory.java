@@ -2,16 +2,41 @@ package io.boneidle;
 
 import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
 import io.boneidle.exception.CannotCreateObjectToProxyRuntimeException;
-import net.sf.cglib.proxy.Callback;
-import net.sf.cglib.proxy.Enhancer;
-import org.objenesis.ObjenesisHelper;
+import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
+import io.boneidle.exception.CyclicLoaderDependencyRuntimeException;
 
-import java.lang.reflect.Constructor;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class LazyFactory {
-    private static LazyFactory instance = null;
-
     private final LoaderMethodResolver loaderMethodResolver;
+    private final LoadingOptions options;
+    private final ProxyEngine proxyEngine;
+    /**
+     * Engines used instead of the factory's engine for particular proxied classes
+     */
+    private final Map<Class<?>, ProxyEngine> proxyEngines;
+
+    /**
+     * Generated proxy classes, keyed by the class being proxied. Generating a proxy class is expensive, so we do it
+     * only the first time a class is proxied; thereafter, creating a proxy is just a few allocations and a field set.
+     */
+    private final ClassValue<ProxyClass> proxyClasses = new ClassValue<ProxyClass>() {
+        @Override
+        protected ProxyClass computeValue(Class<?> originalClass) {
+            return createProxyClass(originalClass);
+        }
+    };
 
     /**
      * Creates a proxy wrapping the given object, adding lazy-loading logic according to annotations
@@ -20,7 +45,9 @@ public class LazyFactory {
      * @param <T> The type of the object to proxy
      * @return A lazy-loading proxy wrapping original
      *
-     * @throws CannotCreateLazyProxyRuntimeException if the object to proxy cannot be proxied by CGLIB
+     * @throws CannotCreateLazyProxyRuntimeException if the object to proxy cannot be proxied by its proxy engine
+     * @throws CannotInvokeLazyLoaderRuntimeException if any lazy loader method is missing or parameterised
+     * @throws CyclicLoaderDependencyRuntimeException if any lazy loader method depends, directly or not, on itself
      */
     public static <T> T proxy(final T original) {
         return getFactory().createProxy(original);
@@ -33,14 +60,101 @@ public class LazyFactory {
      */
     public static <T> T proxy(final Class<T> originalClass)
     {
-        try {
-            Constructor<T> constructor = originalClass.getDeclaredConstructor();
-            constructor.setAccessible(true);
-            T original = constructor.newInstance();
-            return proxy(original);
-        } catch (ReflectiveOperationException e) {
-            throw CannotCreateObjectToProxyRuntimeException.create(originalClass, e);
-        }
+        return getFactory().createProxy(originalClass);
+    }
+
+    /**
+     * Creates a proxy wrapping each of the given objects. Proxies of the same class share their batch loaders: the
+     * first time any of them needs a batch loader, it is invoked once with all of their originals that need it,
+     * rather than once per proxy.
+     *
+     * @param originals The objects to proxy
+     * @param <T> The type of the objects to proxy
+     * @return Lazy-loading proxies wrapping originals, in the same order
+     *
+     * @see LazyFactory#proxy(Object)
+     */
+    public static <T> List<T> proxyAll(final Collection<? extends T> originals) {
+        return getFactory().createProxies(originals);
+    }
+
+    /**
+     * Invalidates every loader of the given proxy that has been invoked, so that the next call that needs each of them
+     * invokes it again, as if for the first time. Loaders that are being invoked are unaffected. Proxies sharing an
+     * entity's loaded state (see {@link Builder#maxSharedEntities(int)}) are invalidated together.
+     *
+     * @param proxy A proxy created by any factory
+     * @throws IllegalArgumentException if the object isn't a proxy
+     */
+    public static void invalidate(Object proxy) {
+        invalidate(proxy, null, false);
+    }
+
+    /**
+     * Invalidates the named loader (or lazy field supplier) of the given proxy, if it has been invoked. If several
+     * loaders have the name (e.g. lazy fields sharing a supplier, or loaders of a class and its superclass), each of
+     * them is invalidated; to invalidate just one lazy field, give the name of the field instead.
+     *
+     * @throws IllegalArgumentException if the object isn't a proxy that can be invalidated, or its class has no loader
+     * or lazy field with the given name
+     * @see LazyFactory#invalidate(Object)
+     */
+    public static void invalidate(Object proxy, String loaderName) {
+        invalidate(proxy, loaderName, false);
+    }
+
+    /**
+     * Refreshes every loader of the given proxy that has been invoked: each is invoked again in the background (once,
+     * however many times it's refreshed meanwhile), while calls carry on using the data it loaded last time. If a
+     * refresh fails, the old data is kept.
+     *
+     * Proxies generated at compile time by boneidle-processor can't refresh in the background, so are invalidated
+     * instead.
+     *
+     * @throws IllegalArgumentException if the object isn't a proxy that can be invalidated
+     * @see LazyFactory#invalidate(Object)
+     */
+    public static void refresh(Object proxy) {
+        invalidate(proxy, null, true);
+    }
+
+    /**
+     * Refreshes the named loader (or lazy field supplier) of the given proxy, if it has been invoked. As with
+     * {@link #invalidate(Object, String)}, each loader with the name is refreshed, and the name of a lazy field can be
+     * given instead.
+     *
+     * @throws IllegalArgumentException if the object isn't a proxy that can be invalidated, or its class has no loader
+     * or lazy field with the given name
+     * @see LazyFactory#refresh(Object)
+     */
+    public static void refresh(Object proxy, String loaderName) {
+        invalidate(proxy, loaderName, true);
+    }
+
+    /**
+     * Invalidates every proxy of the given class created by the default factory
+     *
+     * @see LazyFactory#invalidateProxies(Class)
+     */
+    public static void invalidateAll(Class<?> proxiedClass) {
+        getFactory().invalidateProxies(proxiedClass);
+    }
+
+    /**
+     * Refreshes every proxy of the given class created by the default factory
+     *
+     * @see LazyFactory#refreshProxies(Class)
+     */
+    public static void refreshAll(Class<?> proxiedClass) {
+        getFactory().refreshProxies(proxiedClass);
+    }
+
+    /**
+     * Creates a builder for a factory with non-default options. Most users won't need this, and can just use the
+     * static {@link LazyFactory#proxy(Object)} methods, which use a factory with the default options.
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -49,44 +163,469 @@ public class LazyFactory {
      * This is for two reasons:
      *   a) It allows us to inject dependencies to the factory (with this method as the top level 'container')
      *   b) Lazily loading the lazy-loader factory is pleasingly meta.
+     *
+     * The instance is held by a nested class, so the JVM's class initialisation creates it exactly once, however many
+     * threads ask for it at the same time.
      */
     private static LazyFactory getFactory() {
-        if (instance == null) {
-            instance = new LazyFactory(
-                    new LoaderMethodResolver()
-            );
+        return DefaultFactoryHolder.INSTANCE;
+    }
+
+    /**
+     * Invalidates or refreshes the named loaders of the given proxy, or all of them if the name is null
+     */
+    private static void invalidate(Object proxy, String loaderName, boolean refresh) {
+        if (GeneratedProxyClass.isGeneratedProxy(proxy)) {
+            GeneratedProxyClass.invalidate(proxy, loaderName);
+        } else if (loaderName == null) {
+            getInterceptor(proxy).invalidate(refresh);
+        } else {
+            getInterceptor(proxy).invalidate(loaderName, refresh);
         }
-        return instance;
     }
 
-    private LazyFactory(LoaderMethodResolver loaderMethodResolver) {
+    /**
+     * @throws IllegalArgumentException if the object isn't a proxy that can be invalidated (or snapshotted)
+     */
+    private static LazyLoadWithMethodInterceptor<?> getInterceptor(Object proxy) {
+        LazyLoadWithMethodInterceptor<?> interceptor = CglibProxyClass.findInterceptor(proxy);
+        if (interceptor == null) {
+            LazyHandler handler = ProxyEngine.findAnyHandler(proxy);
+            interceptor = handler == null ? null : handler.getInterceptor();
+        }
+        if (interceptor == null) {
+            throw new IllegalArgumentException(proxy + " is not a lazy-loading proxy that can be invalidated");
+        }
+        return interceptor;
+    }
+
+    private LazyFactory(LoaderMethodResolver loaderMethodResolver, LoadingOptions options, ProxyEngine proxyEngine,
+                        Map<Class<?>, ProxyEngine> proxyEngines)
+    {
         this.loaderMethodResolver = loaderMethodResolver;
+        this.options = options;
+        this.proxyEngine = proxyEngine;
+        this.proxyEngines = proxyEngines;
+        ProxyEngine.register(proxyEngine);
+        for (ProxyEngine engine : proxyEngines.values()) {
+            ProxyEngine.register(engine);
+        }
+        if (options.objectGraphProxier != null) {
+            options.objectGraphProxier.setFactory(this);
+        }
     }
 
-    private <T> T createProxy(final T original) {
-        Enhancer enhancer = new Enhancer();
+    /**
+     * Creates a proxy wrapping the given object, using this factory's options
+     *
+     * @see LazyFactory#proxy(Object)
+     */
+    public <T> T createProxy(final T original) {
+        return proxyClasses.get(original.getClass()).newProxy(original);
+    }
 
-        enhancer.setSuperclass(original.getClass());
-        enhancer.setCallbackType(LazyLoadWithMethodInterceptor.class);
+    /**
+     * Creates a proxy wrapping each of the given objects, using this factory's options
+     *
+     * @see LazyFactory#proxyAll(Collection)
+     */
+    public <T> List<T> createProxies(final Collection<? extends T> originals) {
+        Map<Class<?>, List<Integer>> indicesByClass = new LinkedHashMap<Class<?>, List<Integer>>();
+        List<T> originalList = new ArrayList<T>(originals);
+        for (int i = 0; i < originalList.size(); i++) {
+            Class<?> originalClass = originalList.get(i).getClass();
+            List<Integer> indices = indicesByClass.get(originalClass);
+            if (indices == null) {
+                indices = new ArrayList<Integer>();
+                indicesByClass.put(originalClass, indices);
+            }
+            indices.add(i);
+        }
 
-        Class<T> proxyClass = tryCreateClass(enhancer, original);
+        List<T> proxies = new ArrayList<T>(Collections.<T>nCopies(originalList.size(), null));
+        for (Map.Entry<Class<?>, List<Integer>> entry : indicesByClass.entrySet()) {
+            List<T> originalsOfClass = new ArrayList<T>(entry.getValue().size());
+            for (int index : entry.getValue()) {
+                originalsOfClass.add(originalList.get(index));
+            }
 
-        return createProxyInstanceWithoutCallingConstructor(proxyClass, original);
+            List<T> proxiesOfClass = proxyClasses.get(entry.getKey()).newProxies(originalsOfClass);
+            for (int i = 0; i < proxiesOfClass.size(); i++) {
+                proxies.set(entry.getValue().get(i), proxiesOfClass.get(i));
+            }
+        }
+
+        return proxies;
+    }
+
+    /**
+     * Creates a proxy for a given class, using this factory's options
+     *
+     * @throws CannotCreateObjectToProxyRuntimeException if the class has no no-arg constructor, or it throws
+     * @see LazyFactory#proxy(Class)
+     */
+    public <T> T createProxy(final Class<T> originalClass) {
+        return proxyClasses.get(originalClass).newProxy(originalClass);
+    }
+
+    /**
+     * Invalidates every proxy of the given class created by this factory, as if by {@link #invalidate(Object)}. Each
+     * proxy is actually invalidated the next time one of its lazily loaded methods is called, so this is cheap however
+     * many proxies there are.
+     */
+    public void invalidateProxies(Class<?> proxiedClass) {
+        proxyClasses.get(proxiedClass).invalidateProxies(false);
     }
 
-    private <T> Class<T> tryCreateClass(Enhancer enhancer, T original) {
-        try {
-            //noinspection unchecked
-            return (Class<T>)enhancer.createClass();
-        } catch (IllegalArgumentException e) {
-            throw CannotCreateLazyProxyRuntimeException.create(original, e);
+    /**
+     * Refreshes every proxy of the given class created by this factory, as if by {@link #refresh(Object)}. Each proxy
+     * starts refreshing the next time one of its lazily loaded methods is called, which uses the old data meanwhile.
+     * Proxies generated at compile time by boneidle-processor are invalidated instead.
+     */
+    public void refreshProxies(Class<?> proxiedClass) {
+        proxyClasses.get(proxiedClass).invalidateProxies(true);
+    }
+
+    /**
+     * Writes the loaded state of the given proxies to a snapshot file, so that a factory built with
+     * {@link Builder#restoreSnapshot(Path, long)} after a restart can restore it into new proxies of the same entities.
+     * Proxies of classes without a snapshot codec or an {@link EntityKey}, and proxies whose entity key is null, are
+     * left out. The file is replaced only once the snapshot is complete.
+     *
+     * Each proxy's loaders are recorded before its state is encoded, so loaders running meanwhile are left out, but
+     * may have changed the state that's encoded.
+     *
+     * @throws IllegalStateException if this factory has no snapshot codecs
+     * @throws IllegalArgumentException if any of the objects isn't a proxy that can be snapshotted
+     * @throws IOException if the file can't be written
+     */
+    public void writeSnapshot(Path file, Collection<?> proxies) throws IOException {
+        if (options.snapshot == null) {
+            throw new IllegalStateException("This factory has no snapshot codecs");
+        }
+        // Proxies sharing an entity's loaded state share an interceptor, which is only written once
+        Set<LazyLoadWithMethodInterceptor<?>> interceptors = new LinkedHashSet<LazyLoadWithMethodInterceptor<?>>();
+        for (Object proxy : proxies) {
+            interceptors.add(getInterceptor(proxy));
         }
+        options.snapshot.write(file, interceptors);
     }
 
-    private <T> T createProxyInstanceWithoutCallingConstructor(Class<T> proxyClass, T original) {
-        LazyLoadWithMethodInterceptor<T> interceptor =
-                new LazyLoadWithMethodInterceptor<T>(loaderMethodResolver, original);
-        Enhancer.registerCallbacks(proxyClass, new Callback[] { interceptor });
-        return ObjenesisHelper.newInstance(proxyClass);
+    /**
+     * @return How much of the state loaded by proxies from this factory has been unloaded, and how much is tracked
+     * for unloading
+     */
+    public UnloadStatistics getUnloadStatistics() {
+        return options.unloadingTracker.getStatistics();
+    }
+
+    /**
+     * @return The engine with which this factory proxies the given class
+     */
+    ProxyEngine getProxyEngine(Class<?> originalClass) {
+        ProxyEngine engine = proxyEngines.get(originalClass);
+        return engine == null ? proxyEngine : engine;
+    }
+
+    /**
+     * Uses the lazy-loading subclass generated at compile time by boneidle-processor, if there is one (and the class
+     * is proxied with CGLIB, loading isn't measured, proxies aren't in-place, entities aren't shared, returned objects
+     * aren't proxied and proxies aren't snapshotted, none of which generated subclasses support), and otherwise has
+     * the class's engine create a proxy class.
+     */
+    private ProxyClass createProxyClass(Class<?> originalClass) {
+        ProxyEngine engine = getProxyEngine(originalClass);
+        if (engine == ProxyEngine.CGLIB && options.metricsSink == null && !options.inPlace
+                && options.entityCache == null && options.objectGraphProxier == null && options.snapshot == null)
+        {
+            GeneratedProxyClass generatedProxyClass = GeneratedProxyClass.find(originalClass);
+            if (generatedProxyClass != null) {
+                return generatedProxyClass;
+            }
+        }
+
+        LazyLoadingMetadata metadata = loaderMethodResolver.resolve(originalClass);
+        return engine.createProxyClass(new LazyClass(metadata, options));
+    }
+
+    private static final class DefaultFactoryHolder {
+        static final LazyFactory INSTANCE = builder().build();
+    }
+
+    public static final class Builder {
+        private static final String FLIGHT_RECORDER_SINK_CLASS = "io.boneidle.jfr.FlightRecorderSink";
+
+        private Executor prefetchExecutor = DefaultLoaderExecutor.INSTANCE;
+        private Executor loaderExecutor = DefaultLoaderExecutor.INSTANCE;
+        private Ticker ticker = Ticker.SYSTEM;
+        private int maxLoadedEntries = Integer.MAX_VALUE;
+        private boolean unloadUnderMemoryPressure = false;
+        private LoaderMetricsSink metricsSink = null;
+        private boolean flightRecorderEvents = false;
+        private boolean inPlaceProxies = false;
+        private int maxSharedEntities = 0;
+        private boolean proxyReturnedObjects = false;
+        private boolean methodHandleInvocation = false;
+        private ProxyEngine proxyEngine = ProxyEngine.CGLIB;
+        private final Map<Class<?>, ProxyEngine> proxyEngines = new HashMap<Class<?>, ProxyEngine>();
+        private final Map<Class<?>, SnapshotCodec<?>> snapshotCodecs = new HashMap<Class<?>, SnapshotCodec<?>>();
+        private Path snapshotFile = null;
+        private long maxSnapshotAgeMillis = 0;
+
+        private Builder() {}
+
+        /**
+         * Sets the executor on which loaders marked with {@link LazyLoadWith#prefetch()} are invoked when a proxy is
+         * created. Defaults to using virtual threads where the JVM supports them, or else a pool of daemon threads.
+         */
+        public Builder prefetchExecutor(Executor prefetchExecutor) {
+            this.prefetchExecutor = prefetchExecutor;
+            return this;
+        }
+
+        /**
+         * Sets the executor on which a loader's dependencies (see {@link LazyLoadWith#after()}) are invoked in
+         * parallel, when it has several that need invoking, and on which loaders are refreshed (see
+         * {@link LazyLoadWith#refreshAfterWriteMillis()}). Defaults to the same executor as for prefetching.
+         */
+        public Builder loaderExecutor(Executor loaderExecutor) {
+            this.loaderExecutor = loaderExecutor;
+            return this;
+        }
+
+        /**
+         * Sets the source of time used to decide when loaders with {@link LazyLoadWith#expireAfterWriteMillis()} or
+         * {@link LazyLoadWith#refreshAfterWriteMillis()} need invoking again. Defaults to {@link Ticker#SYSTEM}.
+         * Mostly useful for testing.
+         */
+        public Builder ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of loaded entries (one per proxy per loader) kept for loaders with an unloader (see
+         * {@link LazyLoadWith#unloadWith()}), across all proxies created by the factory. Once there are more, the
+         * least recently used are unloaded. Unlimited by default.
+         */
+        public Builder maxLoadedEntries(int maxLoadedEntries) {
+            if (maxLoadedEntries < 1) {
+                throw new IllegalArgumentException("maxLoadedEntries must be at least 1, but was " + maxLoadedEntries);
+            }
+            this.maxLoadedEntries = maxLoadedEntries;
+            return this;
+        }
+
+        /**
+         * Sets whether the least recently used half of the entries loaded by loaders with an unloader are unloaded
+         * when the heap is under pressure: when a garbage collection leaves a heap memory pool (usually the old
+         * generation) more than 80% full. False by default.
+         *
+         * Detecting pressure sets a collection usage threshold on each heap memory pool that doesn't already have one,
+         * which affects the whole JVM, so is only done once a factory that unloads under memory pressure has loaded
+         * something that can be unloaded.
+         */
+        public Builder unloadUnderMemoryPressure(boolean unloadUnderMemoryPressure) {
+            this.unloadUnderMemoryPressure = unloadUnderMemoryPressure;
+            return this;
+        }
+
+        /**
+         * Sets the sink to which proxies report how often their loaders are needed and invoked, how long they take,
+         * and how long threads wait for each other's invocations; see {@link LoaderMetrics}. Loading isn't measured
+         * by default, in which case measuring costs nothing more than a null check.
+         *
+         * Proxies of classes for which boneidle-processor generated a lazy-loading subclass are created with CGLIB
+         * instead, when loading is measured.
+         */
+        public Builder metricsSink(LoaderMetricsSink metricsSink) {
+            this.metricsSink = metricsSink;
+            return this;
+        }
+
+        /**
+         * Sets whether proxies commit JDK Flight Recorder events (named io.boneidle.Load and io.boneidle.LoadWait)
+         * for loader invocations and waits, as well as reporting to any metrics sink. False by default. The events are
+         * committed by boneidle-jfr, which must be on the classpath. Enabling them without it, or on a JVM without
+         * Flight Recorder, makes {@link #build()} throw {@link IllegalStateException}.
+         */
+        public Builder flightRecorderEvents(boolean flightRecorderEvents) {
+            this.flightRecorderEvents = flightRecorderEvents;
+            return this;
+        }
+
+        /**
+         * Sets whether proxies are in-place: if so, each proxy is an instance of the generated proxy class that holds
+         * the proxied object's state itself, rather than a shell delegating every call to a separate original object.
+         * That saves an object or two per proxy, and an indirection per call. False by default.
+         *
+         * An in-place proxy of an existing object starts out as a shallow copy of it, after which the two are
+         * independent: changes to the original aren't seen by the proxy, nor vice versa. Proxying a class (see
+         * {@link LazyFactory#createProxy(Class)}) constructs the proxy directly, so there's no separate original at
+         * all. Loaders are invoked on the proxy itself, so a loader must not call a method that it lazily loads, and
+         * batch loaders are given the proxies.
+         */
+        public Builder inPlaceProxies(boolean inPlaceProxies) {
+            this.inPlaceProxies = inPlaceProxies;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of entities whose loaded state is shared, enabling sharing. Proxies of objects of
+         * the same class with equal entity keys (see {@link EntityKey}) then share their loaded state, so each loader
+         * is invoked once per entity however many proxies of it are created, and concurrent calls on different proxies
+         * of an entity wait for each other's loads. Once there are more entities, those least recently proxied are
+         * forgotten, so the next proxy of one starts afresh. Entities aren't shared by default.
+         *
+         * A proxy of an entity that has already been proxied delegates to the original object of the entity's first
+         * proxy, rather than to its own, so they should be equivalent. Proxies aren't shared with those created by
+         * other factories, and in-place proxies can't be shared at all: enabling both makes {@link #build()} throw
+         * {@link IllegalStateException}.
+         */
+        public Builder maxSharedEntities(int maxSharedEntities) {
+            if (maxSharedEntities < 1) {
+                throw new IllegalArgumentException(
+                        "maxSharedEntities must be at least 1, but was " + maxSharedEntities);
+            }
+            this.maxSharedEntities = maxSharedEntities;
+            return this;
+        }
+
+        /**
+         * Sets whether objects returned by proxies' lazily loaded methods are themselves proxied, if their class uses
+         * {@link LazyLoadWith} or {@link LazyField}, so that walking an object graph only loads the objects that are
+         * actually used. Returned Lists, Sets and Maps are wrapped in views that proxy their elements (or values) as
+         * they're read, as long as the method's declared return type is List, Set or Map (or a supertype of them, such
+         * as Collection). Repeated calls that return the same object return the same proxy or view. False by default.
+         *
+         * Only lazily loaded methods' results are proxied: other methods aren't intercepted at all.
+         */
+        public Builder proxyReturnedObjects(boolean proxyReturnedObjects) {
+            this.proxyReturnedObjects = proxyReturnedObjects;
+            return this;
+        }
+
+        /**
+         * Sets whether proxies invoke loaders, and delegate lazily loaded methods to the original, through method
+         * handles, rather than by reflection and CGLIB's generated method proxies. False by default, as CGLIB's
+         * delegation benchmarks faster on the JVMs tested (see InvocationStrategyBenchmark in boneidle-benchmarks), but
+         * worth measuring on others, particularly for classes whose loaders are invoked very often. Methods that can't
+         * be turned into method handles are invoked by reflection anyway.
+         */
+        public Builder methodHandleInvocation(boolean methodHandleInvocation) {
+            this.methodHandleInvocation = methodHandleInvocation;
+            return this;
+        }
+
+        /**
+         * Sets the engine with which proxy classes are created, for classes without an engine of their own (see
+         * {@link #proxyEngine(Class, ProxyEngine)}). Defaults to {@link ProxyEngine#CGLIB}.
+         */
+        public Builder proxyEngine(ProxyEngine proxyEngine) {
+            if (proxyEngine == null) {
+                throw new IllegalArgumentException("proxyEngine must not be null");
+            }
+            this.proxyEngine = proxyEngine;
+            return this;
+        }
+
+        /**
+         * Sets the engine with which the proxy class for the given class is created, so that each class can be proxied
+         * with whichever engine suits it best: for example, {@link ProxyEngine#INTERFACES} for a final class that's
+         * only used through its interfaces.
+         *
+         * Returned objects (see {@link #proxyReturnedObjects(boolean)}) of classes that aren't proxied with
+         * {@link ProxyEngine#CGLIB} are returned as they are, since their proxies can't be used in their place.
+         */
+        public Builder proxyEngine(Class<?> originalClass, ProxyEngine proxyEngine) {
+            if (proxyEngine == null) {
+                throw new IllegalArgumentException("proxyEngine must not be null");
+            }
+            proxyEngines.put(originalClass, proxyEngine);
+            return this;
+        }
+
+        /**
+         * Sets the codec with which the loaded state of objects of the given class is written to snapshots (see
+         * {@link LazyFactory#writeSnapshot(Path, Collection)}) and restored from them. The class must have an
+         * {@link EntityKey}, by whose string form restored objects are matched to the snapshot's.
+         */
+        public <T> Builder snapshotCodec(Class<T> proxiedClass, SnapshotCodec<? super T> codec) {
+            snapshotCodecs.put(proxiedClass, codec);
+            return this;
+        }
+
+        /**
+         * Sets the snapshot file from which proxies' loaded state is restored, so that proxies created after a restart
+         * needn't invoke their loaders again. The file is memory-mapped and indexed when the factory is built; each
+         * proxy of an entity in it, of a class with a snapshot codec, then has its state decoded straight from the
+         * file, and its loaders marked as loaded, when it's created (and before any loaders are prefetched). Each
+         * entity is restored once, by its first proxy.
+         *
+         * If the snapshot is older than the given age, restored loaders are stale: each proxy's data is used at once,
+         * but its loaders are refreshed in the background. A missing or unreadable file is ignored, so proxies start
+         * out unloaded as usual. Proxies sharing entities' loaded state (see {@link #maxSharedEntities(int)}) are
+         * restored only by the entity's first proxy, which later proxies share.
+         */
+        public Builder restoreSnapshot(Path snapshotFile, long maxAgeMillis) {
+            if (maxAgeMillis < 0) {
+                throw new IllegalArgumentException("maxAgeMillis must not be negative, but was " + maxAgeMillis);
+            }
+            this.snapshotFile = snapshotFile;
+            this.maxSnapshotAgeMillis = maxAgeMillis;
+            return this;
+        }
+
+        public LazyFactory build() {
+            if (inPlaceProxies && maxSharedEntities > 0) {
+                throw new IllegalStateException("In-place proxies can't share entities' loaded state");
+            }
+            if (snapshotFile != null && snapshotCodecs.isEmpty()) {
+                throw new IllegalStateException("Restoring a snapshot needs at least one snapshot codec");
+            }
+            Snapshot snapshot = snapshotCodecs.isEmpty()
+                    ? null
+                    : Snapshot.create(new HashMap<Class<?>, SnapshotCodec<?>>(snapshotCodecs), snapshotFile,
+                            maxSnapshotAgeMillis);
+            UnloadingTracker unloadingTracker = new UnloadingTracker(maxLoadedEntries, unloadUnderMemoryPressure);
+            EntityCache entityCache = maxSharedEntities > 0 ? new EntityCache(maxSharedEntities) : null;
+            LoadingOptions options = new LoadingOptions(prefetchExecutor, loaderExecutor, ticker, unloadingTracker,
+                    getMetricsSink(), inPlaceProxies, entityCache,
+                    proxyReturnedObjects ? new ObjectGraphProxier() : null, snapshot);
+            InvocationStrategy invocationStrategy = methodHandleInvocation
+                    ? new MethodHandleInvocationStrategy()
+                    : new ReflectiveInvocationStrategy();
+            return new LazyFactory(new LoaderMethodResolver(invocationStrategy), options, proxyEngine,
+                    new HashMap<Class<?>, ProxyEngine>(proxyEngines));
+        }
+
+        private LoaderMetricsSink getMetricsSink() {
+            if (!flightRecorderEvents) {
+                return metricsSink;
+            }
+            LoaderMetricsSink flightRecorderSink = createFlightRecorderSink();
+            return metricsSink == null
+                    ? flightRecorderSink
+                    : new CompositeMetricsSink(metricsSink, flightRecorderSink);
+        }
+
+        /**
+         * Creates boneidle-jfr's sink reflectively, so that boneidle-core needn't depend on it, or on jdk.jfr
+         */
+        private static LoaderMetricsSink createFlightRecorderSink() {
+            try {
+                Class.forName("jdk.jfr.Event");
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Flight Recorder events can't be enabled: this JVM doesn't have it", e);
+            }
+            try {
+                return (LoaderMetricsSink) Class.forName(FLIGHT_RECORDER_SINK_CLASS).newInstance();
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(
+                        "Flight Recorder events can't be enabled: boneidle-jfr isn't on the classpath", e);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
     }
 }
@@ -0,0 +1,59 @@
+package io.boneidle;
+
+import io.boneidle.LazyLoadingMetadata.LazyMethod;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Handles the calls made on a single proxy created by a {@link ProxyEngine}: invokes the loaders of lazily loaded
+ * methods, if they need invoking, and then the original's implementation of the called method.
+ */
+public final class LazyHandler {
+    private final LazyClass lazyClass;
+    private final LazyLoadWithMethodInterceptor<?> interceptor;
+
+    LazyHandler(LazyClass lazyClass, LazyLoadWithMethodInterceptor<?> interceptor) {
+        this.lazyClass = lazyClass;
+        this.interceptor = interceptor;
+    }
+
+    /**
+     * @return The object that the proxy delegates to, which may be an earlier proxy's original if the factory shares
+     * entities' loaded state
+     */
+    public Object getOriginal() {
+        return interceptor.getOriginal();
+    }
+
+    /**
+     * Handles a call made on the proxy
+     *
+     * @param method The method called, declared by the proxied class, or one of its superclasses or interfaces
+     * @param args The arguments of the call, or null if there are none
+     * @return What the original returned, or its proxy, if the factory proxies returned objects
+     * @throws Throwable Whatever the loaders or the original threw
+     */
+    public Object invoke(Method method, Object[] args) throws Throwable {
+        LazyClass.Dispatch dispatch = lazyClass.getDispatch(method);
+        LazyMethod lazyMethod = dispatch.lazyMethod;
+        if (lazyMethod != null) {
+            interceptor.callLazyLoadersFor(lazyMethod);
+            if (lazyMethod.pageLoader != null) {
+                return interceptor.proxyReturned(lazyMethod, method, interceptor.getPagedList(lazyMethod));
+            }
+        }
+
+        Object returned;
+        try {
+            returned = dispatch.implementation.invoke(interceptor.getOriginal(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        return lazyMethod == null ? returned : interceptor.proxyReturned(lazyMethod, method, returned);
+    }
+
+    LazyLoadWithMethodInterceptor<?> getInterceptor() {
+        return interceptor;
+    }
+}
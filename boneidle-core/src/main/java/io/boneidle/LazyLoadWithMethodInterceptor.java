@@ -1,54 +1,901 @@
 package io.boneidle;
 
+import io.boneidle.LazyLoadingMetadata.LazyMethod;
+import io.boneidle.LazyLoadingMetadata.LoadedCheck;
+import io.boneidle.exception.LazyLoaderTimeoutRuntimeException;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
- * CGLIB interceptor that invokes defined lazy loaded methods before invoking the target method, if necessary
+ * CGLIB interceptor that invokes defined lazy loaded methods before invoking the target method, if necessary. Only
+ * methods that have a loader are routed to this interceptor (see {@link LazyLoadingCallbackFilter}).
+ *
+ * Proxies may be shared between threads: each loader is invoked exactly once (unless it throws, in which case the
+ * next call tries again), and threads that need a loader which is already being invoked by another thread wait for
+ * that invocation to finish. Once a loader has been invoked, checking whether it needs invoking is a single volatile
+ * read. Every loader's state is packed into a single long (or, for classes with more than 32 loaders, an array of
+ * them), updated by compare-and-set.
+ *
+ * A loader's dependencies are loaded before it is. If several of them need loading, all but one are submitted to the
+ * loader executor, so that independent loaders run in parallel; any that the executor hasn't started by the time the
+ * calling thread has loaded its own are loaded by the calling thread too, so a saturated executor can't deadlock.
+ *
+ * Loaders with an expiry period are invoked again, as if for the first time, by the first call that needs them once
+ * that period has passed since they were last invoked. Loaders with a refresh period are instead invoked again in the
+ * background, while calls carry on using the data they loaded last time. Checking whether a timed loader needs
+ * invoking is a volatile read, a read of the ticker and a single compare.
+ *
+ * Loaders with an unloader have their loaded state tracked by the factory's {@link UnloadingTracker}, which may unload
+ * it again, in which case the next call that needs it invokes the loader again. Each use of tracked state is recorded
+ * with a single plain write.
+ *
+ * Proxies created together may share a {@link BatchLoadGroup}, in which case a batch loader invoked for one of them is
+ * invoked for all of the group's originals that haven't yet been loaded, in a single call.
+ *
+ * A method that reads lazy fields (see {@link LazyField}) has a loader for each of them, which are handled just like
+ * any other loader, so each field is initialised independently.
+ *
+ * In-place proxies (see {@link LazyFactory.Builder#inPlaceProxies(boolean)}) are their own original: loaders are
+ * invoked on the proxy, and intercepted methods are delegated to the proxy's superclass implementation.
+ *
+ * A loader with a timeout is invoked on the loader executor, and calls wait for it for no longer than the timeout. A
+ * loader with several attempts is retried, after a growing backoff, if it throws an exception. A loader whose failures
+ * are cached records its last failure, which calls rethrow instead of invoking it again until the failure is old
+ * enough.
+ *
+ * Loaders can be invalidated, one proxy at a time or for every proxy of a class: an invalidated loader is either
+ * invoked again by the next call that needs it, as if it had never been invoked, or is refreshed in the background
+ * while calls carry on using its old data. Only loaded loaders are invalidated; a load already under way isn't.
+ * Invalidations of a class are applied to each proxy the next time one of its lazily loaded methods is called.
+ *
+ * If the factory proxies returned objects, what lazily loaded methods return is passed through its
+ * {@link ObjectGraphProxier}; if not, the only cost is a null check per call.
+ *
+ * If the factory has a {@link LoaderMetricsSink}, intercepted calls, loader invocations and waits for other threads'
+ * invocations are reported to it; if not, the only cost is a null check per call.
  *
  * @param <T> The type of the object being proxied
  */
 final class LazyLoadWithMethodInterceptor<T> implements MethodInterceptor {
-    private final LoaderMethodResolver loaderMethodResolver;
+    private static final int NOT_LOADED = 0;
+    private static final int LOADING = 1;
+    private static final int LOADED = 2;
+    /**
+     * Loaded, and being invoked again in the background
+     */
+    private static final int REFRESHING = 3;
+
+    private static final int BITS_PER_STATE = 2;
+    private static final int STATE_MASK = (1 << BITS_PER_STATE) - 1;
+    private static final int STATES_PER_WORD = Long.SIZE / BITS_PER_STATE;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<LazyLoadWithMethodInterceptor> STATES =
+            AtomicLongFieldUpdater.newUpdater(LazyLoadWithMethodInterceptor.class, "states");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<LazyLoadWithMethodInterceptor> INVALIDATION_GENERATIONS =
+            AtomicIntegerFieldUpdater.newUpdater(LazyLoadWithMethodInterceptor.class, "invalidationGeneration");
+
+    private final LazyLoadingMetadata metadata;
     private final T original;
-    private final Set<String> calledLoaders = new HashSet<String>();
+    /**
+     * Each loader's state, packed {@link #BITS_PER_STATE} bits per loader, for classes with at most
+     * {@link #STATES_PER_WORD} loaders (i.e. almost all of them), so that load state costs no extra objects
+     */
+    private volatile long states;
+    /**
+     * Each loader's state, packed the same way, for classes with more loaders, or null
+     */
+    private final AtomicLongArray overflowStates;
+    /**
+     * The ticker reading when each loader was last successfully invoked, if any loader is timed
+     */
+    private final AtomicLongArray loadTimes;
+    /**
+     * The unloading tracker's entry for each loaded unloadable loader, if any loader is unloadable
+     */
+    private final UnloadingTracker.Entry[] loadedEntries;
+    /**
+     * The last failure of each loader that has failed since it last succeeded, if any loader's failures are cached
+     */
+    private final Failure[] failures;
+    private final LoadingOptions options;
+    private final BatchLoadGroup batchLoadGroup;
+    /**
+     * The generation of the class's invalidations that this interceptor has caught up with
+     */
+    private volatile int invalidationGeneration;
+    /**
+     * What each lazily loaded method last returned, and its proxy, if the factory proxies returned objects and any
+     * method has returned anything yet
+     */
+    private volatile ObjectGraphProxier.ReturnedProxies returnedProxies;
+    /**
+     * The paged list of each method returning one (see {@link LoadPagesWith}), indexed by lazy method, or null if
+     * none has been needed since the proxy was created or last invalidated. Lists are published safely by their
+     * final fields.
+     */
+    private volatile PagedList<?>[] pagedLists;
 
-    LazyLoadWithMethodInterceptor(LoaderMethodResolver loaderMethodResolver, T original) {
-        this.loaderMethodResolver = loaderMethodResolver;
+    /**
+     * @param batchLoadGroup The group of proxies with which this proxy's batch loaders are invoked, or null
+     */
+    LazyLoadWithMethodInterceptor(LazyLoadingMetadata metadata, T original, LoadingOptions options,
+                                  BatchLoadGroup batchLoadGroup)
+    {
+        this.metadata = metadata;
         this.original = original;
+        this.overflowStates = metadata.getLoaderCount() > STATES_PER_WORD
+                ? new AtomicLongArray((metadata.getLoaderCount() + STATES_PER_WORD - 1) / STATES_PER_WORD)
+                : null;
+        this.loadTimes = metadata.hasTimedLoaders() ? new AtomicLongArray(metadata.getLoaderCount()) : null;
+        this.loadedEntries = metadata.hasUnloadableLoaders()
+                ? new UnloadingTracker.Entry[metadata.getLoaderCount()]
+                : null;
+        this.failures = metadata.hasFailureCachingLoaders() ? new Failure[metadata.getLoaderCount()] : null;
+        this.options = options;
+        this.batchLoadGroup = batchLoadGroup;
+        this.invalidationGeneration = metadata.getInvalidations().getGeneration();
     }
 
     @Override
     public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy)
             throws Throwable
     {
-        Method loaderMethod = loaderMethodResolver.getLoaderFor(method);
+        LazyMethod lazyMethod = metadata.getLazyMethod(method);
+        if (lazyMethod == null) {
+            // Only lazily loaded methods should be intercepted, but a method that isn't is better passed through than
+            // failed
+            return proxy == original ? methodProxy.invokeSuper(proxy, args) : methodProxy.invoke(original, args);
+        }
+        callLazyLoadersFor(lazyMethod);
 
-        if (loaderMethod != null) {
-            callLazyLoaderIfNeeded(loaderMethod);
+        Object returned;
+        if (lazyMethod.pageLoader != null) {
+            returned = getPagedList(lazyMethod);
+        } else if (proxy == original) {
+            // An in-place proxy is its own original, so the original's implementation is the superclass's
+            returned = methodProxy.invokeSuper(proxy, args);
+        } else {
+            returned = lazyMethod.delegate.invoke(original, args, methodProxy);
+        }
+        return proxyReturned(lazyMethod, method, returned);
+    }
+
+    /**
+     * Invokes the loaders of a lazily loaded method that's being called, if they need invoking, before the call is
+     * delegated to the original
+     */
+    void callLazyLoadersFor(LazyMethod lazyMethod) throws Throwable {
+        int generation = metadata.getInvalidations().getGeneration();
+        if (generation != invalidationGeneration) {
+            catchUpWithInvalidations(generation);
         }
 
-        return methodProxy.invoke(original, args);
+        for (int loaderIndex : lazyMethod.loaderIndices) {
+            // State loaded by this call starts out marked as used anyway
+            if (loadedEntries != null) {
+                markUsed(loaderIndex);
+            }
+            LoaderMetricsSink metricsSink = options.metricsSink;
+            if (metricsSink == null) {
+                if (!isLoadedWithoutLoader(lazyMethod, loaderIndex)) {
+                    callLazyLoaderIfNeeded(loaderIndex);
+                }
+            } else {
+                Method loader = metadata.getLoader(loaderIndex).method;
+                metricsSink.callIntercepted(metadata.getProxiedClass(), loader);
+                if (isLoadedWithoutLoader(lazyMethod, loaderIndex) || !callLazyLoaderIfNeeded(loaderIndex)) {
+                    metricsSink.loadSkipped(metadata.getProxiedClass(), loader);
+                }
+            }
+        }
     }
 
-    private void callLazyLoaderIfNeeded(Method loaderMethod)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException
-    {
-        if (!calledLoaders.contains(loaderMethod.getName())) {
-            callLazyLoader(loaderMethod);
+    /**
+     * @return Whether a lazily loaded method's own loader hasn't been invoked, but needn't be, as the method's loaded
+     * check finds its data already there. The loader isn't marked as invoked, so is checked again by the next call.
+     */
+    private boolean isLoadedWithoutLoader(LazyMethod lazyMethod, int loaderIndex) throws Throwable {
+        LoadedCheck loadedCheck = lazyMethod.loadedCheck;
+        return loadedCheck != null
+                && loaderIndex == lazyMethod.loaderIndices[0]
+                && getState(loaderIndex) == NOT_LOADED
+                && loadedCheck.isLoaded(this);
+    }
+
+    /**
+     * @return What a lazily loaded method returned, or its proxy, if the factory proxies returned objects
+     */
+    Object proxyReturned(LazyMethod lazyMethod, Method method, Object returned) {
+        ObjectGraphProxier objectGraphProxier = options.objectGraphProxier;
+        if (objectGraphProxier == null) {
+            return returned;
         }
+        return objectGraphProxier.proxyReturned(getReturnedProxies(), lazyMethod.index, method, returned);
     }
 
-    private void callLazyLoader(Method loaderMethod)
-            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException
-    {
-        loaderMethod.setAccessible(true);
-        loaderMethod.invoke(original);
-        calledLoaders.add(loaderMethod.getName());
+    /**
+     * @return This proxy's paged list for the given method returning one, created the first time it's needed
+     */
+    PagedList<?> getPagedList(LazyMethod lazyMethod) {
+        PagedList<?>[] pagedLists = this.pagedLists;
+        PagedList<?> pagedList = pagedLists == null ? null : pagedLists[lazyMethod.index];
+        if (pagedList == null) {
+            synchronized (this) {
+                pagedLists = this.pagedLists;
+                if (pagedLists == null) {
+                    pagedLists = new PagedList<?>[metadata.getLazyMethodCount()];
+                    this.pagedLists = pagedLists;
+                }
+                pagedList = pagedLists[lazyMethod.index];
+                if (pagedList == null) {
+                    pagedList = new PagedList<Object>(lazyMethod.pageLoader, original, options.prefetchExecutor);
+                    pagedLists[lazyMethod.index] = pagedList;
+                }
+            }
+        }
+        return pagedList;
+    }
+
+    private ObjectGraphProxier.ReturnedProxies getReturnedProxies() {
+        ObjectGraphProxier.ReturnedProxies returnedProxies = this.returnedProxies;
+        if (returnedProxies == null) {
+            synchronized (this) {
+                returnedProxies = this.returnedProxies;
+                if (returnedProxies == null) {
+                    returnedProxies = new ObjectGraphProxier.ReturnedProxies(metadata.getLazyMethodCount());
+                    this.returnedProxies = returnedProxies;
+                }
+            }
+        }
+        return returnedProxies;
+    }
+
+    /**
+     * Starts each of the prefetched loaders on the prefetch executor. A prefetched loader that hasn't started by the
+     * time a lazily loaded method needs it is simply invoked by the calling thread instead; one that's already running
+     * is waited for.
+     */
+    void prefetch() {
+        for (final int loaderIndex : metadata.getPrefetchedLoaderIndices()) {
+            try {
+                options.prefetchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        prefetchLazyLoader(loaderIndex);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The loader will be invoked on first use instead
+            }
+        }
+    }
+
+    private void prefetchLazyLoader(int loaderIndex) {
+        if (startLoading(loaderIndex)) {
+            try {
+                callLazyLoader(loaderIndex);
+            } catch (Throwable t) {
+                // The loader will be retried (and its failure reported) on first use
+            }
+        }
+    }
+
+    /**
+     * @return true if this thread invoked the loader, or false if it had already been loaded (or was loaded by another
+     * thread, which this thread waited for)
+     */
+    private boolean callLazyLoaderIfNeeded(int loaderIndex) throws Throwable {
+        while (true) {
+            int state = getState(loaderIndex);
+            if (state == LOADED || state == REFRESHING) {
+                if (loadTimes == null) {
+                    return false;
+                }
+                LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+                if (!loader.isTimed()) {
+                    return false;
+                }
+
+                long ageNanos = options.ticker.read() - loadTimes.get(loaderIndex);
+                if (ageNanos < loader.freshNanos) {
+                    return false;
+                }
+
+                if (!loader.hasExpired(ageNanos)) {
+                    if (state == LOADED && compareAndSetState(loaderIndex, LOADED, REFRESHING)) {
+                        refreshLazyLoader(loaderIndex);
+                    }
+                    return false;
+                }
+
+                // Expired, so reload it now (or wait for the refresh that's already under way)
+                if (state == LOADED && compareAndSetState(loaderIndex, LOADED, LOADING)) {
+                    callLazyLoader(loaderIndex);
+                    return true;
+                }
+            } else if (state == NOT_LOADED) {
+                if (failures != null) {
+                    rethrowCachedFailure(loaderIndex);
+                }
+                if (startLoading(loaderIndex)) {
+                    callLazyLoader(loaderIndex);
+                    return true;
+                }
+            }
+            awaitLazyLoader(loaderIndex, state);
+        }
+    }
+
+    /**
+     * Invokes the loader again on the loader executor. Must only be called once this interceptor has started
+     * refreshing the loader.
+     */
+    private void refreshLazyLoader(final int loaderIndex) {
+        try {
+            options.loaderExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean refreshed = false;
+                    try {
+                        invokeLazyLoader(loaderIndex, false);
+                        refreshed = true;
+                    } catch (Throwable t) {
+                        // The old data is used until the refresh is retried, by the next call that needs it
+                    } finally {
+                        finishRefreshing(loaderIndex, refreshed);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finishRefreshing(loaderIndex, false);
+        }
+    }
+
+    private void finishRefreshing(int loaderIndex, boolean refreshed) {
+        synchronized (this) {
+            if (refreshed && loadTimes != null) {
+                loadTimes.set(loaderIndex, options.ticker.read());
+            }
+            setState(loaderIndex, LOADED);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Throws the loader's last failure, if it's recent enough to be cached
+     */
+    private void rethrowCachedFailure(int loaderIndex) throws Throwable {
+        Failure failure = failures[loaderIndex];
+        if (failure != null
+                && options.ticker.read() - failure.time < metadata.getLoader(loaderIndex).policy.cacheFailureNanos)
+        {
+            throw failure.cause;
+        }
+    }
+
+    /**
+     * Must only be called once this interceptor has started loading the loader (see {@link #startLoading(int)})
+     */
+    private void callLazyLoader(final int loaderIndex) throws Throwable {
+        LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+        boolean dependenciesLoaded = false;
+        try {
+            callLazyLoadersIfNeeded(loader.dependencies);
+            dependenciesLoaded = true;
+        } finally {
+            if (!dependenciesLoaded) {
+                finishLoading(loaderIndex, false);
+            }
+        }
+
+        if (!loader.policy.hasTimeout()) {
+            invokeAndFinishLoading(loaderIndex);
+            return;
+        }
+
+        FutureTask<Void> timedLoad = new FutureTask<Void>(new LoadTask() {
+            @Override
+            void load() throws Throwable {
+                invokeAndFinishLoading(loaderIndex);
+            }
+        });
+        try {
+            options.loaderExecutor.execute(timedLoad);
+        } catch (RejectedExecutionException e) {
+            // Not bounded by the timeout, but better than not loading at all
+            timedLoad.run();
+        }
+        awaitTimedLoad(timedLoad, loader);
+    }
+
+    private void invokeAndFinishLoading(int loaderIndex) throws Throwable {
+        boolean loaded = false;
+        try {
+            invokeLazyLoader(loaderIndex, true);
+            loaded = true;
+        } catch (Throwable t) {
+            if (failures != null) {
+                failures[loaderIndex] = new Failure(t, options.ticker.read());
+            }
+            throw t;
+        } finally {
+            finishLoading(loaderIndex, loaded);
+        }
+    }
+
+    private void awaitTimedLoad(FutureTask<Void> timedLoad, LazyLoadingMetadata.Loader loader) throws Throwable {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(loader.policy.timeoutMillis);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    timedLoad.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                } catch (TimeoutException e) {
+                    throw LazyLoaderTimeoutRuntimeException.create(loader.method.getName(),
+                            loader.policy.timeoutMillis);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Invokes the loader, as many times as its policy allows if it throws an exception, backing off between attempts
+     */
+    private void invokeLazyLoader(int loaderIndex, boolean allowBatch) throws Throwable {
+        LazyLoadingMetadata.LoadPolicy policy = metadata.getLoader(loaderIndex).policy;
+        long backoffNanos = policy.retryBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                invokeLazyLoaderOnce(loaderIndex, allowBatch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= policy.maxAttempts || !backOff(backoffNanos)) {
+                    throw e;
+                }
+                backoffNanos *= 2;
+            }
+        }
+    }
+
+    /**
+     * @return false if the thread was interrupted while backing off
+     */
+    private static boolean backOff(long backoffNanos) {
+        if (backoffNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(backoffNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Invokes the loader (for the whole batch load group, if it's a batch loader and batching is allowed), reporting
+     * how long it took to the metrics sink, if there is one
+     */
+    private void invokeLazyLoaderOnce(int loaderIndex, boolean allowBatch) throws Throwable {
+        LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+        LoaderMetricsSink metricsSink = options.metricsSink;
+        long start = metricsSink == null ? 0 : System.nanoTime();
+        try {
+            if (allowBatch && batchLoadGroup != null && loader.isBatch()) {
+                batchLoadGroup.load(loaderIndex, this);
+            } else {
+                loader.invoker.invoke(original);
+            }
+        } catch (Throwable t) {
+            if (metricsSink != null) {
+                metricsSink.loadFailed(metadata.getProxiedClass(), loader.method, System.nanoTime() - start, t);
+            }
+            throw t;
+        }
+        if (metricsSink != null) {
+            metricsSink.loadSucceeded(metadata.getProxiedClass(), loader.method, System.nanoTime() - start);
+        }
+    }
+
+    private void callLazyLoadersIfNeeded(int[] loaderIndices) throws Throwable {
+        List<FutureTask<Void>> parallelLoads = new ArrayList<FutureTask<Void>>();
+        for (int i = 1; i < loaderIndices.length; i++) {
+            if (!isLoaded(loaderIndices[i])) {
+                final int loaderIndex = loaderIndices[i];
+                FutureTask<Void> parallelLoad = new FutureTask<Void>(new LoadTask() {
+                    @Override
+                    void load() throws Throwable {
+                        callLazyLoaderIfNeeded(loaderIndex);
+                    }
+                });
+                try {
+                    options.loaderExecutor.execute(parallelLoad);
+                } catch (RejectedExecutionException e) {
+                    // It'll be run below instead
+                }
+                parallelLoads.add(parallelLoad);
+            }
+        }
+
+        if (loaderIndices.length > 0) {
+            callLazyLoaderIfNeeded(loaderIndices[0]);
+        }
+
+        for (FutureTask<Void> parallelLoad : parallelLoads) {
+            // Does nothing if the executor has already started it
+            parallelLoad.run();
+            awaitParallelLoad(parallelLoad);
+        }
+    }
+
+    private void awaitParallelLoad(FutureTask<Void> parallelLoad) throws Throwable {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    parallelLoad.get();
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return true if the loader has been invoked, and doesn't yet need invoking again
+     */
+    boolean isLoaded(int loaderIndex) {
+        int state = getState(loaderIndex);
+        if (state != LOADED && state != REFRESHING) {
+            return false;
+        }
+        LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+        return !loader.isTimed() || options.ticker.read() - loadTimes.get(loaderIndex) < loader.freshNanos;
+    }
+
+    /**
+     * @return true if every one of the given loaders has been loaded
+     */
+    boolean areLoaded(int[] loaderIndices) {
+        for (int loaderIndex : loaderIndices) {
+            if (!isLoaded(loaderIndex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the loader had not been loaded or started loading, in which case the caller is now responsible
+     * for loading it and then calling {@link #finishLoading(int, boolean)}
+     */
+    boolean startLoading(int loaderIndex) {
+        return compareAndSetState(loaderIndex, NOT_LOADED, LOADING);
+    }
+
+    /**
+     * Marks a loader that this interceptor started loading as loaded, or as not loaded if loading it failed, waking up
+     * any threads waiting for it
+     */
+    void finishLoading(int loaderIndex, boolean loaded) {
+        boolean tracked = false;
+        synchronized (this) {
+            if (loaded && loadTimes != null) {
+                loadTimes.set(loaderIndex, options.ticker.read());
+            }
+            if (loaded && failures != null) {
+                failures[loaderIndex] = null;
+            }
+            if (loaded && loadedEntries != null && metadata.getLoader(loaderIndex).isUnloadable()) {
+                loadedEntries[loaderIndex] = options.unloadingTracker.track(this, loaderIndex);
+                tracked = true;
+            }
+            setState(loaderIndex, loaded ? LOADED : NOT_LOADED);
+            notifyAll();
+        }
+
+        // Unloading takes other interceptors' monitors, so mustn't be done while holding this one
+        if (tracked) {
+            options.unloadingTracker.enforceBudget();
+        }
+    }
+
+    private void markUsed(int loaderIndex) {
+        UnloadingTracker.Entry entry = loadedEntries[loaderIndex];
+        if (entry != null) {
+            entry.used = true;
+        }
+    }
+
+    /**
+     * Invokes the unloader of the loader that the given tracker entry is for, unless the loader is being loaded, or
+     * has been reloaded since the entry was tracked
+     *
+     * @return true if the loader was unloaded
+     */
+    boolean unload(UnloadingTracker.Entry entry) {
+        int loaderIndex = entry.loaderIndex;
+        if (!compareAndSetState(loaderIndex, LOADED, LOADING)) {
+            return false;
+        }
+        if (loadedEntries[loaderIndex] != entry) {
+            synchronized (this) {
+                setState(loaderIndex, LOADED);
+                notifyAll();
+            }
+            return false;
+        }
+
+        loadedEntries[loaderIndex] = null;
+        try {
+            metadata.getLoader(loaderIndex).unloader.invoke(original);
+        } catch (Throwable t) {
+            // Whatever the unloader didn't clear will be replaced when the loader is next invoked
+        } finally {
+            finishLoading(loaderIndex, false);
+        }
+        return true;
+    }
+
+    /**
+     * Invalidates every loader of this proxy that's loaded, and discards its paged lists
+     *
+     * @param refresh Whether to refresh the loaders in the background, rather than have the next call that needs
+     * each of them invoke it again
+     */
+    void invalidate(boolean refresh) {
+        for (int loaderIndex = 0; loaderIndex < metadata.getLoaderCount(); loaderIndex++) {
+            invalidate(loaderIndex, refresh);
+        }
+        // Paged lists load pages on demand anyway, so are discarded even when refreshing
+        if (pagedLists != null) {
+            synchronized (this) {
+                pagedLists = null;
+            }
+        }
+    }
+
+    /**
+     * Invalidates every loader of this proxy with the given name, or of the lazy field with that name, that's loaded
+     *
+     * @throws IllegalArgumentException if the proxied class has no loader or lazy field with the given name
+     */
+    void invalidate(String loaderName, boolean refresh) {
+        int[] loaderIndices = metadata.findLoaderIndices(loaderName);
+        if (loaderIndices.length == 0) {
+            throw new IllegalArgumentException(
+                    metadata.getProxiedClass().getName() + " has no lazy loader or lazy field named " + loaderName);
+        }
+        for (int loaderIndex : loaderIndices) {
+            invalidate(loaderIndex, refresh);
+        }
+    }
+
+    private void invalidate(int loaderIndex, boolean refresh) {
+        if (refresh) {
+            if (compareAndSetState(loaderIndex, LOADED, REFRESHING)) {
+                refreshLazyLoader(loaderIndex);
+            }
+            return;
+        }
+        // Held so that the entry can't be cleared after a reload has tracked a new one
+        synchronized (this) {
+            if (compareAndSetState(loaderIndex, LOADED, NOT_LOADED) && loadedEntries != null) {
+                // The tracker discards entries that are no longer current
+                loadedEntries[loaderIndex] = null;
+            }
+        }
+    }
+
+    /**
+     * Applies the invalidations of the class since the generation this interceptor last caught up with, unless
+     * another thread is already doing so: reloading if any of them reloads, and otherwise refreshing
+     */
+    private void catchUpWithInvalidations(int generation) {
+        int caughtUpGeneration = invalidationGeneration;
+        if (caughtUpGeneration != generation
+                && INVALIDATION_GENERATIONS.compareAndSet(this, caughtUpGeneration, generation))
+        {
+            invalidate(!metadata.getInvalidations().reloadsSince(caughtUpGeneration));
+        }
+    }
+
+    /**
+     * Marks a loader whose data has been restored from a snapshot (see {@link Snapshot}) as loaded, as if it had been
+     * invoked the given time ago, and starts refreshing it in the background if the snapshot is stale. Must be called
+     * before the proxy is returned, so no call can be using the loader.
+     */
+    void restoreLoaded(int loaderIndex, long ageNanos, boolean stale) {
+        if (!startLoading(loaderIndex)) {
+            return;
+        }
+        finishLoading(loaderIndex, true);
+        if (loadTimes != null) {
+            loadTimes.set(loaderIndex, options.ticker.read() - ageNanos);
+        }
+        if (stale) {
+            invalidate(loaderIndex, true);
+        }
+    }
+
+    /**
+     * @return true if the loader has been invoked, and its data hasn't since been invalidated or unloaded (whether or
+     * not it has expired, or is being refreshed)
+     */
+    boolean hasLoaded(int loaderIndex) {
+        int state = getState(loaderIndex);
+        return state == LOADED || state == REFRESHING;
+    }
+
+    T getOriginal() {
+        return original;
+    }
+
+    LazyLoadingMetadata getMetadata() {
+        return metadata;
+    }
+
+    LoadingOptions getOptions() {
+        return options;
+    }
+
+    private int getState(int loaderIndex) {
+        return (int) (getStateWord(loaderIndex) >>> getStateShift(loaderIndex)) & STATE_MASK;
+    }
+
+    private boolean compareAndSetState(int loaderIndex, int expectedState, int newState) {
+        int shift = getStateShift(loaderIndex);
+        while (true) {
+            long word = getStateWord(loaderIndex);
+            if (((int) (word >>> shift) & STATE_MASK) != expectedState) {
+                return false;
+            }
+            if (compareAndSetStateWord(loaderIndex, word, withState(word, shift, newState))) {
+                return true;
+            }
+        }
+    }
+
+    private void setState(int loaderIndex, int newState) {
+        int shift = getStateShift(loaderIndex);
+        while (true) {
+            long word = getStateWord(loaderIndex);
+            if (compareAndSetStateWord(loaderIndex, word, withState(word, shift, newState))) {
+                return;
+            }
+        }
+    }
+
+    private long getStateWord(int loaderIndex) {
+        return overflowStates == null ? states : overflowStates.get(loaderIndex / STATES_PER_WORD);
+    }
+
+    private boolean compareAndSetStateWord(int loaderIndex, long expectedWord, long newWord) {
+        return overflowStates == null
+                ? STATES.compareAndSet(this, expectedWord, newWord)
+                : overflowStates.compareAndSet(loaderIndex / STATES_PER_WORD, expectedWord, newWord);
+    }
+
+    private static int getStateShift(int loaderIndex) {
+        return (loaderIndex % STATES_PER_WORD) * BITS_PER_STATE;
+    }
+
+    private static long withState(long word, int shift, int state) {
+        return (word & ~((long) STATE_MASK << shift)) | ((long) state << shift);
+    }
+
+    /**
+     * Waits for the loader to leave the given state, if it's being loaded or refreshed, for no longer than its timeout
+     * if it has one
+     *
+     * @throws LazyLoaderTimeoutRuntimeException if the loader has a timeout, and is still in the given state after it
+     */
+    private void awaitLazyLoader(int loaderIndex, int state) {
+        if (state != LOADING && state != REFRESHING) {
+            return;
+        }
+        LazyLoadingMetadata.Loader loader = metadata.getLoader(loaderIndex);
+        LoaderMetricsSink metricsSink = options.metricsSink;
+        long start = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(loader.policy.timeoutMillis);
+        boolean waited = false;
+        boolean timedOut = false;
+        boolean interrupted = false;
+        synchronized (this) {
+            while (getState(loaderIndex) == state) {
+                waited = true;
+                try {
+                    if (!loader.policy.hasTimeout()) {
+                        wait();
+                        continue;
+                    }
+                    long remainingNanos = timeoutNanos - (System.nanoTime() - start);
+                    if (remainingNanos <= 0) {
+                        timedOut = true;
+                        break;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (waited && metricsSink != null) {
+            metricsSink.loadAwaited(metadata.getProxiedClass(), loader.method, System.nanoTime() - start);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (timedOut) {
+            throw LazyLoaderTimeoutRuntimeException.create(loader.method.getName(), loader.policy.timeoutMillis);
+        }
+    }
+
+    /**
+     * The cause of a loader's failure, and the ticker reading when it failed
+     */
+    private static final class Failure {
+        final Throwable cause;
+        final long time;
+
+        Failure(Throwable cause, long time) {
+            this.cause = cause;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Loads on the loader executor: either a dependency, loaded in parallel with the others, or a loader with a
+     * timeout, which the calling thread waits for
+     */
+    private abstract static class LoadTask implements Callable<Void> {
+        abstract void load() throws Throwable;
+
+        @Override
+        public Void call() throws Exception {
+            try {
+                load();
+            } catch (Exception e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+            return null;
+        }
     }
 }
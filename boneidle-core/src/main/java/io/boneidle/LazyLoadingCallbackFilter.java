@@ -0,0 +1,34 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.CallbackFilter;
+
+import java.lang.reflect.Method;
+
+/**
+ * CGLIB callback filter that routes only lazily loaded methods through the {@link LazyLoadWithMethodInterceptor}.
+ * All other methods are dispatched directly to the original object (or, for in-place proxies, are simply not
+ * overridden), with no per-call lazy-loading checks.
+ *
+ * In-place proxies invoke loaders on the proxy itself, so loader methods are never intercepted, even if they're also
+ * lazily loaded (e.g. by a class-level annotation); otherwise a loader would wait for itself to finish.
+ */
+final class LazyLoadingCallbackFilter implements CallbackFilter {
+    static final int DISPATCH_TO_ORIGINAL = 0;
+    static final int INTERCEPT = 1;
+
+    private final LazyLoadingMetadata metadata;
+    private final boolean inPlace;
+
+    LazyLoadingCallbackFilter(LazyLoadingMetadata metadata, boolean inPlace) {
+        this.metadata = metadata;
+        this.inPlace = inPlace;
+    }
+
+    @Override
+    public int accept(Method method) {
+        if (metadata.getLazyMethod(method) == null || (inPlace && metadata.isLoaderMethod(method))) {
+            return DISPATCH_TO_ORIGINAL;
+        }
+        return INTERCEPT;
+    }
+}
@@ -0,0 +1,434 @@
+package io.boneidle;
+
+import io.boneidle.InvocationStrategy.BatchLoaderInvoker;
+import io.boneidle.InvocationStrategy.CheckInvoker;
+import io.boneidle.InvocationStrategy.DelegateInvoker;
+import io.boneidle.InvocationStrategy.LoaderInvoker;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable description of the lazy-loading configuration of a proxied class, resolved once when its proxy class is
+ * generated.
+ *
+ * Each lazily loaded method is mapped to the dense indices of its loaders (usually just one: the method's loader
+ * method, or the loader of the lazy field it reads) and an invoker for delegating to the original object, so that
+ * handling an intercepted method doesn't require any reflection.
+ *
+ * The only mutable part is the record of invalidations of every proxy of the class, which is kept alongside the
+ * metadata because it's needed in the same places, for as long.
+ */
+final class LazyLoadingMetadata {
+    static final int NO_LOADER = -1;
+
+    private final Class<?> proxiedClass;
+    private final Map<Method, LazyMethod> lazyMethods;
+    private final int lazyMethodCount;
+    private final Loader[] loaders;
+    private final Map<String, Integer> loaderIndicesById = new HashMap<String, Integer>();
+    private final Set<Method> loaderMethods;
+    private final int[] prefetchedLoaderIndices;
+    private final boolean hasBatchLoaders;
+    private final boolean hasTimedLoaders;
+    private final boolean hasUnloadableLoaders;
+    private final boolean hasFailureCachingLoaders;
+    private final Method entityKeyMethod;
+    private final ClassInvalidations invalidations = new ClassInvalidations();
+
+    /**
+     * @param lazyMethods The lazily loaded methods, and any bridge methods to them, which share their lazy method's
+     * index
+     * @param lazyMethodCount The number of distinct lazy method indices
+     * @param loaderMethods Every loader, unloader, lazy field supplier and loaded-if method
+     * @param entityKeyMethod The accessible method annotated with {@link EntityKey}, or null if there's none
+     */
+    LazyLoadingMetadata(Class<?> proxiedClass, Map<Method, LazyMethod> lazyMethods, int lazyMethodCount,
+                        List<Loader> loaders, Set<Method> loaderMethods, Method entityKeyMethod)
+    {
+        this.proxiedClass = proxiedClass;
+        this.lazyMethods = Collections.unmodifiableMap(lazyMethods);
+        this.lazyMethodCount = lazyMethodCount;
+        this.loaders = loaders.toArray(new Loader[loaders.size()]);
+        this.loaderMethods = Collections.unmodifiableSet(loaderMethods);
+        this.entityKeyMethod = entityKeyMethod;
+
+        List<Integer> prefetched = new ArrayList<Integer>();
+        boolean hasBatchLoaders = false;
+        boolean hasTimedLoaders = false;
+        boolean hasUnloadableLoaders = false;
+        boolean hasFailureCachingLoaders = false;
+        for (int i = 0; i < this.loaders.length; i++) {
+            loaderIndicesById.put(this.loaders[i].id, i);
+            if (this.loaders[i].prefetch) {
+                prefetched.add(i);
+            }
+            hasBatchLoaders |= this.loaders[i].isBatch();
+            hasTimedLoaders |= this.loaders[i].isTimed();
+            hasUnloadableLoaders |= this.loaders[i].isUnloadable();
+            hasFailureCachingLoaders |= this.loaders[i].policy.cachesFailures();
+        }
+        this.hasBatchLoaders = hasBatchLoaders;
+        this.hasTimedLoaders = hasTimedLoaders;
+        this.hasUnloadableLoaders = hasUnloadableLoaders;
+        this.hasFailureCachingLoaders = hasFailureCachingLoaders;
+        this.prefetchedLoaderIndices = new int[prefetched.size()];
+        for (int i = 0; i < prefetchedLoaderIndices.length; i++) {
+            prefetchedLoaderIndices[i] = prefetched.get(i);
+        }
+    }
+
+    Class<?> getProxiedClass() {
+        return proxiedClass;
+    }
+
+    /**
+     * @return The lazy-loading details of the given method, or null if the method is not lazily loaded
+     */
+    LazyMethod getLazyMethod(Method method) {
+        return lazyMethods.get(method);
+    }
+
+    int getLazyMethodCount() {
+        return lazyMethodCount;
+    }
+
+    /**
+     * @return true if the given method is a loader, unloader or lazy field supplier
+     */
+    boolean isLoaderMethod(Method method) {
+        return loaderMethods.contains(method);
+    }
+
+    /**
+     * @return The index of the loader with the given identifier (see {@link Loader}), or {@link #NO_LOADER} if there's
+     * none
+     */
+    int findLoaderIndexById(String loaderId) {
+        Integer loaderIndex = loaderIndicesById.get(loaderId);
+        return loaderIndex == null ? NO_LOADER : loaderIndex;
+    }
+
+    /**
+     * @return The indices of every loader method (or lazy field supplier) with the given name, and of the loader of the
+     * lazy field with the given name, if there is one; empty if there are none
+     */
+    int[] findLoaderIndices(String name) {
+        List<Integer> loaderIndices = new ArrayList<Integer>();
+        for (int i = 0; i < loaders.length; i++) {
+            Field lazyField = loaders[i].lazyField;
+            if (loaders[i].method.getName().equals(name) || (lazyField != null && lazyField.getName().equals(name))) {
+                loaderIndices.add(i);
+            }
+        }
+        int[] array = new int[loaderIndices.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = loaderIndices.get(i);
+        }
+        return array;
+    }
+
+    Loader getLoader(int loaderIndex) {
+        return loaders[loaderIndex];
+    }
+
+    int getLoaderCount() {
+        return loaders.length;
+    }
+
+    /**
+     * @return The indices of the loaders to start in the background when a proxy is created
+     */
+    int[] getPrefetchedLoaderIndices() {
+        return prefetchedLoaderIndices;
+    }
+
+    /**
+     * @return true if any loader is a batch loader, and so can load several proxies' originals in one call
+     */
+    boolean hasBatchLoaders() {
+        return hasBatchLoaders;
+    }
+
+    /**
+     * @return true if any loader expires or is refreshed, and so needs the time it was last invoked recording
+     */
+    boolean hasTimedLoaders() {
+        return hasTimedLoaders;
+    }
+
+    /**
+     * @return true if any loader has an unloader, and so its loaded state needs tracking
+     */
+    boolean hasUnloadableLoaders() {
+        return hasUnloadableLoaders;
+    }
+
+    /**
+     * @return true if any loader's failures are cached, and so need recording
+     */
+    boolean hasFailureCachingLoaders() {
+        return hasFailureCachingLoaders;
+    }
+
+    ClassInvalidations getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return true if the proxied class has an entity key method, so its proxies can share loaded state
+     */
+    boolean hasEntityKey() {
+        return entityKeyMethod != null;
+    }
+
+    /**
+     * @return The key of the entity that the given original represents, which may be null; there must be an entity
+     * key method
+     */
+    Object getEntityKey(Object original) {
+        try {
+            return entityKeyMethod.invoke(original);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new UndeclaredThrowableException(cause);
+        }
+    }
+
+    /**
+     * A lazily loaded method. Its loaders are invoked in order: its loader method's first, if it has one. A method
+     * returning a paged list (see {@link LoadPagesWith}) has a page loader, and isn't delegated to the original at all.
+     */
+    static final class LazyMethod {
+        /**
+         * The method's dense index among the class's lazily loaded methods
+         */
+        final int index;
+        final int[] loaderIndices;
+        final DelegateInvoker delegate;
+        final PageLoader pageLoader;
+        /**
+         * The check of whether the method's data is already there without invoking its loader method (the first of
+         * its loaders), or null if it has none
+         */
+        final LoadedCheck loadedCheck;
+
+        LazyMethod(int index, int[] loaderIndices, DelegateInvoker delegate, PageLoader pageLoader,
+                   LoadedCheck loadedCheck)
+        {
+            this.index = index;
+            this.loaderIndices = loaderIndices;
+            this.delegate = delegate;
+            this.pageLoader = pageLoader;
+            this.loadedCheck = loadedCheck;
+        }
+    }
+
+    /**
+     * The ways of telling that a lazily loaded method's data is already there without invoking its loader: whether any
+     * of a group of loaders (by index) has been invoked, whether the field backing it is set, and what a predicate
+     * method returns. Any that are unset are null (or, for the group, empty). They're checked in that order, cheapest
+     * first, and only while the loader hasn't been invoked, so calls once it has been don't pay for them. The field and
+     * predicate are read through the factory's {@link InvocationStrategy}.
+     */
+    static final class LoadedCheck {
+        final int[] groupLoaderIndices;
+        final CheckInvoker backingFieldSet;
+        final CheckInvoker predicate;
+
+        LoadedCheck(int[] groupLoaderIndices, CheckInvoker backingFieldSet, CheckInvoker predicate) {
+            this.groupLoaderIndices = groupLoaderIndices;
+            this.backingFieldSet = backingFieldSet;
+            this.predicate = predicate;
+        }
+
+        boolean isLoaded(LazyLoadWithMethodInterceptor<?> interceptor) throws Throwable {
+            for (int loaderIndex : groupLoaderIndices) {
+                if (interceptor.hasLoaded(loaderIndex)) {
+                    return true;
+                }
+            }
+            Object original = interceptor.getOriginal();
+            if (backingFieldSet != null && backingFieldSet.invoke(original)) {
+                return true;
+            }
+            return predicate != null && predicate.invoke(original);
+        }
+    }
+
+    /**
+     * The page loader of a method returning a paged list, with its size method (or null if it has none) and how its
+     * pages are cached and prefetched.
+     *
+     * Page loaders are invoked by reflection, rather than through the invocation strategy: each invocation loads a
+     * whole page, so the cost of a reflective call doesn't matter.
+     */
+    static final class PageLoader {
+        final Method method;
+        final Method sizeMethod;
+        final int pageSize;
+        final int maxCachedPages;
+        final boolean prefetchNextPage;
+
+        PageLoader(Method method, Method sizeMethod, int pageSize, int maxCachedPages, boolean prefetchNextPage) {
+            this.method = method;
+            this.sizeMethod = sizeMethod;
+            this.pageSize = pageSize;
+            this.maxCachedPages = maxCachedPages;
+            this.prefetchNextPage = prefetchNextPage;
+        }
+
+        List<?> loadPage(Object original, int offset) throws Throwable {
+            List<?> page = (List<?>) invoke(method, original, offset, pageSize);
+            return page == null ? Collections.emptyList() : page;
+        }
+
+        int loadSize(Object original) throws Throwable {
+            return (Integer) invoke(sizeMethod, original);
+        }
+
+        private static Object invoke(Method method, Object original, Object... args) throws Throwable {
+            try {
+                return method.invoke(original, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A loader method, or the supplier method of a lazy field (whose invoker also sets the field). Batch loaders have a
+     * batch invoker, for loading the originals of a group of proxies created together; their (single) invoker loads
+     * just one original. Dependencies are the indices of the loaders that must have been invoked before this one is.
+     * Unloadable loaders have an unloader, which clears the loaded state.
+     *
+     * Unlike its index, a loader's identifier is stable from one run to the next, and unlike its method's name, it's
+     * unique within the proxied class (several lazy fields can share a supplier, and a class can declare a loader with
+     * the same name as its superclass's): it's the declaring class, name and parameter types of a loader method, or
+     * the declaring class and name of a lazy field.
+     *
+     * Expiry and refresh periods are in nanoseconds, and are zero if unset. A timed loader is fresh (needs neither
+     * expiring nor refreshing) for {@link #freshNanos} after it was last invoked, so checking it is a single compare.
+     *
+     * How long calls wait for the loader, how often it's retried and how long its failures are cached are its
+     * {@link LoadPolicy}.
+     */
+    static final class Loader {
+        final Method method;
+        /**
+         * The lazy field this is the loader of, or null if this is a loader method
+         */
+        final Field lazyField;
+        final String id;
+        final LoaderInvoker invoker;
+        final BatchLoaderInvoker batchInvoker;
+        final LoaderInvoker unloader;
+        final int[] dependencies;
+        final boolean prefetch;
+        final long expireAfterWriteNanos;
+        final long refreshAfterWriteNanos;
+        final long freshNanos;
+        final LoadPolicy policy;
+
+        Loader(Method method, Field lazyField, LoaderInvoker invoker, BatchLoaderInvoker batchInvoker,
+               LoaderInvoker unloader, int[] dependencies, boolean prefetch, long expireAfterWriteNanos,
+               long refreshAfterWriteNanos, LoadPolicy policy)
+        {
+            this.method = method;
+            this.lazyField = lazyField;
+            this.id = lazyField == null ? getId(method) : getId(lazyField);
+            this.invoker = invoker;
+            this.batchInvoker = batchInvoker;
+            this.unloader = unloader;
+            this.dependencies = dependencies;
+            this.prefetch = prefetch;
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+            this.refreshAfterWriteNanos = refreshAfterWriteNanos;
+            this.policy = policy;
+            if (expireAfterWriteNanos > 0 && refreshAfterWriteNanos > 0) {
+                this.freshNanos = Math.min(expireAfterWriteNanos, refreshAfterWriteNanos);
+            } else {
+                this.freshNanos = Math.max(expireAfterWriteNanos, refreshAfterWriteNanos);
+            }
+        }
+
+        private static String getId(Method method) {
+            StringBuilder id = new StringBuilder(method.getDeclaringClass().getName())
+                    .append('#').append(method.getName()).append('(');
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                id.append(i == 0 ? "" : ",").append(parameterTypes[i].getName());
+            }
+            return id.append(')').toString();
+        }
+
+        private static String getId(Field lazyField) {
+            return lazyField.getDeclaringClass().getName() + "." + lazyField.getName();
+        }
+
+        boolean isUnloadable() {
+            return unloader != null;
+        }
+
+        boolean isTimed() {
+            return freshNanos > 0;
+        }
+
+        /**
+         * @param ageNanos The time since the loader was last invoked
+         */
+        boolean hasExpired(long ageNanos) {
+            return expireAfterWriteNanos > 0 && ageNanos >= expireAfterWriteNanos;
+        }
+
+        boolean isBatch() {
+            return batchInvoker != null;
+        }
+    }
+
+    /**
+     * What happens when a loader is slow or fails: how long a call waits for it (in milliseconds, and zero if calls
+     * wait indefinitely), how many times it's invoked before giving up, how long to wait before the first retry
+     * (doubling thereafter), and how long after a failure calls rethrow it rather than invoking the loader again. The
+     * periods are zero if unset.
+     */
+    static final class LoadPolicy {
+        static final LoadPolicy DEFAULT = new LoadPolicy(0, 1, 0, 0);
+
+        final long timeoutMillis;
+        final int maxAttempts;
+        final long retryBackoffNanos;
+        final long cacheFailureNanos;
+
+        LoadPolicy(long timeoutMillis, int maxAttempts, long retryBackoffNanos, long cacheFailureNanos) {
+            this.timeoutMillis = timeoutMillis;
+            this.maxAttempts = maxAttempts;
+            this.retryBackoffNanos = retryBackoffNanos;
+            this.cacheFailureNanos = cacheFailureNanos;
+        }
+
+        boolean hasTimeout() {
+            return timeoutMillis > 0;
+        }
+
+        boolean cachesFailures() {
+            return cacheFailureNanos > 0;
+        }
+    }
+}
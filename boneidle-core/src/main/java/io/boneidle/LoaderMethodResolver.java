@@ -1,33 +1,552 @@
 package io.boneidle;
 
+import io.boneidle.InvocationStrategy.BatchLoaderInvoker;
+import io.boneidle.InvocationStrategy.LoaderInvoker;
+import io.boneidle.LazyLoadingMetadata.LazyMethod;
+import io.boneidle.LazyLoadingMetadata.LoadPolicy;
+import io.boneidle.LazyLoadingMetadata.LoadedCheck;
+import io.boneidle.LazyLoadingMetadata.Loader;
+import io.boneidle.LazyLoadingMetadata.PageLoader;
 import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
+import io.boneidle.exception.CyclicLoaderDependencyRuntimeException;
+import io.boneidle.exception.InvalidEntityKeyRuntimeException;
+import io.boneidle.exception.InvalidLazyFieldRuntimeException;
+import io.boneidle.exception.InvalidPagedListRuntimeException;
 
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 class LoaderMethodResolver {
+    private final InvocationStrategy invocationStrategy;
+
+    LoaderMethodResolver() {
+        this(new ReflectiveInvocationStrategy());
+    }
+
+    LoaderMethodResolver(InvocationStrategy invocationStrategy) {
+        this.invocationStrategy = invocationStrategy;
+    }
+
     /**
-     * Finds the loader method for a given target method
+     * Resolves the loader methods for every method of the given class that a proxy could intercept. Each lazy field
+     * (see {@link LazyField}) is given a loader of its own, which invokes its supplier and sets the field, and the
+     * methods that read it are given that loader (as well as any loader of their own).
      *
-     * @param targetMethod The method for which to find the loader method
-     * @return The loader method for the given targetMethod, or null if no loader method is defined.
-     * @throws CannotInvokeLazyLoaderRuntimeException Thrown if the loader method is missing or parameterised
+     * @param proxiedClass The class for which to resolve lazy-loading metadata
+     * @return The lazy-loading metadata for proxiedClass
+     * @throws CannotInvokeLazyLoaderRuntimeException Thrown if any loader method is missing or parameterised, or if
+     * any way of telling that a method's data is already there is unusable
+     * @throws CyclicLoaderDependencyRuntimeException Thrown if any loader depends, directly or not, on itself
+     * @throws InvalidLazyFieldRuntimeException Thrown if any lazy field, or its supplier, is unusable, or if any method
+     * reads a lazy field that doesn't exist
+     * @throws InvalidEntityKeyRuntimeException Thrown if the entity key method is unusable, or there are several
+     * @throws InvalidPagedListRuntimeException Thrown if any method returning a paged list, or its page loader or size
+     * method, is unusable
+     */
+    LazyLoadingMetadata resolve(Class<?> proxiedClass) {
+        Map<Method, LazyMethod> lazyMethods = new HashMap<Method, LazyMethod>();
+        // Keyed by loader method, or by lazy field
+        Map<Member, LoaderConfig> loaderConfigs = new LinkedHashMap<Member, LoaderConfig>();
+        // Keyed by signature, so the most specific declaration's lazy method is found first
+        Map<String, LazyMethod> lazyMethodsBySignature = new HashMap<String, LazyMethod>();
+        Set<String> seenSignatures = new HashSet<String>();
+        List<Method> bridgeMethods = new ArrayList<Method>();
+        Map<String, Field> lazyFields = new HashMap<String, Field>();
+        Map<Field, Method> suppliers = new HashMap<Field, Method>();
+        findLazyFields(proxiedClass, lazyFields, suppliers);
+        Set<Method> loadedIfMethods = new HashSet<Method>();
+
+        for (Class<?> c = proxiedClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                // Bridge methods share their target's signature, but carry copies of its annotations; they're given
+                // their target's lazy method once every target is known
+                if (method.isBridge() && isInterceptable(method)) {
+                    bridgeMethods.add(method);
+                }
+                // Overridden methods are never intercepted, so only the most specific declaration matters
+                if (method.isSynthetic() || !isInterceptable(method) || !seenSignatures.add(getSignature(method))) {
+                    continue;
+                }
+
+                List<Integer> loaderIndices = new ArrayList<Integer>();
+                LoadedCheck loadedCheck = null;
+
+                LazyLoadWith lazyLoadWith = getLoaderAnnotation(method);
+                if (lazyLoadWith != null) {
+                    Method loaderMethod = findLoader(method.getDeclaringClass(), lazyLoadWith.value());
+                    LoaderConfig config = getLoaderConfig(loaderConfigs, loaderMethod);
+                    for (String dependencyName : lazyLoadWith.after()) {
+                        Method dependency = findLoader(method.getDeclaringClass(), dependencyName);
+                        getLoaderConfig(loaderConfigs, dependency);
+                        config.dependencies.add(dependency);
+                    }
+                    config.configure(lazyLoadWith);
+                    if (!lazyLoadWith.unloadWith().isEmpty()) {
+                        config.unloaderMethod = findUnloader(method.getDeclaringClass(), lazyLoadWith.unloadWith());
+                    }
+                    loaderIndices.add(config.index);
+                    loadedCheck = findLoadedCheck(method, lazyLoadWith, loaderConfigs, loadedIfMethods);
+                }
+
+                for (Field field : getLazyFieldsRead(method, lazyFields)) {
+                    LoaderConfig config = getLoaderConfig(loaderConfigs, field);
+                    config.supplierMethod = suppliers.get(field);
+                    loaderIndices.add(config.index);
+                }
+
+                PageLoader pageLoader = findPageLoader(method);
+
+                if (!loaderIndices.isEmpty() || pageLoader != null) {
+                    LazyMethod lazyMethod = new LazyMethod(lazyMethods.size(), toArray(loaderIndices),
+                            invocationStrategy.bindDelegate(method), pageLoader, loadedCheck);
+                    lazyMethods.put(method, lazyMethod);
+                    lazyMethodsBySignature.put(getSignature(method), lazyMethod);
+                }
+            }
+        }
+        int lazyMethodCount = lazyMethods.size();
+
+        for (Method bridgeMethod : bridgeMethods) {
+            Method target = findBridgedMethod(bridgeMethod);
+            LazyMethod lazyMethod = target == null ? null : lazyMethodsBySignature.get(getSignature(target));
+            if (lazyMethod != null) {
+                // Shares its target's index, so calls either way share paged lists and returned objects' proxies
+                lazyMethods.put(bridgeMethod, new LazyMethod(lazyMethod.index, lazyMethod.loaderIndices,
+                        invocationStrategy.bindDelegate(bridgeMethod), lazyMethod.pageLoader,
+                        lazyMethod.loadedCheck));
+            }
+        }
+
+        checkForCycles(loaderConfigs);
+
+        List<Loader> loaders = new ArrayList<Loader>();
+        Set<Method> loaderMethods = new HashSet<Method>(loadedIfMethods);
+        for (Map.Entry<Member, LoaderConfig> entry : loaderConfigs.entrySet()) {
+            Loader loader = bindLoader(entry.getKey(), entry.getValue(), loaderConfigs);
+            loaders.add(loader);
+            loaderMethods.add(loader.method);
+            if (entry.getValue().unloaderMethod != null) {
+                loaderMethods.add(entry.getValue().unloaderMethod);
+            }
+        }
+
+        return new LazyLoadingMetadata(proxiedClass, lazyMethods, lazyMethodCount, loaders, loaderMethods,
+                findEntityKeyMethod(proxiedClass));
+    }
+
+    /**
+     * @return The method that the given bridge method calls: the method of the same class with the same name, whose
+     * parameter and return types are the bridge's or subtypes of them, or null if there's none
+     */
+    static Method findBridgedMethod(Method bridgeMethod) {
+        for (Method candidate : bridgeMethod.getDeclaringClass().getDeclaredMethods()) {
+            if (!candidate.isBridge() && candidate.getName().equals(bridgeMethod.getName())
+                    && bridgeMethod.getReturnType().isAssignableFrom(candidate.getReturnType())
+                    && isAssignable(bridgeMethod.getParameterTypes(), candidate.getParameterTypes()))
+            {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAssignable(Class<?>[] types, Class<?>[] subtypes) {
+        if (types.length != subtypes.length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (!types[i].isAssignableFrom(subtypes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The method of the given class or its superclasses annotated with {@link EntityKey}, or null if there's
+     * none
+     */
+    private Method findEntityKeyMethod(Class<?> proxiedClass) {
+        Method entityKeyMethod = null;
+        Set<String> seenSignatures = new HashSet<String>();
+        for (Class<?> c = proxiedClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(EntityKey.class) || !seenSignatures.add(getSignature(method))) {
+                    continue;
+                }
+                if (Modifier.isStatic(method.getModifiers()) || method.getParameterTypes().length > 0
+                        || method.getReturnType() == void.class)
+                {
+                    throw InvalidEntityKeyRuntimeException.createForKeyMethod(method.getName());
+                }
+                if (entityKeyMethod != null) {
+                    throw InvalidEntityKeyRuntimeException.createForSeveralKeyMethods(entityKeyMethod.getName(),
+                            method.getName());
+                }
+                entityKeyMethod = method;
+            }
+        }
+
+        if (entityKeyMethod != null) {
+            entityKeyMethod.setAccessible(true);
+        }
+        return entityKeyMethod;
+    }
+
+    /**
+     * @return The page loader of the given method, if it returns a paged list (see {@link LoadPagesWith}), or else
+     * null
      */
-    Method getLoaderFor(Method targetMethod) {
-        LazyLoadWith lazyLoadWith = getLoaderAnnotation(targetMethod);
+    private PageLoader findPageLoader(Method method) {
+        LoadPagesWith loadPagesWith = method.getAnnotation(LoadPagesWith.class);
+        if (loadPagesWith == null) {
+            return null;
+        }
+        if (method.getParameterTypes().length > 0 || !method.getReturnType().isAssignableFrom(List.class)
+                || method.getReturnType() == Object.class || loadPagesWith.pageSize() < 1
+                || loadPagesWith.maxCachedPages() < 1)
+        {
+            throw InvalidPagedListRuntimeException.createForMethod(method.getName());
+        }
+
+        Class<?> declaringClass = method.getDeclaringClass();
+        Method pageLoaderMethod;
+        try {
+            pageLoaderMethod = declaringClass.getDeclaredMethod(loadPagesWith.value(), int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            pageLoaderMethod = null;
+        }
+        if (pageLoaderMethod == null || Modifier.isStatic(pageLoaderMethod.getModifiers())
+                || !List.class.isAssignableFrom(pageLoaderMethod.getReturnType()))
+        {
+            throw InvalidPagedListRuntimeException.createForPageLoader(loadPagesWith.value(), method.getName());
+        }
+        pageLoaderMethod.setAccessible(true);
 
-        if (lazyLoadWith == null) {
+        Method sizeMethod = null;
+        if (!loadPagesWith.sizeWith().isEmpty()) {
+            try {
+                sizeMethod = declaringClass.getDeclaredMethod(loadPagesWith.sizeWith());
+            } catch (NoSuchMethodException e) {
+                // Reported below
+            }
+            if (sizeMethod == null || Modifier.isStatic(sizeMethod.getModifiers())
+                    || sizeMethod.getReturnType() != int.class)
+            {
+                throw InvalidPagedListRuntimeException.createForSizeMethod(loadPagesWith.sizeWith(),
+                        method.getName());
+            }
+            sizeMethod.setAccessible(true);
+        }
+
+        return new PageLoader(pageLoaderMethod, sizeMethod, loadPagesWith.pageSize(), loadPagesWith.maxCachedPages(),
+                loadPagesWith.prefetchNextPage());
+    }
+
+    /**
+     * @return The check of whether the given method's data is already there without invoking its loader, or null if
+     * its annotation sets no way of telling (see {@link LazyLoadWith#loadedIfFieldSet()},
+     * {@link LazyLoadWith#loadedIfAnyInvoked()} and {@link LazyLoadWith#loadedIf()})
+     */
+    private LoadedCheck findLoadedCheck(Method method, LazyLoadWith lazyLoadWith,
+                                        Map<Member, LoaderConfig> loaderConfigs, Set<Method> loadedIfMethods)
+    {
+        Class<?> declaringClass = method.getDeclaringClass();
+
+        String[] groupLoaderNames = lazyLoadWith.loadedIfAnyInvoked();
+        int[] groupLoaderIndices = new int[groupLoaderNames.length];
+        for (int i = 0; i < groupLoaderNames.length; i++) {
+            Method groupLoader = findLoader(declaringClass, groupLoaderNames[i]);
+            groupLoaderIndices[i] = getLoaderConfig(loaderConfigs, groupLoader).index;
+        }
+
+        Field backingField = null;
+        if (lazyLoadWith.loadedIfFieldSet()) {
+            backingField = findBackingField(method);
+            // A class's annotation only applies to the getters that have a backing field
+            if (backingField == null && getMethodAnnotation(method) != null) {
+                throw CannotInvokeLazyLoaderRuntimeException.createForBackingField(method.getName());
+            }
+        }
+
+        Method predicate = null;
+        if (!lazyLoadWith.loadedIf().isEmpty()) {
+            predicate = findLoadedIf(declaringClass, lazyLoadWith.loadedIf());
+            loadedIfMethods.add(predicate);
+        }
+
+        if (groupLoaderIndices.length == 0 && backingField == null && predicate == null) {
+            return null;
+        }
+        return new LoadedCheck(groupLoaderIndices,
+                backingField == null ? null : invocationStrategy.bindFieldSetCheck(backingField),
+                predicate == null ? null : invocationStrategy.bindPredicate(predicate));
+    }
+
+    /**
+     * @return The non-primitive instance field x of the given method's class or its superclasses, if the method is a
+     * bean getter getX() or isX(), or else null
+     */
+    private Field findBackingField(Method method) {
+        String methodName = method.getName();
+        String propertyName;
+        if (methodName.startsWith("get") && methodName.length() > 3) {
+            propertyName = methodName.substring(3);
+        } else if (methodName.startsWith("is") && methodName.length() > 2) {
+            propertyName = methodName.substring(2);
+        } else {
             return null;
         }
+        if (method.getParameterTypes().length > 0) {
+            return null;
+        }
+
+        String fieldName = Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1);
+        for (Class<?> c = method.getDeclaringClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            Field field;
+            try {
+                field = c.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                continue;
+            }
+            if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                return null;
+            }
+            field.setAccessible(true);
+            return field;
+        }
+        return null;
+    }
 
-        String loaderMethodName = lazyLoadWith.value();
-        Method loaderMethod;
+    private Method findLoadedIf(Class<?> declaringClass, String loadedIfMethodName) {
         try {
-            loaderMethod = targetMethod.getDeclaringClass().getDeclaredMethod(loaderMethodName);
+            Method loadedIfMethod = declaringClass.getDeclaredMethod(loadedIfMethodName);
+            if (!Modifier.isStatic(loadedIfMethod.getModifiers()) && loadedIfMethod.getReturnType() == boolean.class) {
+                loadedIfMethod.setAccessible(true);
+                return loadedIfMethod;
+            }
         } catch (NoSuchMethodException e) {
-            throw CannotInvokeLazyLoaderRuntimeException.create(loaderMethodName, e);
+            // Reported below
         }
-        return loaderMethod;
+        throw CannotInvokeLazyLoaderRuntimeException.createForLoadedIf(loadedIfMethodName);
+    }
+
+    private LoaderConfig getLoaderConfig(Map<Member, LoaderConfig> loaderConfigs, Member loader) {
+        LoaderConfig config = loaderConfigs.get(loader);
+        if (config == null) {
+            config = new LoaderConfig(loaderConfigs.size());
+            loaderConfigs.put(loader, config);
+        }
+        return config;
+    }
+
+    /**
+     * Finds the lazy fields of the given class and its superclasses, by name, and their suppliers. Fields hidden by a
+     * subclass's field of the same name are ignored.
+     */
+    private void findLazyFields(Class<?> proxiedClass, Map<String, Field> lazyFields, Map<Field, Method> suppliers) {
+        Set<String> seenNames = new HashSet<String>();
+        for (Class<?> c = proxiedClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!seenNames.add(field.getName()) || !field.isAnnotationPresent(LazyField.class)) {
+                    continue;
+                }
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                    throw InvalidLazyFieldRuntimeException.createForUnassignableField(field.getName());
+                }
+                lazyFields.put(field.getName(), field);
+                suppliers.put(field, findSupplier(field));
+            }
+        }
+    }
+
+    /**
+     * @return The lazy fields named by the method's {@link ReadsLazyFields} annotation if it has one, or else the
+     * lazy field it's the bean getter of, if any
+     */
+    private List<Field> getLazyFieldsRead(Method method, Map<String, Field> lazyFields) {
+        if (method.isAnnotationPresent(ExcludeFromLazyLoading.class)) {
+            return Collections.emptyList();
+        }
+
+        ReadsLazyFields readsLazyFields = method.getAnnotation(ReadsLazyFields.class);
+        if (readsLazyFields != null) {
+            List<Field> fields = new ArrayList<Field>();
+            for (String fieldName : readsLazyFields.value()) {
+                Field field = lazyFields.get(fieldName);
+                if (field == null) {
+                    throw InvalidLazyFieldRuntimeException.createForUnknownField(fieldName, method.getName());
+                }
+                fields.add(field);
+            }
+            return fields;
+        }
+
+        if (lazyFields.isEmpty() || method.getParameterTypes().length > 0) {
+            return Collections.emptyList();
+        }
+        for (Field field : lazyFields.values()) {
+            String capitalisedName = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            if (method.getName().equals("get" + capitalisedName) || method.getName().equals("is" + capitalisedName)) {
+                return Collections.singletonList(field);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private Method findSupplier(Field field) {
+        String supplierName = field.getAnnotation(LazyField.class).value();
+        try {
+            Method supplier = field.getDeclaringClass().getDeclaredMethod(supplierName);
+            if (!Modifier.isStatic(supplier.getModifiers())
+                    && field.getType().isAssignableFrom(supplier.getReturnType()))
+            {
+                return supplier;
+            }
+        } catch (NoSuchMethodException e) {
+            // Reported below
+        }
+        throw InvalidLazyFieldRuntimeException.createForSupplier(supplierName, field.getName());
+    }
+
+    private static int[] toArray(List<Integer> integers) {
+        int[] array = new int[integers.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = integers.get(i);
+        }
+        return array;
+    }
+
+    private void checkForCycles(Map<Member, LoaderConfig> loaderConfigs) {
+        Set<Member> checked = new HashSet<Member>();
+        for (Member loader : loaderConfigs.keySet()) {
+            checkForCycles(loader, loaderConfigs, checked, new ArrayList<Member>());
+        }
+    }
+
+    /**
+     * Depth-first search of the dependencies of a loader, failing if any loader on the current path is reached again
+     */
+    private void checkForCycles(Member loader, Map<Member, LoaderConfig> loaderConfigs, Set<Member> checked,
+                                List<Member> path)
+    {
+        int pathIndex = path.indexOf(loader);
+        if (pathIndex != -1) {
+            List<String> cycle = new ArrayList<String>();
+            for (Member member : path.subList(pathIndex, path.size())) {
+                cycle.add(member.getName());
+            }
+            cycle.add(loader.getName());
+            throw CyclicLoaderDependencyRuntimeException.create(cycle);
+        }
+        if (checked.contains(loader)) {
+            return;
+        }
+
+        path.add(loader);
+        for (Method dependency : loaderConfigs.get(loader).dependencies) {
+            checkForCycles(dependency, loaderConfigs, checked, path);
+        }
+        path.remove(path.size() - 1);
+        checked.add(loader);
+    }
+
+    private Loader bindLoader(Member loader, LoaderConfig config, Map<Member, LoaderConfig> loaderConfigs) {
+        if (loader instanceof Field) {
+            LoaderInvoker invoker = invocationStrategy.bindFieldSupplier(config.supplierMethod, (Field) loader);
+            return new Loader(config.supplierMethod, (Field) loader, invoker, null, null, new int[0], false, 0, 0,
+                    LoadPolicy.DEFAULT);
+        }
+        Method loaderMethod = (Method) loader;
+
+        int[] dependencyIndices = new int[config.dependencies.size()];
+        int i = 0;
+        for (Method dependency : config.dependencies) {
+            dependencyIndices[i++] = loaderConfigs.get(dependency).index;
+        }
+
+        LoaderInvoker invoker;
+        BatchLoaderInvoker batchInvoker = null;
+        if (isBatchLoader(loaderMethod)) {
+            final BatchLoaderInvoker boundBatchInvoker = invocationStrategy.bindBatchLoader(loaderMethod);
+            invoker = new LoaderInvoker() {
+                @Override
+                public void invoke(Object original) throws Throwable {
+                    boundBatchInvoker.invoke(Collections.singletonList(original));
+                }
+            };
+            batchInvoker = boundBatchInvoker;
+        } else {
+            invoker = invocationStrategy.bindLoader(loaderMethod);
+        }
+
+        LoaderInvoker unloader = config.unloaderMethod == null
+                ? null
+                : invocationStrategy.bindLoader(config.unloaderMethod);
+
+        LoadPolicy policy = new LoadPolicy(config.timeoutMillis, config.maxAttempts,
+                TimeUnit.MILLISECONDS.toNanos(config.retryBackoffMillis),
+                TimeUnit.MILLISECONDS.toNanos(config.cacheFailureMillis));
+        return new Loader(loaderMethod, null, invoker, batchInvoker, unloader, dependencyIndices, config.prefetch,
+                TimeUnit.MILLISECONDS.toNanos(config.expireAfterWriteMillis),
+                TimeUnit.MILLISECONDS.toNanos(config.refreshAfterWriteMillis), policy);
+    }
+
+    /**
+     * Finds the named loader method: either an instance method taking no parameters, or a static batch loader taking
+     * a single List of original objects. The former takes precedence.
+     */
+    private Method findLoader(Class<?> declaringClass, String loaderMethodName) {
+        try {
+            Method loaderMethod = declaringClass.getDeclaredMethod(loaderMethodName);
+            if (!Modifier.isStatic(loaderMethod.getModifiers())) {
+                return loaderMethod;
+            }
+        } catch (NoSuchMethodException e) {
+            // Might be a batch loader instead
+        }
+
+        for (Method candidate : declaringClass.getDeclaredMethods()) {
+            if (candidate.getName().equals(loaderMethodName) && isBatchLoader(candidate)) {
+                return candidate;
+            }
+        }
+
+        throw CannotInvokeLazyLoaderRuntimeException.create(loaderMethodName, null);
+    }
+
+    private Method findUnloader(Class<?> declaringClass, String unloaderMethodName) {
+        try {
+            Method unloaderMethod = declaringClass.getDeclaredMethod(unloaderMethodName);
+            if (!Modifier.isStatic(unloaderMethod.getModifiers())) {
+                return unloaderMethod;
+            }
+        } catch (NoSuchMethodException e) {
+            // Reported below
+        }
+        throw CannotInvokeLazyLoaderRuntimeException.createForUnloader(unloaderMethodName);
+    }
+
+    private boolean isBatchLoader(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return Modifier.isStatic(method.getModifiers())
+                && parameterTypes.length == 1
+                && parameterTypes[0].isAssignableFrom(List.class);
     }
 
     private LazyLoadWith getLoaderAnnotation(Method targetMethod) {
@@ -55,4 +574,57 @@ class LoaderMethodResolver {
     private LazyLoadWith getAnnotation(AnnotatedElement element) {
         return element.isAnnotationPresent(LazyLoadWith.class) ? element.getAnnotation(LazyLoadWith.class) : null;
     }
+
+    private boolean isInterceptable(Method method) {
+        int modifiers = method.getModifiers();
+        return !Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers);
+    }
+
+    private String getSignature(Method method) {
+        return method.getName() + Arrays.toString(method.getParameterTypes());
+    }
+
+    /**
+     * The configuration of a loader (or of a lazy field's loader), merged from every annotation naming it
+     */
+    private static final class LoaderConfig {
+        final int index;
+        final Set<Method> dependencies = new LinkedHashSet<Method>();
+        Method unloaderMethod = null;
+        /**
+         * The supplier method, if this is the loader of a lazy field
+         */
+        Method supplierMethod = null;
+        boolean prefetch = false;
+        long expireAfterWriteMillis = 0;
+        long refreshAfterWriteMillis = 0;
+        long timeoutMillis = 0;
+        int maxAttempts = 1;
+        long retryBackoffMillis = 0;
+        long cacheFailureMillis = 0;
+
+        LoaderConfig(int index) {
+            this.index = index;
+        }
+
+        void configure(LazyLoadWith lazyLoadWith) {
+            prefetch |= lazyLoadWith.prefetch();
+            expireAfterWriteMillis = shortestPeriod(expireAfterWriteMillis, lazyLoadWith.expireAfterWriteMillis());
+            refreshAfterWriteMillis = shortestPeriod(refreshAfterWriteMillis, lazyLoadWith.refreshAfterWriteMillis());
+            timeoutMillis = shortestPeriod(timeoutMillis, lazyLoadWith.timeoutMillis());
+            maxAttempts = Math.max(maxAttempts, lazyLoadWith.maxAttempts());
+            retryBackoffMillis = Math.max(retryBackoffMillis, lazyLoadWith.retryBackoffMillis());
+            cacheFailureMillis = Math.max(cacheFailureMillis, lazyLoadWith.cacheFailureMillis());
+        }
+
+        /**
+         * @return The shorter of two periods, where non-positive periods are unset
+         */
+        private static long shortestPeriod(long period, long otherPeriod) {
+            if (period <= 0) {
+                return Math.max(otherPeriod, 0);
+            }
+            return otherPeriod <= 0 ? period : Math.min(period, otherPeriod);
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package io.boneidle;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link LoaderMetricsSink} that keeps counts and latency histograms in memory, per proxied class and loader, for
+ * reading with {@link #getStatistics()}. For example:
+ *
+ * <pre>
+ *     LoaderMetrics metrics = new LoaderMetrics();
+ *     LazyFactory factory = LazyFactory.builder().metricsSink(metrics).build();
+ *     ...
+ *     for (LoaderStatistics statistics : metrics.getStatistics()) {
+ *         log.info(statistics.toString());
+ *     }
+ * </pre>
+ *
+ * Recording is a few atomic increments. Measurements are kept for as long as the metrics are, which keeps the
+ * proxied classes reachable.
+ */
+public final class LoaderMetrics implements LoaderMetricsSink {
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Recorder>> recorders =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Method, Recorder>>();
+
+    @Override
+    public void callIntercepted(Class<?> proxiedClass, Method loader) {
+        getRecorder(proxiedClass, loader).interceptedCalls.incrementAndGet();
+    }
+
+    @Override
+    public void loadSkipped(Class<?> proxiedClass, Method loader) {
+        getRecorder(proxiedClass, loader).skippedLoads.incrementAndGet();
+    }
+
+    @Override
+    public void loadSucceeded(Class<?> proxiedClass, Method loader, long durationNanos) {
+        Recorder recorder = getRecorder(proxiedClass, loader);
+        recorder.loads.incrementAndGet();
+        recorder.recordLatency(durationNanos);
+    }
+
+    @Override
+    public void loadFailed(Class<?> proxiedClass, Method loader, long durationNanos, Throwable failure) {
+        Recorder recorder = getRecorder(proxiedClass, loader);
+        recorder.failures.incrementAndGet();
+        recorder.recordLatency(durationNanos);
+    }
+
+    @Override
+    public void loadAwaited(Class<?> proxiedClass, Method loader, long waitNanos) {
+        Recorder recorder = getRecorder(proxiedClass, loader);
+        recorder.waits.incrementAndGet();
+        recorder.totalWaitNanos.addAndGet(waitNanos);
+    }
+
+    /**
+     * @return The statistics of every loader measured so far
+     */
+    public List<LoaderStatistics> getStatistics() {
+        List<LoaderStatistics> statistics = new ArrayList<LoaderStatistics>();
+        for (Map.Entry<Class<?>, ConcurrentMap<Method, Recorder>> classRecorders : recorders.entrySet()) {
+            for (Map.Entry<Method, Recorder> entry : classRecorders.getValue().entrySet()) {
+                statistics.add(entry.getValue().snapshot(classRecorders.getKey(), entry.getKey().getName()));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return The statistics of the given class's loaders measured so far
+     */
+    public List<LoaderStatistics> getStatistics(Class<?> proxiedClass) {
+        List<LoaderStatistics> statistics = new ArrayList<LoaderStatistics>();
+        ConcurrentMap<Method, Recorder> classRecorders = recorders.get(proxiedClass);
+        if (classRecorders != null) {
+            for (Map.Entry<Method, Recorder> entry : classRecorders.entrySet()) {
+                statistics.add(entry.getValue().snapshot(proxiedClass, entry.getKey().getName()));
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return The statistics of all of the given class's loaders together, with a null loader name
+     */
+    public LoaderStatistics getClassStatistics(Class<?> proxiedClass) {
+        LoaderStatistics total = new Recorder().snapshot(proxiedClass, null);
+        for (LoaderStatistics statistics : getStatistics(proxiedClass)) {
+            total = total.plus(statistics);
+        }
+        return total;
+    }
+
+    private Recorder getRecorder(Class<?> proxiedClass, Method loader) {
+        ConcurrentMap<Method, Recorder> classRecorders = recorders.get(proxiedClass);
+        if (classRecorders == null) {
+            ConcurrentMap<Method, Recorder> newRecorders = new ConcurrentHashMap<Method, Recorder>();
+            classRecorders = recorders.putIfAbsent(proxiedClass, newRecorders);
+            if (classRecorders == null) {
+                classRecorders = newRecorders;
+            }
+        }
+
+        Recorder recorder = classRecorders.get(loader);
+        if (recorder == null) {
+            Recorder newRecorder = new Recorder();
+            recorder = classRecorders.putIfAbsent(loader, newRecorder);
+            if (recorder == null) {
+                recorder = newRecorder;
+            }
+        }
+        return recorder;
+    }
+
+    private static final class Recorder {
+        final AtomicLong interceptedCalls = new AtomicLong();
+        final AtomicLong skippedLoads = new AtomicLong();
+        final AtomicLong loads = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong totalLoadNanos = new AtomicLong();
+        final AtomicLong waits = new AtomicLong();
+        final AtomicLong totalWaitNanos = new AtomicLong();
+        final AtomicLongArray loadLatencyHistogram = new AtomicLongArray(LoaderStatistics.LATENCY_BUCKETS);
+
+        void recordLatency(long durationNanos) {
+            totalLoadNanos.addAndGet(durationNanos);
+            int bucket = durationNanos < 2 ? 0 : 63 - Long.numberOfLeadingZeros(durationNanos);
+            loadLatencyHistogram.incrementAndGet(bucket);
+        }
+
+        LoaderStatistics snapshot(Class<?> proxiedClass, String loaderName) {
+            long[] histogram = new long[LoaderStatistics.LATENCY_BUCKETS];
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                histogram[bucket] = loadLatencyHistogram.get(bucket);
+            }
+            return new LoaderStatistics(proxiedClass, loaderName, interceptedCalls.get(), skippedLoads.get(),
+                    loads.get(), failures.get(), totalLoadNanos.get(), waits.get(), totalWaitNanos.get(), histogram);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.boneidle;
+
+import java.lang.reflect.Method;
+
+/**
+ * Receives measurements of the lazy loading done by proxies. Set one with
+ * {@link LazyFactory.Builder#metricsSink(LoaderMetricsSink)}; {@link LoaderMetrics} records them in memory.
+ *
+ * Methods are called on whichever thread did the measured work, often concurrently, so implementations must be
+ * thread-safe, and should be quick: they're called on every intercepted call. None of them should throw.
+ *
+ * Every method is given the class of the object being proxied and the loader (or, for a batch loader, the static
+ * batch loader method) concerned.
+ */
+public interface LoaderMetricsSink {
+    /**
+     * Called whenever a call to a lazily loaded method is intercepted, before its loader is invoked (if it needs to be)
+     */
+    void callIntercepted(Class<?> proxiedClass, Method loader);
+
+    /**
+     * Called when an intercepted call didn't need to invoke its loader, because it had already been invoked (possibly
+     * by another thread, which the call waited for)
+     */
+    void loadSkipped(Class<?> proxiedClass, Method loader);
+
+    /**
+     * Called when a loader has been invoked successfully, whether because of an intercepted call, or in the
+     * background (by prefetching, parallel dependency loading or refreshing)
+     *
+     * @param durationNanos How long the loader took, not including any of its dependencies
+     */
+    void loadSucceeded(Class<?> proxiedClass, Method loader, long durationNanos);
+
+    /**
+     * Called when a loader has thrown
+     *
+     * @param durationNanos How long the loader ran before throwing
+     * @param failure What the loader threw
+     */
+    void loadFailed(Class<?> proxiedClass, Method loader, long durationNanos, Throwable failure);
+
+    /**
+     * Called when a thread has had to wait for another thread to finish invoking a loader
+     *
+     * @param waitNanos How long the thread waited
+     */
+    void loadAwaited(Class<?> proxiedClass, Method loader, long waitNanos);
+}
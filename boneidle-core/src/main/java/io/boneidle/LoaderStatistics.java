@@ -0,0 +1,161 @@
+package io.boneidle;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the measurements recorded by {@link LoaderMetrics} for one loader of one proxied class, or for all of
+ * a class's loaders together.
+ */
+public final class LoaderStatistics {
+    /**
+     * The number of buckets in the load latency histogram; see {@link #getLoadLatencyHistogram()}
+     */
+    public static final int LATENCY_BUCKETS = 64;
+
+    private final Class<?> proxiedClass;
+    private final String loaderName;
+    private final long interceptedCallCount;
+    private final long skippedLoadCount;
+    private final long loadCount;
+    private final long failureCount;
+    private final long totalLoadNanos;
+    private final long waitCount;
+    private final long totalWaitNanos;
+    private final long[] loadLatencyHistogram;
+
+    LoaderStatistics(Class<?> proxiedClass, String loaderName, long interceptedCallCount, long skippedLoadCount,
+                     long loadCount, long failureCount, long totalLoadNanos, long waitCount, long totalWaitNanos,
+                     long[] loadLatencyHistogram)
+    {
+        this.proxiedClass = proxiedClass;
+        this.loaderName = loaderName;
+        this.interceptedCallCount = interceptedCallCount;
+        this.skippedLoadCount = skippedLoadCount;
+        this.loadCount = loadCount;
+        this.failureCount = failureCount;
+        this.totalLoadNanos = totalLoadNanos;
+        this.waitCount = waitCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.loadLatencyHistogram = loadLatencyHistogram;
+    }
+
+    public Class<?> getProxiedClass() {
+        return proxiedClass;
+    }
+
+    /**
+     * @return The name of the loader, or null if these are the statistics of all of the class's loaders together
+     */
+    public String getLoaderName() {
+        return loaderName;
+    }
+
+    /**
+     * @return The number of intercepted calls that needed the loader
+     */
+    public long getInterceptedCallCount() {
+        return interceptedCallCount;
+    }
+
+    /**
+     * @return The number of intercepted calls that didn't need to invoke the loader, because it was already loaded
+     */
+    public long getSkippedLoadCount() {
+        return skippedLoadCount;
+    }
+
+    /**
+     * @return The number of times the loader was invoked successfully, including in the background
+     */
+    public long getLoadCount() {
+        return loadCount;
+    }
+
+    /**
+     * @return The number of times the loader threw
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * @return The total time spent invoking the loader, whether it succeeded or failed
+     */
+    public long getTotalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    /**
+     * @return The number of times a thread waited for another thread to finish invoking the loader
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * @return The total time threads spent waiting for other threads to finish invoking the loader
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /**
+     * @return The number of invocations of the loader (successful or not) that took each power of two nanoseconds:
+     * element 0 counts those that took less than 2ns, and every other element i counts those that took at least 2^i
+     * but less than 2^(i+1) nanoseconds
+     */
+    public long[] getLoadLatencyHistogram() {
+        return loadLatencyHistogram.clone();
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return An upper bound (accurate to within a factor of two) on the time within which the given percentage of
+     * invocations of the loader finished, or 0 if it hasn't been invoked
+     */
+    public long getLoadLatencyPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100, but was " + percentile);
+        }
+        long invocations = 0;
+        for (long count : loadLatencyHistogram) {
+            invocations += count;
+        }
+        long target = (long) Math.ceil(invocations * percentile / 100);
+        long seen = 0;
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            seen += loadLatencyHistogram[bucket];
+            if (seen > 0 && seen >= target) {
+                return bucket == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : (2L << bucket) - 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return The statistics of this loader and the other together, attributed to neither loader in particular
+     */
+    LoaderStatistics plus(LoaderStatistics other) {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            histogram[bucket] = loadLatencyHistogram[bucket] + other.loadLatencyHistogram[bucket];
+        }
+        return new LoaderStatistics(proxiedClass, null,
+                interceptedCallCount + other.interceptedCallCount,
+                skippedLoadCount + other.skippedLoadCount,
+                loadCount + other.loadCount,
+                failureCount + other.failureCount,
+                totalLoadNanos + other.totalLoadNanos,
+                waitCount + other.waitCount,
+                totalWaitNanos + other.totalWaitNanos,
+                histogram);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoaderStatistics{class=%s, loader=%s, interceptedCalls=%d, skippedLoads=%d, loads=%d, " +
+                        "failures=%d, totalLoadNanos=%d, waits=%d, totalWaitNanos=%d, loadLatencyHistogram=%s}",
+                proxiedClass.getName(), loaderName, interceptedCallCount, skippedLoadCount, loadCount, failureCount,
+                totalLoadNanos, waitCount, totalWaitNanos, Arrays.toString(loadLatencyHistogram));
+    }
+}
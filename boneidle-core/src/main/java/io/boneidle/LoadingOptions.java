@@ -0,0 +1,70 @@
+package io.boneidle;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The options of a {@link LazyFactory} that affect how the proxies it creates invoke their loaders.
+ */
+final class LoadingOptions {
+    /**
+     * Executor on which loaders marked with {@link LazyLoadWith#prefetch()} are started when a proxy is created
+     */
+    final Executor prefetchExecutor;
+
+    /**
+     * Executor on which independent loader dependencies are invoked in parallel, and loaders are refreshed
+     */
+    final Executor loaderExecutor;
+
+    /**
+     * Source of time for loader expiry and refresh
+     */
+    final Ticker ticker;
+
+    /**
+     * Tracker of the loaded state of unloadable loaders
+     */
+    final UnloadingTracker unloadingTracker;
+
+    /**
+     * Receiver of measurements of loading, or null if loading isn't measured
+     */
+    final LoaderMetricsSink metricsSink;
+
+    /**
+     * Whether proxies hold the proxied object's state themselves, rather than delegating to the original object
+     */
+    final boolean inPlace;
+
+    /**
+     * Cache of the interceptors of proxies of entities, shared by proxies of the same entity, or null if they aren't
+     * shared
+     */
+    final EntityCache entityCache;
+
+    /**
+     * Proxier of the objects returned by lazily loaded methods, or null if they're returned as they are
+     */
+    final ObjectGraphProxier objectGraphProxier;
+
+    /**
+     * Codecs for snapshotting proxies' loaded state, and the state from which to restore them, or null if proxies
+     * aren't snapshotted
+     */
+    final Snapshot snapshot;
+
+    LoadingOptions(Executor prefetchExecutor, Executor loaderExecutor, Ticker ticker,
+                   UnloadingTracker unloadingTracker, LoaderMetricsSink metricsSink, boolean inPlace,
+                   EntityCache entityCache, ObjectGraphProxier objectGraphProxier, Snapshot snapshot)
+    {
+        this.prefetchExecutor = prefetchExecutor;
+        this.loaderExecutor = loaderExecutor;
+        this.ticker = ticker;
+        this.unloadingTracker = unloadingTracker;
+        this.metricsSink = metricsSink;
+        this.inPlace = inPlace;
+        this.entityCache = entityCache;
+        this.objectGraphProxier = objectGraphProxier;
+        this.snapshot = snapshot;
+    }
+}
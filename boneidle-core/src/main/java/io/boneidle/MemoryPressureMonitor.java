@@ -0,0 +1,110 @@
+package io.boneidle;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Asks every registered {@link UnloadingTracker} to unload some of its state when the heap is under pressure.
+ *
+ * Pressure is detected with the JVM's memory pool notifications: each heap pool that supports it (usually just the
+ * old generation) is given a collection usage threshold of {@link #PRESSURE_THRESHOLD} of its maximum size, and the
+ * JVM notifies the memory MXBean's listeners when a garbage collection leaves a pool's usage above its threshold. So
+ * only data that's still live after a collection counts, unlike soft references, which HotSpot clears once they
+ * haven't been read for a while, whatever the pressure. A pool that already has a threshold, set by the application,
+ * keeps it.
+ *
+ * Nothing is installed until the first tracker registers, which only happens for factories that ask to unload under
+ * memory pressure, so the pools' thresholds are left alone otherwise. Then a listener is added, which hands each
+ * notification to a single daemon thread, which relieves the trackers, so that unloaders don't hold up the JVM's
+ * notification thread. Notifications arriving while the trackers are being relieved are coalesced.
+ */
+final class MemoryPressureMonitor {
+    /**
+     * The fraction of a heap pool's maximum size that it must still be using after a garbage collection to be under
+     * pressure
+     */
+    static final double PRESSURE_THRESHOLD = 0.8;
+
+    private static final List<WeakReference<UnloadingTracker>> trackers =
+            new CopyOnWriteArrayList<WeakReference<UnloadingTracker>>();
+
+    private MemoryPressureMonitor() {}
+
+    private static final BlockingQueue<Object> pressureNotifications = new ArrayBlockingQueue<Object>(1);
+    private static boolean started = false;
+
+    static void register(UnloadingTracker tracker) {
+        trackers.add(new WeakReference<UnloadingTracker>(tracker));
+        ensureStarted();
+    }
+
+    /**
+     * Relieves every registered tracker, as if the heap were under pressure
+     */
+    static void relieveMemoryPressure() {
+        for (WeakReference<UnloadingTracker> reference : trackers) {
+            UnloadingTracker tracker = reference.get();
+            if (tracker == null) {
+                trackers.remove(reference);
+            } else {
+                tracker.relieveMemoryPressure();
+            }
+        }
+    }
+
+    /**
+     * Starts the monitor thread, sets the pools' thresholds and starts listening for notifications, unless that's
+     * already been done
+     */
+    private static synchronized void ensureStarted() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        pressureNotifications.take();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    relieveMemoryPressure();
+                }
+            }
+        }, "boneidle-memory-pressure-monitor");
+        thread.setDaemon(true);
+        thread.start();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage() == null ? -1 : pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0
+                    && pool.getCollectionUsageThreshold() == 0)
+            {
+                pool.setCollectionUsageThreshold((long) (max * PRESSURE_THRESHOLD));
+            }
+        }
+        NotificationEmitter emitter = (NotificationEmitter) ManagementFactory.getMemoryMXBean();
+        emitter.addNotificationListener(new NotificationListener() {
+            @Override
+            public void handleNotification(Notification notification, Object handback) {
+                if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                    // Dropped if the trackers are about to be relieved anyway
+                    pressureNotifications.offer(notification);
+                }
+            }
+        }, null, null);
+    }
+}
@@ -0,0 +1,164 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Invokes loader methods and delegates intercepted methods through method handles, bound and adapted to a fixed
+ * erased type once per method so that each call is a single {@code invokeExact}, with no access checks and no
+ * reflective argument handling.
+ *
+ * Methods that cannot be turned into method handles are bound with a fallback strategy instead.
+ *
+ * Used by factories built with {@link LazyFactory.Builder#methodHandleInvocation(boolean)}.
+ */
+final class MethodHandleInvocationStrategy implements InvocationStrategy {
+    private static final MethodType LOADER_TYPE = MethodType.methodType(void.class, Object.class);
+    private static final MethodType BATCH_LOADER_TYPE = MethodType.methodType(void.class, List.class);
+    private static final MethodType FIELD_GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType PREDICATE_TYPE = MethodType.methodType(boolean.class, Object.class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final InvocationStrategy fallback;
+
+    MethodHandleInvocationStrategy() {
+        this(new ReflectiveInvocationStrategy());
+    }
+
+    MethodHandleInvocationStrategy(InvocationStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public LoaderInvoker bindLoader(Method loaderMethod) {
+        final MethodHandle handle;
+        try {
+            handle = unreflect(loaderMethod).asType(LOADER_TYPE);
+        } catch (IllegalAccessException e) {
+            return fallback.bindLoader(loaderMethod);
+        }
+
+        return new LoaderInvoker() {
+            @Override
+            public void invoke(Object original) throws Throwable {
+                handle.invokeExact(original);
+            }
+        };
+    }
+
+    @Override
+    public BatchLoaderInvoker bindBatchLoader(Method batchLoaderMethod) {
+        final MethodHandle handle;
+        try {
+            handle = unreflect(batchLoaderMethod).asType(BATCH_LOADER_TYPE);
+        } catch (IllegalAccessException e) {
+            return fallback.bindBatchLoader(batchLoaderMethod);
+        }
+
+        return new BatchLoaderInvoker() {
+            @Override
+            public void invoke(List<?> originals) throws Throwable {
+                handle.invokeExact(originals);
+            }
+        };
+    }
+
+    @Override
+    public LoaderInvoker bindFieldSupplier(Method supplierMethod, Field field) {
+        final MethodHandle handle;
+        try {
+            field.setAccessible(true);
+            MethodHandle supplier = unreflect(supplierMethod).asType(
+                    MethodType.methodType(field.getType(), field.getDeclaringClass()));
+            MethodHandle setter = lookup.unreflectSetter(field);
+            // (original, value) -> void, reordered to (value, original) -> void so the supplier's result can be
+            // folded in as the first argument, giving original -> void
+            MethodHandle valueFirstSetter = MethodHandles.permuteArguments(setter,
+                    MethodType.methodType(void.class, field.getType(), field.getDeclaringClass()), 1, 0);
+            handle = MethodHandles.foldArguments(valueFirstSetter, supplier).asType(LOADER_TYPE);
+        } catch (IllegalAccessException e) {
+            return fallback.bindFieldSupplier(supplierMethod, field);
+        } catch (SecurityException e) {
+            return fallback.bindFieldSupplier(supplierMethod, field);
+        }
+
+        return new LoaderInvoker() {
+            @Override
+            public void invoke(Object original) throws Throwable {
+                handle.invokeExact(original);
+            }
+        };
+    }
+
+    @Override
+    public DelegateInvoker bindDelegate(Method method) {
+        final MethodHandle handle;
+        try {
+            MethodHandle unreflected = unreflect(method);
+            handle = unreflected
+                    .asType(unreflected.type().generic())
+                    .asSpreader(Object[].class, method.getParameterTypes().length);
+        } catch (IllegalAccessException e) {
+            return fallback.bindDelegate(method);
+        }
+
+        return new DelegateInvoker() {
+            @Override
+            public Object invoke(Object original, Object[] args, MethodProxy methodProxy) throws Throwable {
+                return (Object) handle.invokeExact(original, args);
+            }
+        };
+    }
+
+    @Override
+    public CheckInvoker bindFieldSetCheck(Field field) {
+        final MethodHandle handle;
+        try {
+            field.setAccessible(true);
+            handle = lookup.unreflectGetter(field).asType(FIELD_GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            return fallback.bindFieldSetCheck(field);
+        } catch (SecurityException e) {
+            return fallback.bindFieldSetCheck(field);
+        }
+
+        return new CheckInvoker() {
+            @Override
+            public boolean invoke(Object original) throws Throwable {
+                return (Object) handle.invokeExact(original) != null;
+            }
+        };
+    }
+
+    @Override
+    public CheckInvoker bindPredicate(Method predicateMethod) {
+        final MethodHandle handle;
+        try {
+            handle = unreflect(predicateMethod).asType(PREDICATE_TYPE);
+        } catch (IllegalAccessException e) {
+            return fallback.bindPredicate(predicateMethod);
+        }
+
+        return new CheckInvoker() {
+            @Override
+            public boolean invoke(Object original) throws Throwable {
+                return (boolean) handle.invokeExact(original);
+            }
+        };
+    }
+
+    private MethodHandle unreflect(Method method) throws IllegalAccessException {
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException e) {
+            throw new IllegalAccessException(e.getMessage());
+        }
+        return lookup.unreflect(method);
+    }
+}
@@ -0,0 +1,353 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.Factory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Proxies the objects returned by proxies' lazily loaded methods, when they're of a class that uses boneidle's
+ * annotations, so that lazy loading extends through an object graph without callers having to proxy each object
+ * themselves (see {@link LazyFactory.Builder#proxyReturnedObjects(boolean)}).
+ *
+ * Returned Lists, Sets and Maps (when the method's declared return type allows) are wrapped in views that proxy their
+ * elements (or, for Maps, their values) as they're read, rather than all at once. Changes made through a view are made
+ * to the underlying collection, and elements added through it are stored as they are. As an element's proxy must be
+ * of the element's own class, collections nested in a collection are returned as they are.
+ *
+ * Each proxy remembers what each of its lazily loaded methods last returned, and the proxy or view it was given, so
+ * repeated calls returning the same object return the same proxy; each view likewise remembers its elements' proxies.
+ * A view forgets the proxies of elements that are no longer in its collection (whether they were removed through the
+ * view or not) whenever it remembers more proxies than twice the collection's size, so it never retains more than
+ * that, and removed elements can be collected.
+ */
+final class ObjectGraphProxier {
+    /**
+     * Whether objects of each class are proxied: whether it, or any of its superclasses, uses {@link LazyLoadWith},
+     * {@link LoadPagesWith} or {@link LazyField}, and can be proxied
+     */
+    private final ClassValue<Boolean> lazyClasses = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> c) {
+            return isLazy(c);
+        }
+    };
+
+    private volatile LazyFactory factory;
+
+    /**
+     * Sets the factory with which returned objects are proxied. Must be called before any proxy using this proxier is
+     * created.
+     */
+    void setFactory(LazyFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @return The proxy (or view) of what the given lazily loaded method returned, reusing the one given for the same
+     * object last time, if any
+     */
+    Object proxyReturned(ReturnedProxies returnedProxies, int lazyMethodIndex, Method method, Object returned) {
+        // Most returned objects need no proxy, so don't need remembering either
+        if (returned == null || !(returned instanceof Collection || returned instanceof Map
+                || lazyClasses.get(returned.getClass())))
+        {
+            return returned;
+        }
+        return returnedProxies.get(lazyMethodIndex, returned, method.getReturnType(), this);
+    }
+
+    /**
+     * @return A proxy or view of the given object if it needs one, and can be assigned to the given type, or else the
+     * object itself
+     */
+    private Object proxy(Object object, Class<?> type) {
+        if (object instanceof List && type.isAssignableFrom(ProxyingList.class)) {
+            return proxyList((List<?>) object);
+        }
+        if (object instanceof Set && type.isAssignableFrom(ProxyingSet.class)) {
+            return proxySet((Set<?>) object);
+        }
+        if (object instanceof Map && type.isAssignableFrom(ProxyingMap.class)) {
+            return proxyMap((Map<?, ?>) object);
+        }
+        // Only proxies that subclass the object's class can be returned in its place
+        Class<?> c = object.getClass();
+        return lazyClasses.get(c) && factory.getProxyEngine(c) == ProxyEngine.CGLIB
+                ? factory.createProxy(object)
+                : object;
+    }
+
+    private <E> List<E> proxyList(List<E> list) {
+        return new ProxyingList<E>(this, list);
+    }
+
+    private <E> Set<E> proxySet(Set<E> set) {
+        return new ProxyingSet<E>(this, set);
+    }
+
+    private <K, V> Map<K, V> proxyMap(Map<K, V> map) {
+        return new ProxyingMap<K, V>(this, map);
+    }
+
+    private static boolean isLazy(Class<?> c) {
+        int modifiers = c.getModifiers();
+        if (Modifier.isFinal(modifiers) || c.isArray() || c.isPrimitive() || c.isEnum() || c.isAnonymousClass()
+                || Factory.class.isAssignableFrom(c) || c.getName().endsWith(GeneratedProxyClass.SUFFIX))
+        {
+            return false;
+        }
+        for (Class<?> superclass = c; superclass != null && superclass != Object.class;
+             superclass = superclass.getSuperclass())
+        {
+            if (superclass.isAnnotationPresent(LazyLoadWith.class)) {
+                return true;
+            }
+            for (Method method : superclass.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(LazyLoadWith.class) || method.isAnnotationPresent(LoadPagesWith.class)) {
+                    return true;
+                }
+            }
+            for (Field field : superclass.getDeclaredFields()) {
+                if (field.isAnnotationPresent(LazyField.class)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * What each of a proxy's lazily loaded methods last returned, and the proxy (or view) it was given
+     */
+    static final class ReturnedProxies {
+        private final Object[] returned;
+        private final Object[] proxies;
+
+        ReturnedProxies(int lazyMethodCount) {
+            this.returned = new Object[lazyMethodCount];
+            this.proxies = new Object[lazyMethodCount];
+        }
+
+        synchronized Object get(int lazyMethodIndex, Object object, Class<?> type, ObjectGraphProxier proxier) {
+            if (returned[lazyMethodIndex] != object) {
+                returned[lazyMethodIndex] = object;
+                proxies[lazyMethodIndex] = proxier.proxy(object, type);
+            }
+            return proxies[lazyMethodIndex];
+        }
+    }
+
+    /**
+     * The proxies of a collection's elements, by identity
+     */
+    private static final class ElementProxies<E> {
+        private final ObjectGraphProxier proxier;
+        private final Collection<E> elements;
+        private final Map<E, E> proxies = new IdentityHashMap<E, E>();
+
+        ElementProxies(ObjectGraphProxier proxier, Collection<E> elements) {
+            this.proxier = proxier;
+            this.elements = elements;
+        }
+
+        synchronized E get(E element) {
+            if (element == null) {
+                return null;
+            }
+            E proxy = proxies.get(element);
+            if (proxy == null) {
+                // Only pruned once stale proxies may outnumber the elements, so each get costs amortised constant time
+                if (proxies.size() > 2 * elements.size()) {
+                    forgetRemovedElements();
+                }
+                // Bounded by the element's own class, so the proxy is an E (and nested collections aren't viewed)
+                @SuppressWarnings("unchecked")
+                E newProxy = (E) proxier.proxy(element, element.getClass());
+                proxy = newProxy;
+                proxies.put(element, proxy);
+            }
+            return proxy;
+        }
+
+        private void forgetRemovedElements() {
+            Set<Object> remaining = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+            remaining.addAll(elements);
+            proxies.keySet().retainAll(remaining);
+        }
+    }
+
+    private static final class ProxyingList<E> extends AbstractList<E> {
+        private final List<E> list;
+        private final ElementProxies<E> elementProxies;
+
+        ProxyingList(ObjectGraphProxier proxier, List<E> list) {
+            this.list = list;
+            this.elementProxies = new ElementProxies<E>(proxier, list);
+        }
+
+        @Override
+        public E get(int index) {
+            return elementProxies.get(list.get(index));
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            return elementProxies.get(list.set(index, element));
+        }
+
+        @Override
+        public void add(int index, E element) {
+            list.add(index, element);
+        }
+
+        @Override
+        public E remove(int index) {
+            return elementProxies.get(list.remove(index));
+        }
+    }
+
+    private static final class ProxyingSet<E> extends AbstractSet<E> {
+        private final Set<E> set;
+        private final ElementProxies<E> elementProxies;
+
+        ProxyingSet(ObjectGraphProxier proxier, Set<E> set) {
+            this.set = set;
+            this.elementProxies = new ElementProxies<E>(proxier, set);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            final Iterator<E> iterator = set.iterator();
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return elementProxies.get(iterator.next());
+                }
+
+                @Override
+                public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return set.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return set.contains(o);
+        }
+
+        @Override
+        public boolean add(E element) {
+            return set.add(element);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return set.remove(o);
+        }
+    }
+
+    /**
+     * Proxies a Map's values; its keys are left alone, so that lookups work as usual
+     */
+    private static final class ProxyingMap<K, V> extends AbstractMap<K, V> {
+        private final Map<K, V> map;
+        private final ElementProxies<V> valueProxies;
+
+        ProxyingMap(ObjectGraphProxier proxier, Map<K, V> map) {
+            this.map = map;
+            this.valueProxies = new ElementProxies<V>(proxier, map.values());
+        }
+
+        @Override
+        public V get(Object key) {
+            return valueProxies.get(map.get(key));
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return valueProxies.get(map.put(key, value));
+        }
+
+        @Override
+        public V remove(Object key) {
+            return valueProxies.get(map.remove(key));
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    final Iterator<Entry<K, V>> iterator = map.entrySet().iterator();
+                    return new Iterator<Entry<K, V>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            final Entry<K, V> entry = iterator.next();
+                            V value = valueProxies.get(entry.getValue());
+                            return new SimpleEntry<K, V>(entry.getKey(), value) {
+                                @Override
+                                public V setValue(V value) {
+                                    super.setValue(value);
+                                    return valueProxies.get(entry.setValue(value));
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            iterator.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return map.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.Dispatcher;
+
+/**
+ * CGLIB dispatcher that forwards calls straight to the original object, for methods that are never lazily loaded
+ */
+final class OriginalDispatcher implements Dispatcher {
+    private final Object original;
+
+    OriginalDispatcher(Object original) {
+        this.original = original;
+    }
+
+    @Override
+    public Object loadObject() {
+        return original;
+    }
+}
@@ -0,0 +1,254 @@
+package io.boneidle;
+
+import io.boneidle.LazyLoadingMetadata.PageLoader;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A read-only list returned by a proxy's method annotated with {@link LoadPagesWith}, which loads its elements a page
+ * at a time with the original's page loader, as they're read.
+ *
+ * Pages are kept in a least-recently-read cache of bounded size. A page is loaded by the first thread that needs it
+ * (or in the background, if it's prefetched), outside the list's lock, and any other thread needing it meanwhile
+ * waits for that load rather than starting another. A failed load isn't cached, so the next read tries again.
+ *
+ * The list's size is unknown until it's needed, when it's found with the size method, if there is one, or else by
+ * loading pages until one isn't full. Iterating over the list doesn't need its size, so only loads the pages read.
+ * Other reads of a page that isn't full record the size too, but only if the page isn't empty, or the page before it
+ * is known to be full, as reading past the end of the list loads empty pages that could be anywhere after it.
+ */
+final class PagedList<E> extends AbstractList<E> {
+    private static final int UNKNOWN_SIZE = -1;
+
+    private final PageLoader pageLoader;
+    private final Object original;
+    private final Executor prefetchExecutor;
+    /**
+     * Loaded pages, by page index, least recently read first
+     */
+    private final Map<Integer, List<E>> pages;
+    /**
+     * Loads of pages under way, by page index
+     */
+    private final Map<Integer, FutureTask<List<E>>> pageLoads = new HashMap<Integer, FutureTask<List<E>>>();
+    private volatile int size = UNKNOWN_SIZE;
+    /**
+     * The index of the last page loaded that was full, and so of the last page known to come before the end of the
+     * list, or -1 if none has been
+     */
+    private int lastFullPageIndex = -1;
+
+    PagedList(PageLoader pageLoader, Object original, Executor prefetchExecutor) {
+        this.pageLoader = pageLoader;
+        this.original = original;
+        this.prefetchExecutor = prefetchExecutor;
+        final int maxCachedPages = pageLoader.maxCachedPages;
+        this.pages = new LinkedHashMap<Integer, List<E>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<E>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        List<E> page = getPage(index / pageLoader.pageSize);
+        int indexInPage = index % pageLoader.pageSize;
+        if (indexInPage >= page.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        return page.get(indexInPage);
+    }
+
+    @Override
+    public int size() {
+        int size = this.size;
+        if (size != UNKNOWN_SIZE) {
+            return size;
+        }
+        if (pageLoader.sizeMethod != null) {
+            try {
+                size = pageLoader.loadSize(original);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+            this.size = size;
+            return size;
+        }
+        // Every page before the first that isn't full is full
+        for (int pageIndex = 0; this.size == UNKNOWN_SIZE; pageIndex++) {
+            List<E> page = getPage(pageIndex);
+            if (page.size() < pageLoader.pageSize) {
+                this.size = pageIndex * pageLoader.pageSize + page.size();
+            }
+        }
+        return this.size;
+    }
+
+    /**
+     * @return An iterator that loads each page when it reaches it, and stops at the first page that isn't full,
+     * without needing the list's size
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int pageIndex = 0;
+            private int indexInPage = 0;
+            private List<E> page = null;
+
+            @Override
+            public boolean hasNext() {
+                if (page == null) {
+                    page = getPage(pageIndex);
+                }
+                if (indexInPage < page.size()) {
+                    return true;
+                }
+                if (page.size() < pageLoader.pageSize) {
+                    return false;
+                }
+                pageIndex++;
+                indexInPage = 0;
+                page = null;
+                return hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(indexInPage++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private List<E> getPage(int pageIndex) {
+        FutureTask<List<E>> pageLoad;
+        boolean loadingHere = false;
+        synchronized (this) {
+            List<E> page = pages.get(pageIndex);
+            if (page != null) {
+                return page;
+            }
+            pageLoad = pageLoads.get(pageIndex);
+            if (pageLoad == null) {
+                pageLoad = newPageLoad(pageIndex);
+                pageLoads.put(pageIndex, pageLoad);
+                loadingHere = true;
+            }
+        }
+
+        if (loadingHere) {
+            pageLoad.run();
+        }
+        List<E> page;
+        try {
+            page = pageLoad.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a page to load", e);
+        }
+
+        if (loadingHere && pageLoader.prefetchNextPage && page.size() == pageLoader.pageSize) {
+            prefetchPage(pageIndex + 1);
+        }
+        return page;
+    }
+
+    private FutureTask<List<E>> newPageLoad(final int pageIndex) {
+        return new FutureTask<List<E>>(new Callable<List<E>>() {
+            @Override
+            public List<E> call() throws Exception {
+                List<E> page = null;
+                try {
+                    // The page loader returns the same type of list as the method it loads pages for
+                    @SuppressWarnings("unchecked")
+                    List<E> loaded = (List<E>) pageLoader.loadPage(original, pageIndex * pageLoader.pageSize);
+                    page = loaded;
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw rethrow(t);
+                } finally {
+                    finishPageLoad(pageIndex, page);
+                }
+                return page;
+            }
+        });
+    }
+
+    /**
+     * Caches a loaded page (or, if page is null, forgets a failed load), and records the list's size if the page
+     * is the last one
+     */
+    private synchronized void finishPageLoad(int pageIndex, List<E> page) {
+        pageLoads.remove(pageIndex);
+        if (page == null) {
+            return;
+        }
+        pages.put(pageIndex, page);
+        if (page.size() == pageLoader.pageSize) {
+            lastFullPageIndex = Math.max(lastFullPageIndex, pageIndex);
+        } else if (size == UNKNOWN_SIZE && (!page.isEmpty() || lastFullPageIndex == pageIndex - 1)) {
+            size = pageIndex * pageLoader.pageSize + page.size();
+        }
+    }
+
+    private void prefetchPage(final int pageIndex) {
+        synchronized (this) {
+            if (pages.containsKey(pageIndex) || pageLoads.containsKey(pageIndex)) {
+                return;
+            }
+        }
+        try {
+            prefetchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        getPage(pageIndex);
+                    } catch (RuntimeException e) {
+                        // The next read of the page tries again
+                    } catch (Error e) {
+                        // As above
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The page is loaded when it's read instead
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        throw new UndeclaredThrowableException(t);
+    }
+}
@@ -0,0 +1,73 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateObjectToProxyRuntimeException;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A proxy class for a particular proxied class, prepared once by a {@link ProxyEngine} and then used to create a
+ * lazy-loading proxy for each original object of that class.
+ */
+public abstract class ProxyClass {
+    /**
+     * The class being proxied, or null for classes generated at compile time, which don't use one
+     */
+    private final LazyClass lazyClass;
+
+    protected ProxyClass(LazyClass lazyClass) {
+        if (lazyClass == null) {
+            throw new IllegalArgumentException("lazyClass must not be null");
+        }
+        this.lazyClass = lazyClass;
+    }
+
+    ProxyClass() {
+        this.lazyClass = null;
+    }
+
+    /**
+     * Creates a proxy of the given original, which is of this proxy class's proxied class. Each proxy should hand
+     * its calls to a handler of its own, created with {@link LazyClass#newHandler(Object)}.
+     */
+    public abstract <T> T newProxy(T original);
+
+    /**
+     * Creates a proxy of a new instance of the given class, which must be this proxy class's proxied class, created
+     * with its no-arg constructor
+     */
+    <T> T newProxy(Class<T> originalClass) {
+        try {
+            Constructor<T> constructor = originalClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            T original = constructor.newInstance();
+            return newProxy(original);
+        } catch (ReflectiveOperationException e) {
+            throw CannotCreateObjectToProxyRuntimeException.create(originalClass, e);
+        }
+    }
+
+    /**
+     * Invalidates the loaded state of every proxy created with this proxy class (see
+     * {@link LazyFactory#invalidateProxies(Class)})
+     *
+     * @param refresh Whether proxies refresh their loaded state in the background, rather than reloading it on the
+     * next call that needs it
+     */
+    void invalidateProxies(boolean refresh) {
+        lazyClass.getMetadata().getInvalidations().invalidate(refresh);
+    }
+
+    /**
+     * Creates a proxy for each of the given originals, all of which are of this proxy class's proxied class. Proxy
+     * classes that support batch loading override this so that the proxies share their batch loads.
+     */
+    <T> List<T> newProxies(List<T> originals) {
+        List<T> proxies = new ArrayList<T>(originals.size());
+        for (T original : originals) {
+            proxies.add(newProxy(original));
+        }
+        return proxies;
+    }
+}
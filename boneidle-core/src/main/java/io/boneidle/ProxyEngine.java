@@ -0,0 +1,82 @@
+package io.boneidle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * A way of creating lazy-loading proxy classes, chosen per factory and optionally per proxied class (see
+ * {@link LazyFactory.Builder#proxyEngine(ProxyEngine)}).
+ *
+ * Besides the engines here, an engine can be written for other ways of creating proxy classes (e.g. hidden classes,
+ * on JVMs that have them), by extending this class. For each class it's asked to proxy, an engine creates a
+ * {@link ProxyClass}, which creates a proxy of each original object. Each proxy has its own {@link LazyHandler},
+ * created by the {@link LazyClass} the engine was given, to which the proxy hands every call.
+ */
+public abstract class ProxyEngine {
+    /**
+     * The engines of every factory that's been built, so that any factory's proxies can be found
+     */
+    private static final Set<ProxyEngine> engines = Collections.newSetFromMap(new WeakHashMap<ProxyEngine, Boolean>());
+
+    /**
+     * Generates a subclass of each proxied class with CGLIB (or uses the one generated at compile time by
+     * boneidle-processor, if there is one and the factory's options allow), so proxies can be used wherever the
+     * proxied class can. Final classes, and classes with no constructor visible to a subclass, can't be proxied.
+     *
+     * Generated classes, and their instantiators, aren't cached by CGLIB or Objenesis, so nothing but the factory and
+     * its proxies refers to them, and they can be garbage collected along with the class loader of the class they
+     * proxy.
+     */
+    public static final ProxyEngine CGLIB = new CglibProxyEngine();
+
+    /**
+     * Creates a {@link java.lang.reflect.Proxy} implementing every interface of each proxied class, so proxies must
+     * be used through those interfaces. Classes can be final, and no classes are generated beyond the JDK's own, but
+     * only lazily loaded methods declared by an interface are lazily loaded, and each call is dispatched reflectively.
+     *
+     * Proxies always delegate to their original, even if the factory creates in-place proxies, and batch loaders are
+     * invoked once per proxy.
+     */
+    public static final ProxyEngine INTERFACES = new InterfaceProxyEngine();
+
+    protected ProxyEngine() {}
+
+    /**
+     * Creates a proxy class for the given class. Called once per class by each factory using this engine for it.
+     *
+     * @throws io.boneidle.exception.CannotCreateLazyProxyRuntimeException if the engine can't proxy the class
+     */
+    public abstract ProxyClass createProxyClass(LazyClass lazyClass);
+
+    /**
+     * @return The handler of the given object, if it's a proxy created by this engine, or else null
+     */
+    public abstract LazyHandler findHandler(Object proxy);
+
+    /**
+     * Records that a factory uses the given engine, so that its proxies can be found by {@link #findAnyHandler}
+     */
+    static synchronized void register(ProxyEngine engine) {
+        engines.add(engine);
+    }
+
+    /**
+     * @return The handler of the given object, if it's a proxy created by the engine of any factory, or else null
+     */
+    static LazyHandler findAnyHandler(Object proxy) {
+        List<ProxyEngine> registered;
+        synchronized (ProxyEngine.class) {
+            registered = new ArrayList<ProxyEngine>(engines);
+        }
+        for (ProxyEngine engine : registered) {
+            LazyHandler handler = engine.findHandler(proxy);
+            if (handler != null) {
+                return handler;
+            }
+        }
+        return null;
+    }
+}
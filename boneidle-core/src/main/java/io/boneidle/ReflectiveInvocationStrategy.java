@@ -0,0 +1,102 @@
+package io.boneidle;
+
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Invokes loader methods by reflection, and delegates intercepted methods through CGLIB's {@link MethodProxy}.
+ *
+ * This is the default strategy: CGLIB's generated fast-class delegation outperforms method handles that (being
+ * looked up per class at runtime) can't be treated as constants by the JIT. See InvocationStrategyBenchmark.
+ */
+final class ReflectiveInvocationStrategy implements InvocationStrategy {
+    private static final DelegateInvoker METHOD_PROXY_DELEGATE = new DelegateInvoker() {
+        @Override
+        public Object invoke(Object original, Object[] args, MethodProxy methodProxy) throws Throwable {
+            return methodProxy.invoke(original, args);
+        }
+    };
+
+    @Override
+    public LoaderInvoker bindLoader(final Method loaderMethod) {
+        loaderMethod.setAccessible(true);
+        return new LoaderInvoker() {
+            @Override
+            public void invoke(Object original) throws Throwable {
+                try {
+                    loaderMethod.invoke(original);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+    }
+
+    @Override
+    public BatchLoaderInvoker bindBatchLoader(final Method batchLoaderMethod) {
+        batchLoaderMethod.setAccessible(true);
+        return new BatchLoaderInvoker() {
+            @Override
+            public void invoke(List<?> originals) throws Throwable {
+                try {
+                    batchLoaderMethod.invoke(null, originals);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+    }
+
+    @Override
+    public LoaderInvoker bindFieldSupplier(final Method supplierMethod, final Field field) {
+        supplierMethod.setAccessible(true);
+        field.setAccessible(true);
+        return new LoaderInvoker() {
+            @Override
+            public void invoke(Object original) throws Throwable {
+                Object value;
+                try {
+                    value = supplierMethod.invoke(original);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                field.set(original, value);
+            }
+        };
+    }
+
+    @Override
+    public DelegateInvoker bindDelegate(Method method) {
+        return METHOD_PROXY_DELEGATE;
+    }
+
+    @Override
+    public CheckInvoker bindFieldSetCheck(final Field field) {
+        field.setAccessible(true);
+        return new CheckInvoker() {
+            @Override
+            public boolean invoke(Object original) throws Throwable {
+                return field.get(original) != null;
+            }
+        };
+    }
+
+    @Override
+    public CheckInvoker bindPredicate(final Method predicateMethod) {
+        predicateMethod.setAccessible(true);
+        return new CheckInvoker() {
+            @Override
+            public boolean invoke(Object original) throws Throwable {
+                try {
+                    return (Boolean) predicateMethod.invoke(original);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,290 @@
+package io.boneidle;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A factory's snapshot codecs, and the loaded state of entities read from a snapshot file when the factory was built,
+ * with which proxies of those entities are restored as they're created (see
+ * {@link LazyFactory.Builder#restoreSnapshot(Path, long)}).
+ *
+ * A snapshot file is memory-mapped, and indexed by class name and entity key (in its string form) when it's read;
+ * each entity's encoded state is left in the mapped file until a proxy of the entity is created, when it's decoded
+ * from there directly. Each entity is restored at most once, by its first proxy, so that state restored after a
+ * restart isn't restored again long afterwards.
+ *
+ * The file holds a header (a magic number, format version, the time the snapshot was written, and the number of
+ * entities), and then for each entity: its class name, its entity key, the identifiers of the loaders that had been
+ * invoked (see {@link LazyLoadingMetadata.Loader}), and its encoded state. Strings are UTF-8, preceded by their
+ * length in bytes, and the state is preceded by its length.
+ */
+final class Snapshot {
+    private static final int MAGIC = 0x424f4e45;
+    private static final int VERSION = 2;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<Class<?>, SnapshotCodec<?>> codecs;
+    /**
+     * The entities that haven't yet been restored, or null if there's no snapshot to restore from
+     */
+    private final Map<Key, Entity> entities;
+    private final long ageNanos;
+    private final boolean stale;
+
+    private Snapshot(Map<Class<?>, SnapshotCodec<?>> codecs, Map<Key, Entity> entities, long ageNanos,
+                     boolean stale)
+    {
+        this.codecs = codecs;
+        this.entities = entities;
+        this.ageNanos = ageNanos;
+        this.stale = stale;
+    }
+
+    /**
+     * @param codecs The codecs of the classes whose proxies are snapshotted
+     * @param file The snapshot file from which to restore proxies, or null if they aren't restored
+     * @param maxAgeMillis The age beyond which restored loaders are stale
+     * @return A snapshot, with no entities to restore if the file doesn't exist or can't be read, in which case
+     * proxies start out unloaded, as usual
+     */
+    static Snapshot create(Map<Class<?>, SnapshotCodec<?>> codecs, Path file, long maxAgeMillis) {
+        if (file == null) {
+            return new Snapshot(codecs, null, 0, false);
+        }
+
+        ByteBuffer buffer;
+        try {
+            buffer = map(file);
+        } catch (IOException e) {
+            return new Snapshot(codecs, null, 0, false);
+        }
+        if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return new Snapshot(codecs, null, 0, false);
+        }
+        long ageMillis = Math.max(System.currentTimeMillis() - buffer.getLong(), 0);
+        Map<Key, Entity> entities;
+        try {
+            entities = readEntities(buffer);
+        } catch (RuntimeException e) {
+            // Truncated or corrupt
+            return new Snapshot(codecs, null, 0, false);
+        }
+        return new Snapshot(codecs, entities, TimeUnit.MILLISECONDS.toNanos(ageMillis), ageMillis > maxAgeMillis);
+    }
+
+    /**
+     * Restores the loaded state of the given interceptor's original, and marks its loaders as loaded, if its entity
+     * is in the snapshot and hasn't been restored yet. Must be called before the interceptor's proxy is returned.
+     */
+    <T> void restore(LazyLoadingMetadata metadata, LazyLoadWithMethodInterceptor<T> interceptor) {
+        if (entities == null || entities.isEmpty() || !metadata.hasEntityKey()) {
+            return;
+        }
+        // Codecs are registered for the class they encode, which is the original's
+        @SuppressWarnings("unchecked")
+        SnapshotCodec<T> codec = (SnapshotCodec<T>) codecs.get(metadata.getProxiedClass());
+        if (codec == null) {
+            return;
+        }
+        Object entityKey = metadata.getEntityKey(interceptor.getOriginal());
+        if (entityKey == null) {
+            return;
+        }
+        Entity entity = entities.remove(new Key(metadata.getProxiedClass().getName(), entityKey.toString()));
+        if (entity == null) {
+            return;
+        }
+
+        try {
+            codec.decode(interceptor.getOriginal(), entity.state.asReadOnlyBuffer());
+        } catch (RuntimeException e) {
+            // The proxy starts out unloaded instead
+            return;
+        }
+        for (String loaderId : entity.loaderIds) {
+            int loaderIndex = metadata.findLoaderIndexById(loaderId);
+            if (loaderIndex != LazyLoadingMetadata.NO_LOADER) {
+                interceptor.restoreLoaded(loaderIndex, ageNanos, stale);
+            }
+        }
+    }
+
+    /**
+     * Writes the loaded state of the originals of the given interceptors, of classes that have codecs and entity keys,
+     * to the given file, replacing it once the snapshot is complete
+     */
+    void write(Path file, Collection<LazyLoadWithMethodInterceptor<?>> interceptors) throws IOException {
+        List<byte[]> records = new ArrayList<byte[]>();
+        for (LazyLoadWithMethodInterceptor<?> interceptor : interceptors) {
+            byte[] record = encode(interceptor);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            OutputStream fileOut = Files.newOutputStream(tempFile);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(records.size());
+                for (byte[] record : records) {
+                    out.write(record);
+                }
+            } finally {
+                out.close();
+            }
+            move(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * @return The encoded record of the interceptor's entity, or null if it isn't snapshotted
+     */
+    private <T> byte[] encode(LazyLoadWithMethodInterceptor<T> interceptor) throws IOException {
+        LazyLoadingMetadata metadata = interceptor.getMetadata();
+        if (!metadata.hasEntityKey()) {
+            return null;
+        }
+        // Codecs are registered for the class they encode, which is the original's
+        @SuppressWarnings("unchecked")
+        SnapshotCodec<T> codec = (SnapshotCodec<T>) codecs.get(metadata.getProxiedClass());
+        Object entityKey = metadata.getEntityKey(interceptor.getOriginal());
+        if (codec == null || entityKey == null) {
+            return null;
+        }
+
+        // Loaders are recorded before the state is encoded, so they've loaded at least what the state holds
+        List<String> loaderIds = new ArrayList<String>();
+        for (int loaderIndex = 0; loaderIndex < metadata.getLoaderCount(); loaderIndex++) {
+            if (interceptor.hasLoaded(loaderIndex)) {
+                loaderIds.add(metadata.getLoader(loaderIndex).id);
+            }
+        }
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        codec.encode(interceptor.getOriginal(), new DataOutputStream(state));
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(record);
+        writeString(out, metadata.getProxiedClass().getName());
+        writeString(out, entityKey.toString());
+        out.writeInt(loaderIds.size());
+        for (String loaderId : loaderIds) {
+            writeString(out, loaderId);
+        }
+        out.writeInt(state.size());
+        state.writeTo(out);
+        return record.toByteArray();
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            // The mapping stays valid once the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static Map<Key, Entity> readEntities(ByteBuffer buffer) {
+        int entityCount = buffer.getInt();
+        Map<Key, Entity> entities = new ConcurrentHashMap<Key, Entity>();
+        for (int i = 0; i < entityCount; i++) {
+            String className = readString(buffer);
+            String entityKey = readString(buffer);
+            String[] loaderIds = new String[buffer.getInt()];
+            for (int j = 0; j < loaderIds.length; j++) {
+                loaderIds[j] = readString(buffer);
+            }
+            int stateLength = buffer.getInt();
+            ByteBuffer state = buffer.slice();
+            // Cast, so that compiling with JDK 9+ doesn't link to ByteBuffer's covariant overrides, missing on 8
+            ((Buffer) state).limit(stateLength);
+            ((Buffer) buffer).position(buffer.position() + stateLength);
+            entities.put(new Key(className, entityKey), new Entity(loaderIds, state));
+        }
+        return entities;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The loaders an entity had invoked, and its encoded state, in the mapped file
+     */
+    private static final class Entity {
+        final String[] loaderIds;
+        final ByteBuffer state;
+
+        Entity(String[] loaderIds, ByteBuffer state) {
+            this.loaderIds = loaderIds;
+            this.state = state;
+        }
+    }
+
+    private static final class Key {
+        private final String className;
+        private final String entityKey;
+
+        Key(String className, String entityKey) {
+            this.className = className;
+            this.entityKey = entityKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return className.equals(other.className) && entityKey.equals(other.entityKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * className.hashCode() + entityKey.hashCode();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.boneidle;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the loaded state of objects of a class into a snapshot, and decodes it into new objects of the class when
+ * they're proxied after a restart (see {@link LazyFactory.Builder#snapshotCodec(Class, SnapshotCodec)}).
+ *
+ * @param <T> The class whose objects' state is encoded
+ */
+public interface SnapshotCodec<T> {
+    /**
+     * Writes the data loaded into the given object by its loaders. Only loaders that had been invoked are marked as
+     * loaded when the state is restored, so the codec can write whatever it finds, including data that isn't loaded.
+     */
+    void encode(T original, DataOutput out) throws IOException;
+
+    /**
+     * Sets the state of the given object, which is about to be proxied, from what {@link #encode} wrote for an object
+     * with the same entity key. The buffer is a read-only view of the snapshot file, which is memory-mapped, so
+     * reading it copies nothing more than the codec does.
+     */
+    void decode(T original, ByteBuffer state);
+}
@@ -0,0 +1,24 @@
+package io.boneidle;
+
+/**
+ * A source of time, used to decide whether loaders with an expiry or refresh period need invoking again. Only the
+ * differences between readings matter, so a ticker needn't be related to wall-clock time.
+ *
+ * @see LazyFactory.Builder#ticker(Ticker)
+ */
+public interface Ticker {
+    /**
+     * Reads {@link System#nanoTime()}
+     */
+    Ticker SYSTEM = new Ticker() {
+        @Override
+        public long read() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return The number of nanoseconds elapsed since some fixed but arbitrary point in time
+     */
+    long read();
+}
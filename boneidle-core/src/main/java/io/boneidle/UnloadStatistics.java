@@ -0,0 +1,52 @@
+package io.boneidle;
+
+/**
+ * A snapshot of the state tracked for unloading by a {@link LazyFactory}, and of how much has been unloaded. Only
+ * loaders with an unloader (see {@link LazyLoadWith#unloadWith()}) are tracked.
+ */
+public final class UnloadStatistics {
+    private final int trackedCount;
+    private final long budgetUnloadCount;
+    private final long memoryPressureUnloadCount;
+
+    UnloadStatistics(int trackedCount, long budgetUnloadCount, long memoryPressureUnloadCount) {
+        this.trackedCount = trackedCount;
+        this.budgetUnloadCount = budgetUnloadCount;
+        this.memoryPressureUnloadCount = memoryPressureUnloadCount;
+    }
+
+    /**
+     * @return The number of loaded entries (one per proxy per loader) currently tracked. This may include a few entries
+     * that have since been unloaded, reloaded or garbage collected, which are discarded when next considered.
+     */
+    public int getTrackedCount() {
+        return trackedCount;
+    }
+
+    /**
+     * @return The number of entries unloaded because the factory's maximum number of loaded entries was exceeded
+     */
+    public long getBudgetUnloadCount() {
+        return budgetUnloadCount;
+    }
+
+    /**
+     * @return The number of entries unloaded because the heap was under pressure
+     */
+    public long getMemoryPressureUnloadCount() {
+        return memoryPressureUnloadCount;
+    }
+
+    /**
+     * @return The total number of entries unloaded
+     */
+    public long getUnloadCount() {
+        return budgetUnloadCount + memoryPressureUnloadCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UnloadStatistics{tracked=%d, budgetUnloads=%d, memoryPressureUnloads=%d}",
+                trackedCount, budgetUnloadCount, memoryPressureUnloadCount);
+    }
+}
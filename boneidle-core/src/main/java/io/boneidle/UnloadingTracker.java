@@ -0,0 +1,106 @@
+package io.boneidle;
+
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the loaded state of every unloadable loader (see {@link LazyLoadWith#unloadWith()}) of every proxy created by
+ * a factory, and unloads the least recently used when there are more than the factory's budget allows, or when the
+ * heap is under pressure (see {@link MemoryPressureMonitor}).
+ *
+ * Recency is approximated with the "second chance" algorithm: entries are queued in the order they were loaded, and
+ * each has a flag set whenever a proxy uses it, so that using loaded state costs a single plain write. When unloading,
+ * entries at the head of the queue whose flag is set are cleared and requeued instead of being unloaded.
+ *
+ * Entries refer to proxies' interceptors weakly, so tracking loaded state doesn't stop proxies being garbage collected.
+ * Entries for collected proxies, or for state that has since been unloaded or reloaded, are discarded when they reach
+ * the head of the queue.
+ */
+final class UnloadingTracker {
+    private final int maxEntries;
+    private final boolean unloadUnderMemoryPressure;
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<Entry>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong budgetUnloadCount = new AtomicLong();
+    private final AtomicLong memoryPressureUnloadCount = new AtomicLong();
+    private final AtomicBoolean registeredForMemoryPressure = new AtomicBoolean();
+
+    UnloadingTracker(int maxEntries, boolean unloadUnderMemoryPressure) {
+        this.maxEntries = maxEntries;
+        this.unloadUnderMemoryPressure = unloadUnderMemoryPressure;
+    }
+
+    /**
+     * Starts tracking newly loaded state. The caller must call {@link #enforceBudget()} once it no longer holds any
+     * interceptor's monitor.
+     */
+    Entry track(LazyLoadWithMethodInterceptor<?> interceptor, int loaderIndex) {
+        if (unloadUnderMemoryPressure && registeredForMemoryPressure.compareAndSet(false, true)) {
+            MemoryPressureMonitor.register(this);
+        }
+
+        Entry entry = new Entry(interceptor, loaderIndex);
+        entries.add(entry);
+        size.incrementAndGet();
+        return entry;
+    }
+
+    void enforceBudget() {
+        if (size.get() > maxEntries) {
+            unloadDownTo(maxEntries, budgetUnloadCount);
+        }
+    }
+
+    /**
+     * Unloads half of the tracked state
+     */
+    void relieveMemoryPressure() {
+        unloadDownTo(size.get() / 2, memoryPressureUnloadCount);
+    }
+
+    private void unloadDownTo(int targetSize, AtomicLong unloadCount) {
+        // Every entry gets at most one second chance
+        int remainingAttempts = 2 * size.get();
+        while (size.get() > targetSize && remainingAttempts-- > 0) {
+            Entry entry = entries.poll();
+            if (entry == null) {
+                return;
+            }
+
+            LazyLoadWithMethodInterceptor<?> interceptor = entry.get();
+            if (interceptor != null && entry.used) {
+                entry.used = false;
+                entries.add(entry);
+                continue;
+            }
+
+            size.decrementAndGet();
+            if (interceptor != null && interceptor.unload(entry)) {
+                unloadCount.incrementAndGet();
+            }
+        }
+    }
+
+    UnloadStatistics getStatistics() {
+        return new UnloadStatistics(size.get(), budgetUnloadCount.get(), memoryPressureUnloadCount.get());
+    }
+
+    static final class Entry extends WeakReference<LazyLoadWithMethodInterceptor<?>> {
+        final int loaderIndex;
+
+        /**
+         * Set whenever the state is used; deliberately not volatile, as missing the odd use is harmless. New entries
+         * start used, so they aren't unloaded before they've had a chance to be.
+         */
+        boolean used = true;
+
+        private Entry(LazyLoadWithMethodInterceptor<?> interceptor, int loaderIndex) {
+            super(interceptor);
+            this.loaderIndex = loaderIndex;
+        }
+    }
+}
@@ -6,7 +6,11 @@ public class CannotCreateLazyProxyRuntimeException extends LazyLoadingMisconfigu
     }
 
     public static CannotCreateLazyProxyRuntimeException create(Object original, Throwable cause) {
-        String className = original.getClass().getCanonicalName();
+        return create(original.getClass(), cause);
+    }
+
+    public static CannotCreateLazyProxyRuntimeException create(Class<?> originalClass, Throwable cause) {
+        String className = originalClass.getCanonicalName();
         String msg = String.format("Could not create a lazy-loading proxy for class %s", className);
         return new CannotCreateLazyProxyRuntimeException(msg, cause);
     }
@@ -7,9 +7,37 @@ public class CannotInvokeLazyLoaderRuntimeException extends LazyLoadingMisconfig
 
     public static CannotInvokeLazyLoaderRuntimeException create(String loaderMethodName, Throwable cause) {
         String msg = String.format(
-                "Cannot use the specified lazy loader method '%s'. Ensure it exists and takes no parameters.",
+                "Cannot use the specified lazy loader method '%s'. Ensure it exists and takes no parameters " +
+                        "(or, for a batch loader, is static and takes a single List).",
                 loaderMethodName
         );
         return new CannotInvokeLazyLoaderRuntimeException(msg, cause);
     }
+
+    public static CannotInvokeLazyLoaderRuntimeException createForUnloader(String unloaderMethodName) {
+        String msg = String.format(
+                "Cannot use the specified unloader method '%s'. Ensure it exists, is not static and takes no " +
+                        "parameters.",
+                unloaderMethodName
+        );
+        return new CannotInvokeLazyLoaderRuntimeException(msg, null);
+    }
+
+    public static CannotInvokeLazyLoaderRuntimeException createForBackingField(String methodName) {
+        String msg = String.format(
+                "Cannot tell whether method '%s' is loaded from the field backing it. Ensure it is a bean getter " +
+                        "(getX() or isX()) of a field x that is not primitive.",
+                methodName
+        );
+        return new CannotInvokeLazyLoaderRuntimeException(msg, null);
+    }
+
+    public static CannotInvokeLazyLoaderRuntimeException createForLoadedIf(String predicateMethodName) {
+        String msg = String.format(
+                "Cannot use the specified loaded-if method '%s'. Ensure it exists, is not static, takes no " +
+                        "parameters and returns a boolean.",
+                predicateMethodName
+        );
+        return new CannotInvokeLazyLoaderRuntimeException(msg, null);
+    }
 }
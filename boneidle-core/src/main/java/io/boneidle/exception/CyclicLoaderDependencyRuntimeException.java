@@ -0,0 +1,18 @@
+package io.boneidle.exception;
+
+import java.util.List;
+
+public class CyclicLoaderDependencyRuntimeException extends LazyLoadingMisconfigurationRuntimeException {
+    private CyclicLoaderDependencyRuntimeException(String message) {
+        super(message, null);
+    }
+
+    public static CyclicLoaderDependencyRuntimeException create(List<String> cycle) {
+        StringBuilder path = new StringBuilder();
+        for (String loaderMethodName : cycle) {
+            path.append(path.length() == 0 ? "" : " -> ").append(loaderMethodName);
+        }
+        String msg = String.format("Lazy loader methods cannot depend on themselves, but found the cycle %s", path);
+        return new CyclicLoaderDependencyRuntimeException(msg);
+    }
+}
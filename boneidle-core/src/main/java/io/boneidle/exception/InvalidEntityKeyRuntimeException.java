@@ -0,0 +1,26 @@
+package io.boneidle.exception;
+
+public class InvalidEntityKeyRuntimeException extends LazyLoadingMisconfigurationRuntimeException {
+    private InvalidEntityKeyRuntimeException(String message) {
+        super(message, null);
+    }
+
+    public static InvalidEntityKeyRuntimeException createForKeyMethod(String methodName) {
+        String msg = String.format(
+                "Cannot use the method '%s' as an entity key. Ensure it is not static, takes no parameters and " +
+                        "returns a value.",
+                methodName
+        );
+        return new InvalidEntityKeyRuntimeException(msg);
+    }
+
+    public static InvalidEntityKeyRuntimeException createForSeveralKeyMethods(String methodName,
+                                                                              String otherMethodName)
+    {
+        String msg = String.format(
+                "Both '%s' and '%s' are annotated with @EntityKey. Ensure a class has at most one entity key method.",
+                methodName, otherMethodName
+        );
+        return new InvalidEntityKeyRuntimeException(msg);
+    }
+}
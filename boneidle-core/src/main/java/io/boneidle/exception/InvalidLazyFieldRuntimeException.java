@@ -0,0 +1,31 @@
+package io.boneidle.exception;
+
+public class InvalidLazyFieldRuntimeException extends LazyLoadingMisconfigurationRuntimeException {
+    private InvalidLazyFieldRuntimeException(String message) {
+        super(message, null);
+    }
+
+    public static InvalidLazyFieldRuntimeException createForUnknownField(String fieldName, String methodName) {
+        String msg = String.format(
+                "Method '%s' reads the lazy field '%s', but there is no such field. Ensure it exists and is " +
+                        "annotated with @LazyField.",
+                methodName, fieldName
+        );
+        return new InvalidLazyFieldRuntimeException(msg);
+    }
+
+    public static InvalidLazyFieldRuntimeException createForUnassignableField(String fieldName) {
+        String msg = String.format("Cannot lazily initialise the field '%s'. Ensure it is neither static nor final.",
+                fieldName);
+        return new InvalidLazyFieldRuntimeException(msg);
+    }
+
+    public static InvalidLazyFieldRuntimeException createForSupplier(String supplierMethodName, String fieldName) {
+        String msg = String.format(
+                "Cannot use the specified supplier method '%s' for the lazy field '%s'. Ensure it exists, is not " +
+                        "static, takes no parameters and returns a value that can be assigned to the field.",
+                supplierMethodName, fieldName
+        );
+        return new InvalidLazyFieldRuntimeException(msg);
+    }
+}
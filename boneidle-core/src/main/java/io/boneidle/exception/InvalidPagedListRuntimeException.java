@@ -0,0 +1,35 @@
+package io.boneidle.exception;
+
+public class InvalidPagedListRuntimeException extends LazyLoadingMisconfigurationRuntimeException {
+    private InvalidPagedListRuntimeException(String message) {
+        super(message, null);
+    }
+
+    public static InvalidPagedListRuntimeException createForMethod(String methodName) {
+        String msg = String.format(
+                "Cannot return a paged list from method '%s'. Ensure it takes no parameters, returns List, " +
+                        "Collection or Iterable, and has a page size and maximum number of cached pages of at " +
+                        "least 1.",
+                methodName
+        );
+        return new InvalidPagedListRuntimeException(msg);
+    }
+
+    public static InvalidPagedListRuntimeException createForPageLoader(String pageLoaderName, String methodName) {
+        String msg = String.format(
+                "Cannot use the specified page loader '%s' for method '%s'. Ensure it exists, is not static, takes " +
+                        "two int parameters (offset and limit) and returns a List.",
+                pageLoaderName, methodName
+        );
+        return new InvalidPagedListRuntimeException(msg);
+    }
+
+    public static InvalidPagedListRuntimeException createForSizeMethod(String sizeMethodName, String methodName) {
+        String msg = String.format(
+                "Cannot use the specified size method '%s' for method '%s'. Ensure it exists, is not static, takes " +
+                        "no parameters and returns an int.",
+                sizeMethodName, methodName
+        );
+        return new InvalidPagedListRuntimeException(msg);
+    }
+}
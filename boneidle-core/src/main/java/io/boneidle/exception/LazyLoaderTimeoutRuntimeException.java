@@ -0,0 +1,17 @@
+package io.boneidle.exception;
+
+/**
+ * Thrown by a call to a proxy that waited longer than its loader's timeout for the loader to finish. Unlike the other
+ * exceptions thrown by proxies, this isn't a misconfiguration, and the call may succeed if tried again.
+ */
+public class LazyLoaderTimeoutRuntimeException extends RuntimeException {
+    private LazyLoaderTimeoutRuntimeException(String message) {
+        super(message);
+    }
+
+    public static LazyLoaderTimeoutRuntimeException create(String loaderMethodName, long timeoutMillis) {
+        String msg = String.format("The lazy loader method '%s' did not finish within its timeout of %d ms",
+                loaderMethodName, timeoutMillis);
+        return new LazyLoaderTimeoutRuntimeException(msg);
+    }
+}
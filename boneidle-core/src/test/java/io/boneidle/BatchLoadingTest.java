@@ -0,0 +1,182 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchLoadingTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    @Before
+    public void setUp() {
+        BatchLoadedClass.batches.clear();
+        BatchLoadedClass.failNextBatch = false;
+    }
+
+    @Test
+    public void proxiesCreatedTogetherAreBatchLoadedInOneCall() {
+        // given
+        List<BatchLoadedClass> originals = createOriginals(3);
+        List<BatchLoadedClass> proxies = LazyFactory.proxyAll(originals);
+
+        // when
+        for (BatchLoadedClass proxy : proxies) {
+            proxy.getName();
+        }
+
+        // then
+        assertThat(BatchLoadedClass.batches).hasSize(1);
+        assertThat(BatchLoadedClass.batches.get(0)).containsOnly(originals.get(0), originals.get(1), originals.get(2));
+        for (BatchLoadedClass proxy : proxies) {
+            assertThat(proxy.getName()).isEqualTo(BatchLoadedClass.LOADED_NAME);
+        }
+    }
+
+    @Test
+    public void batchIsInvokedWithRequestingOriginalFirst() {
+        // given
+        List<BatchLoadedClass> originals = createOriginals(3);
+        List<BatchLoadedClass> proxies = LazyFactory.proxyAll(originals);
+
+        // when
+        proxies.get(1).getName();
+
+        // then
+        assertThat(BatchLoadedClass.batches.get(0))
+                .containsExactly(originals.get(1), originals.get(0), originals.get(2));
+    }
+
+    @Test
+    public void alreadyLoadedOriginalsAreNotBatchLoadedAgain() {
+        // given
+        List<BatchLoadedClass> proxies = LazyFactory.proxyAll(createOriginals(2));
+        proxies.get(0).getName();
+
+        // when
+        proxies.get(1).getName();
+
+        // then
+        assertThat(BatchLoadedClass.batches).hasSize(1);
+    }
+
+    @Test
+    public void individuallyCreatedProxiesAreBatchLoadedAlone() {
+        // given
+        BatchLoadedClass original = new BatchLoadedClass();
+        BatchLoadedClass proxy = LazyFactory.proxy(original);
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo(BatchLoadedClass.LOADED_NAME);
+        assertThat(BatchLoadedClass.batches).hasSize(1);
+        assertThat(BatchLoadedClass.batches.get(0)).containsExactly(original);
+    }
+
+    @Test
+    public void proxiesAreReturnedInOrderAcrossClasses() {
+        // given
+        BatchLoadedClass first = new BatchLoadedClass();
+        SimpleClass second = new SimpleClass();
+        BatchLoadedClass third = new BatchLoadedClass();
+
+        // when
+        List<Object> proxies = LazyFactory.proxyAll(Arrays.<Object>asList(first, second, third));
+        ((BatchLoadedClass) proxies.get(0)).getName();
+
+        // then
+        assertThat(proxies).hasSize(3);
+        assertThat(proxies.get(0)).isInstanceOf(BatchLoadedClass.class);
+        assertThat(proxies.get(1)).isInstanceOf(SimpleClass.class);
+        assertThat(proxies.get(2)).isInstanceOf(BatchLoadedClass.class);
+        assertThat(BatchLoadedClass.batches.get(0)).containsExactly(first, third);
+    }
+
+    @Test
+    public void failedBatchIsRetriedOnNextCall() {
+        // given
+        List<BatchLoadedClass> proxies = LazyFactory.proxyAll(createOriginals(2));
+        BatchLoadedClass.failNextBatch = true;
+        try {
+            proxies.get(0).getName();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // when
+        String name = proxies.get(1).getName();
+
+        // then
+        assertThat(name).isEqualTo(BatchLoadedClass.LOADED_NAME);
+        assertThat(BatchLoadedClass.batches).hasSize(2);
+        assertThat(BatchLoadedClass.batches.get(1)).hasSize(2);
+    }
+
+    @Test
+    public void batchLoaderExceptionIsThrownToCaller() {
+        // given
+        List<BatchLoadedClass> proxies = LazyFactory.proxyAll(createOriginals(1));
+        BatchLoadedClass.failNextBatch = true;
+
+        // then
+        expectedException.expect(IllegalStateException.class).hasMessage("batch failed");
+
+        // when
+        proxies.get(0).getName();
+    }
+
+    private List<BatchLoadedClass> createOriginals(int count) {
+        List<BatchLoadedClass> originals = new ArrayList<BatchLoadedClass>();
+        for (int i = 0; i < count; i++) {
+            originals.add(new BatchLoadedClass());
+        }
+        return originals;
+    }
+
+    private static class BatchLoadedClass {
+        public static final String LOADED_NAME = "This name was loaded in a batch";
+
+        private static final List<List<BatchLoadedClass>> batches =
+                Collections.synchronizedList(new ArrayList<List<BatchLoadedClass>>());
+        private static boolean failNextBatch = false;
+
+        private String name = null;
+
+        @LazyLoadWith("loadAll")
+        public String getName() {
+            return name;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private static void loadAll(List<BatchLoadedClass> originals) {
+            batches.add(new ArrayList<BatchLoadedClass>(originals));
+            if (failNextBatch) {
+                failNextBatch = false;
+                throw new IllegalStateException("batch failed");
+            }
+            for (BatchLoadedClass original : originals) {
+                original.name = LOADED_NAME;
+            }
+        }
+    }
+
+    private static class SimpleClass {
+        @LazyLoadWith("load")
+        public String getName() {
+            return null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {}
+    }
+}
@@ -0,0 +1,159 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentLazyLoadingTest {
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 10000;
+
+    private SlowLoadingClass original;
+    private SlowLoadingClass proxy;
+
+    @Before
+    public void setUp() {
+        // given
+        original = new SlowLoadingClass();
+        proxy = LazyFactory.proxy(original);
+    }
+
+    @Test
+    public void loaderIsInvokedExactlyOnceWhenManyThreadsCallLazyMethodsConcurrently() throws Exception {
+        // when
+        List<String> results = hammer(new Callable<String>() {
+            @Override
+            public String call() {
+                String value = proxy.getSlowString();
+                proxy.getOtherSlowString();
+                return value;
+            }
+        });
+
+        // then
+        assertThat(original.loadCount.get()).isEqualTo(1);
+        assertThat(results).containsOnly(SlowLoadingClass.LOADED_CONTENT);
+    }
+
+    @Test
+    public void independentLoadersAreEachInvokedExactlyOnceUnderContention() throws Exception {
+        // given
+        final AtomicInteger callCount = new AtomicInteger();
+
+        // when
+        hammer(new Callable<String>() {
+            @Override
+            public String call() {
+                return callCount.incrementAndGet() % 2 == 0 ? proxy.getSlowString() : proxy.getCountedString();
+            }
+        });
+
+        // then
+        assertThat(original.loadCount.get()).isEqualTo(1);
+        assertThat(original.otherLoadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void loaderIsInvokedAgainOnNextCallIfItThrows() {
+        // given
+        original.failNextLoad = true;
+        try {
+            proxy.getSlowString();
+        } catch (Exception e) {
+            // expected
+        }
+
+        // when
+        String value = proxy.getSlowString();
+
+        // then
+        assertThat(value).isEqualTo(SlowLoadingClass.LOADED_CONTENT);
+        assertThat(original.loadCount.get()).isEqualTo(1);
+    }
+
+    private <V> List<V> hammer(final Callable<V> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch startingGun = new CountDownLatch(1);
+            List<Future<V>> futures = new ArrayList<Future<V>>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(new Callable<V>() {
+                    @Override
+                    public V call() throws Exception {
+                        startingGun.await();
+                        V result = null;
+                        for (int j = 0; j < CALLS_PER_THREAD; j++) {
+                            result = task.call();
+                        }
+                        return result;
+                    }
+                }));
+            }
+            startingGun.countDown();
+
+            List<V> results = new ArrayList<V>();
+            for (Future<V> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class SlowLoadingClass {
+        public static final String LOADED_CONTENT = "This string was loaded slowly";
+
+        private final AtomicInteger loadCount = new AtomicInteger();
+        private final AtomicInteger otherLoadCount = new AtomicInteger();
+        private volatile boolean failNextLoad = false;
+
+        private String slowString = null;
+        private String otherSlowString = null;
+        private String countedString = null;
+
+        @LazyLoadWith("loadSlowStrings")
+        String getSlowString() {
+            return slowString;
+        }
+
+        @LazyLoadWith("loadSlowStrings")
+        String getOtherSlowString() {
+            return otherSlowString;
+        }
+
+        @LazyLoadWith("loadCountedString")
+        String getCountedString() {
+            return countedString;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadSlowStrings() throws InterruptedException {
+            if (failNextLoad) {
+                failNextLoad = false;
+                throw new IllegalStateException("Failing load");
+            }
+            loadCount.incrementAndGet();
+            Thread.sleep(50);
+            slowString = LOADED_CONTENT;
+            otherSlowString = LOADED_CONTENT;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadCountedString() throws InterruptedException {
+            otherLoadCount.incrementAndGet();
+            Thread.sleep(50);
+            countedString = LOADED_CONTENT;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package io.boneidle;
+
+import io.boneidle.exception.InvalidEntityKeyRuntimeException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntityCacheTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private AtomicInteger loadCount;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        loadCount = new AtomicInteger();
+        factory = LazyFactory.builder().maxSharedEntities(2).build();
+    }
+
+    @Test
+    public void proxiesOfTheSameEntityInvokeEachLoaderOnce() {
+        // given
+        Customer proxy = factory.createProxy(new Customer(1, loadCount));
+        Customer otherProxy = factory.createProxy(new Customer(1, loadCount));
+
+        // when
+        String name = proxy.getName();
+        String otherName = otherProxy.getName();
+
+        // then
+        assertThat(otherProxy).isNotSameAs(proxy);
+        assertThat(name).isEqualTo("Customer 1");
+        assertThat(otherName).isEqualTo("Customer 1");
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void proxiesOfDifferentEntitiesLoadIndependently() {
+        // given
+        Customer proxy = factory.createProxy(new Customer(1, loadCount));
+        Customer otherProxy = factory.createProxy(new Customer(2, loadCount));
+
+        // when
+        proxy.getName();
+        String otherName = otherProxy.getName();
+
+        // then
+        assertThat(otherName).isEqualTo("Customer 2");
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void proxiesWithNullKeysAreNotShared() {
+        // given
+        Customer proxy = factory.createProxy(new Customer(null, loadCount));
+        Customer otherProxy = factory.createProxy(new Customer(null, loadCount));
+
+        // when
+        proxy.getName();
+        otherProxy.getName();
+
+        // then
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void entitiesAreNotSharedByDefault() {
+        // given
+        LazyFactory defaultFactory = LazyFactory.builder().build();
+        Customer proxy = defaultFactory.createProxy(new Customer(1, loadCount));
+        Customer otherProxy = defaultFactory.createProxy(new Customer(1, loadCount));
+
+        // when
+        proxy.getName();
+        otherProxy.getName();
+
+        // then
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void leastRecentlyProxiedEntityIsForgottenWhenCacheIsFull() {
+        // given
+        factory.createProxy(new Customer(1, loadCount)).getName();
+        factory.createProxy(new Customer(2, loadCount)).getName();
+        factory.createProxy(new Customer(1, loadCount)).getName();
+
+        // when
+        factory.createProxy(new Customer(3, loadCount)).getName();
+        factory.createProxy(new Customer(1, loadCount)).getName();
+        factory.createProxy(new Customer(2, loadCount)).getName();
+
+        // then
+        assertThat(loadCount.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void concurrentCallsOnDifferentProxiesOfTheSameEntityShareOneLoad() throws Exception {
+        // given
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch loaderReleased = new CountDownLatch(1);
+        final BlockingCustomer proxy = factory.createProxy(
+                new BlockingCustomer(1, loadCount, loaderStarted, loaderReleased));
+        final BlockingCustomer otherProxy = factory.createProxy(
+                new BlockingCustomer(1, loadCount, loaderStarted, loaderReleased));
+        Thread loadingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                proxy.getName();
+            }
+        });
+        loadingThread.start();
+        loaderStarted.await();
+
+        // when
+        Thread waitingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                otherProxy.getName();
+            }
+        });
+        waitingThread.start();
+        while (waitingThread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        loaderReleased.countDown();
+        loadingThread.join();
+        waitingThread.join();
+
+        // then
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(otherProxy.getName()).isEqualTo("Customer 1");
+    }
+
+    @Test
+    public void proxiesCreatedTogetherShareWithEachOtherAndWithEarlierProxies() {
+        // given
+        factory.createProxy(new Customer(1, loadCount)).getName();
+
+        // when
+        List<Customer> proxies = factory.createProxies(Arrays.asList(
+                new Customer(1, loadCount), new Customer(2, loadCount), new Customer(2, loadCount)));
+        for (Customer proxy : proxies) {
+            proxy.getName();
+        }
+
+        // then
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void severalEntityKeysThrowHelpfulException() {
+        // expect
+        expectedException
+                .expect(InvalidEntityKeyRuntimeException.class)
+                .hasMessageContaining("getId")
+                .hasMessageContaining("getOtherId")
+                .hasMessageContaining("at most one");
+
+        // when
+        factory.createProxy(new SeveralKeysClass());
+    }
+
+    @Test
+    public void parameterisedEntityKeyThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(InvalidEntityKeyRuntimeException.class)
+                .hasMessageContaining("getId")
+                .hasMessageContaining("takes no parameters");
+
+        // when
+        factory.createProxy(new ParameterisedKeyClass());
+    }
+
+    @Test
+    public void sharingEntitiesOfInPlaceProxiesThrows() {
+        // expect
+        expectedException.expect(IllegalStateException.class);
+
+        // when
+        LazyFactory.builder().inPlaceProxies(true).maxSharedEntities(1).build();
+    }
+
+    private static class Customer {
+        private final Integer id;
+        private final AtomicInteger loadCount;
+        private String name;
+
+        Customer(Integer id, AtomicInteger loadCount) {
+            this.id = id;
+            this.loadCount = loadCount;
+        }
+
+        @EntityKey
+        private Integer getId() {
+            return id;
+        }
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        void load() {
+            loadCount.incrementAndGet();
+            name = "Customer " + id;
+        }
+    }
+
+    private static class BlockingCustomer extends Customer {
+        private final CountDownLatch loaderStarted;
+        private final CountDownLatch loaderReleased;
+
+        BlockingCustomer(Integer id, AtomicInteger loadCount, CountDownLatch loaderStarted,
+                         CountDownLatch loaderReleased)
+        {
+            super(id, loadCount);
+            this.loaderStarted = loaderStarted;
+            this.loaderReleased = loaderReleased;
+        }
+
+        @Override
+        void load() {
+            loaderStarted.countDown();
+            try {
+                loaderReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.load();
+        }
+    }
+
+    private static class SeveralKeysClass {
+        @EntityKey
+        public int getId() {
+            return 1;
+        }
+
+        @EntityKey
+        public int getOtherId() {
+            return 2;
+        }
+    }
+
+    private static class ParameterisedKeyClass {
+        @EntityKey
+        public int getId(int version) {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.boneidle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ticker that only moves when a test advances it, and counts how many times it's read
+ */
+class FakeTicker implements Ticker {
+    private long nanos = 0;
+    int reads = 0;
+
+    @Override
+    public long read() {
+        reads++;
+        return nanos;
+    }
+
+    void advance(long millis) {
+        nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
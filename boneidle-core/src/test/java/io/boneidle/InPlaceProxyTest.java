@@ -0,0 +1,189 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InPlaceProxyTest {
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = LazyFactory.builder().inPlaceProxies(true).build();
+    }
+
+    @Test
+    public void proxyStartsWithCopyOfOriginalsState() {
+        // given
+        InPlaceClass original = new InPlaceClass();
+        original.setLabel("label");
+
+        // when
+        InPlaceClass proxy = factory.createProxy(original);
+
+        // then
+        assertThat(proxy.getLabel()).isEqualTo("label");
+    }
+
+    @Test
+    public void loaderIsInvokedOnProxyItselfAndLeavesOriginalUntouched() {
+        // given
+        InPlaceClass original = new InPlaceClass();
+        InPlaceClass proxy = factory.createProxy(original);
+
+        // when
+        String name = proxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+        assertThat(original.getLoadCount()).isEqualTo(0);
+        assertThat(original.getName()).isNull();
+    }
+
+    @Test
+    public void methodsThatAreNotLazilyLoadedActOnProxysOwnState() {
+        // given
+        InPlaceClass original = new InPlaceClass();
+        InPlaceClass proxy = factory.createProxy(original);
+
+        // when
+        proxy.setLabel("changed");
+
+        // then
+        assertThat(proxy.getLabel()).isEqualTo("changed");
+        assertThat(original.getLabel()).isNull();
+    }
+
+    @Test
+    public void proxyingClassConstructsProxyDirectly() {
+        // when
+        ConstructedClass proxy = factory.createProxy(ConstructedClass.class);
+
+        // then
+        assertThat(proxy.getConstructorCount()).isEqualTo(1);
+        assertThat(proxy.getName()).isEqualTo("name");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void publicLoaderOfClassLevelAnnotationIsNotIntercepted() {
+        // given
+        ClassLevelClass proxy = factory.createProxy(new ClassLevelClass());
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name");
+        assertThat(proxy.loadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void batchLoaderIsGivenTheProxies() {
+        // given
+        List<BatchClass> proxies = factory.createProxies(Arrays.asList(new BatchClass(), new BatchClass()));
+
+        // when
+        proxies.get(0).getName();
+
+        // then
+        assertThat(BatchClass.lastBatch).containsExactly(proxies.get(0), proxies.get(1));
+        assertThat(proxies.get(1).getName()).isEqualTo("name");
+    }
+
+    private static class InPlaceClass {
+        private String name;
+        private String label;
+        private int loadCount = 0;
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        private void load() {
+            loadCount++;
+            name = "name";
+        }
+    }
+
+    static class ConstructedClass {
+        private final int constructorCount;
+        private String name;
+        private int loadCount = 0;
+
+        ConstructedClass() {
+            constructorCount = 1;
+        }
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        public int getConstructorCount() {
+            return constructorCount;
+        }
+
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        private void load() {
+            loadCount++;
+            name = "name";
+        }
+    }
+
+    @LazyLoadWith("load")
+    private static class ClassLevelClass {
+        private String name;
+        int loadCount = 0;
+
+        public String getName() {
+            return name;
+        }
+
+        public void load() {
+            loadCount++;
+            name = "name";
+        }
+    }
+
+    private static class BatchClass {
+        static List<BatchClass> lastBatch = null;
+
+        private String name;
+
+        @LazyLoadWith("loadAll")
+        public String getName() {
+            return name;
+        }
+
+        private static void loadAll(List<BatchClass> batch) {
+            lastBatch = new ArrayList<BatchClass>(batch);
+            for (BatchClass item : batch) {
+                item.name = "name";
+            }
+        }
+    }
+}
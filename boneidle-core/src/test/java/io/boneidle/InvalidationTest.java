@@ -0,0 +1,282 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvalidationTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private ManualExecutor executor;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        factory = LazyFactory.builder().loaderExecutor(executor).build();
+    }
+
+    @Test
+    public void invalidatedLoadersAreInvokedAgainByNextCall() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+        proxy.getSize();
+
+        // when
+        LazyFactory.invalidate(proxy);
+        String name = proxy.getName();
+        int size = proxy.getSize();
+
+        // then
+        assertThat(name).isEqualTo("name 2");
+        assertThat(size).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidatingOneLoaderLeavesTheOthersLoaded() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+        proxy.getSize();
+
+        // when
+        LazyFactory.invalidate(proxy, "loadName");
+        proxy.getName();
+        proxy.getSize();
+
+        // then
+        assertThat(proxy.getNameLoadCount()).isEqualTo(2);
+        assertThat(proxy.getSizeLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidatingLoaderThatHasNotBeenInvokedDoesNothing() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+
+        // when
+        LazyFactory.invalidate(proxy);
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void refreshedLoaderServesOldDataUntilBackgroundReloadFinishes() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+
+        // when
+        LazyFactory.refresh(proxy, "loadName");
+        String nameDuringRefresh = proxy.getName();
+        executor.runAll();
+        String nameAfterRefresh = proxy.getName();
+
+        // then
+        assertThat(nameDuringRefresh).isEqualTo("name 1");
+        assertThat(nameAfterRefresh).isEqualTo("name 2");
+        assertThat(proxy.getNameLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void refreshingRepeatedlyBeforeReloadRunsReloadsOnce() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+
+        // when
+        LazyFactory.refresh(proxy);
+        LazyFactory.refresh(proxy);
+        executor.runAll();
+
+        // then
+        assertThat(proxy.getNameLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void invalidatingClassInvalidatesEveryProxyOfItOnNextCall() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        VersionedClass otherProxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+        otherProxy.getName();
+
+        // when
+        factory.invalidateProxies(VersionedClass.class);
+        String name = proxy.getName();
+        String otherName = otherProxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name 2");
+        assertThat(otherName).isEqualTo("name 2");
+        assertThat(proxy.getNameLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void refreshingClassRefreshesEveryProxyOfItInBackground() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+
+        // when
+        factory.refreshProxies(VersionedClass.class);
+        String nameDuringRefresh = proxy.getName();
+        executor.runAll();
+        String nameAfterRefresh = proxy.getName();
+
+        // then
+        assertThat(nameDuringRefresh).isEqualTo("name 1");
+        assertThat(nameAfterRefresh).isEqualTo("name 2");
+    }
+
+    @Test
+    public void proxiesCreatedAfterClassIsInvalidatedAreUnaffected() {
+        // given
+        factory.invalidateProxies(VersionedClass.class);
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+
+        // when
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidatingClassOnlyAffectsProxiesFromTheSameFactory() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+        proxy.getName();
+
+        // when
+        LazyFactory.invalidateAll(VersionedClass.class);
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidatingSharedSupplierInvalidatesEveryLazyFieldUsingIt() {
+        // given
+        Account proxy = factory.createProxy(new Account());
+        proxy.getOwner();
+        proxy.getManager();
+
+        // when
+        LazyFactory.invalidate(proxy, "supplyPerson");
+        String owner = proxy.getOwner();
+        String manager = proxy.getManager();
+
+        // then
+        assertThat(owner).isEqualTo("person 3");
+        assertThat(manager).isEqualTo("person 4");
+    }
+
+    @Test
+    public void invalidatingLazyFieldByNameLeavesOtherFieldsSharingItsSupplierLoaded() {
+        // given
+        Account proxy = factory.createProxy(new Account());
+        proxy.getOwner();
+        proxy.getManager();
+
+        // when
+        LazyFactory.invalidate(proxy, "manager");
+        String owner = proxy.getOwner();
+        String manager = proxy.getManager();
+
+        // then
+        assertThat(owner).isEqualTo("person 1");
+        assertThat(manager).isEqualTo("person 3");
+    }
+
+    @Test
+    public void unknownLoaderNameThrows() {
+        // given
+        VersionedClass proxy = factory.createProxy(new VersionedClass());
+
+        // expect
+        expectedException
+                .expect(IllegalArgumentException.class)
+                .hasMessageContaining("loadMissing");
+
+        // when
+        LazyFactory.invalidate(proxy, "loadMissing");
+    }
+
+    @Test
+    public void invalidatingObjectThatIsNotProxyThrows() {
+        // expect
+        expectedException.expect(IllegalArgumentException.class);
+
+        // when
+        LazyFactory.invalidate(new VersionedClass());
+    }
+
+    private static class VersionedClass {
+        private int nameLoadCount = 0;
+        private int sizeLoadCount = 0;
+        private String name;
+        private int size;
+
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return name;
+        }
+
+        @LazyLoadWith("loadSize")
+        public int getSize() {
+            return size;
+        }
+
+        public int getNameLoadCount() {
+            return nameLoadCount;
+        }
+
+        public int getSizeLoadCount() {
+            return sizeLoadCount;
+        }
+
+        void loadName() {
+            nameLoadCount++;
+            name = "name " + nameLoadCount;
+        }
+
+        void loadSize() {
+            sizeLoadCount++;
+            size = sizeLoadCount;
+        }
+    }
+
+    private static class Account {
+        private int supplyCount = 0;
+
+        @LazyField("supplyPerson")
+        private String owner;
+
+        @LazyField("supplyPerson")
+        private String manager;
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getManager() {
+            return manager;
+        }
+
+        String supplyPerson() {
+            supplyCount++;
+            return "person " + supplyCount;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.boneidle;
 
 import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
 import io.boneidle.exception.CannotCreateObjectToProxyRuntimeException;
+import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -41,6 +42,14 @@ public class LazyFactoryTest {
         assertThat(unannotated).isEqualTo(original.unannotatedMethod());
     }
 
+    @Test
+    public void objectMethodsAreDispatchedToOriginal() {
+        // then
+        assertThat(proxy.hashCode()).isEqualTo(original.hashCode());
+        assertThat(proxy.toString()).isEqualTo(original.toString());
+        assertThat(original.lazyLoadStringCount).isEqualTo(0);
+    }
+
     @Test
     public void lazyLoadWithAnnotationCallsLoaderMethodBeforeInvokingOriginalMethod() {
         // when
@@ -92,6 +101,41 @@ public class LazyFactoryTest {
         assertThat(original.lazyLoadIntegerCount).isEqualTo(1);
     }
 
+    @Test
+    public void proxiesOfTheSameClassShareAGeneratedProxyClass() {
+        // when
+        MyClass otherProxy = LazyFactory.proxy(new MyClass());
+
+        // then
+        assertThat(otherProxy.getClass()).isSameAs(proxy.getClass());
+    }
+
+    @Test
+    public void proxiesOfTheSameClassEachDelegateToTheirOwnOriginal() {
+        // given
+        MyClass otherOriginal = new MyClass();
+        @SuppressWarnings("UnusedDeclaration") MyClass otherProxy = LazyFactory.proxy(otherOriginal);
+
+        // when
+        proxy.getLazyLoadedString();
+
+        // then
+        assertThat(original.lazyLoadStringCount).isEqualTo(1);
+        assertThat(otherOriginal.lazyLoadStringCount).isEqualTo(0);
+    }
+
+    @Test
+    public void exceptionsThrownByLoaderMethodsArePropagatedUnwrapped() {
+        // given
+        FailingLoaderClass failingProxy = LazyFactory.proxy(new FailingLoaderClass());
+
+        // expect
+        expectedException.expect(IllegalStateException.class).hasMessage("Loader failed");
+
+        // when
+        failingProxy.getFailingString();
+    }
+
     @Test
     public void proxiesForClassesWithNonTrivialConstructorsCanBeMade() {
         // given
@@ -134,6 +178,48 @@ public class LazyFactoryTest {
         LazyFactory.proxy(AwkwardConstructorClass.class);
     }
 
+    @Test
+    public void methodsOverridingGenericSuperclassMethodsAreLazilyLoaded() {
+        // given
+        GenericSubclass original = new GenericSubclass();
+        GenericSubclass proxy = LazyFactory.proxy(original);
+        GenericSuperclass<String> superclassProxy = proxy;
+
+        // when
+        String value = proxy.get();
+        String superclassValue = superclassProxy.get();
+
+        // then
+        assertThat(value).isEqualTo("loaded");
+        assertThat(superclassValue).isEqualTo("loaded");
+        assertThat(original.loadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void methodsOverridingGenericSuperclassMethodsWithParametersAreLazilyLoaded() {
+        // given
+        GenericSubclass original = new GenericSubclass();
+        GenericSuperclass<String> proxy = LazyFactory.proxy(original);
+
+        // when
+        boolean matches = proxy.matches("loaded");
+
+        // then
+        assertThat(matches).isTrue();
+        assertThat(original.loadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void makingProxiesForClassesWithMissingLoaderMethodsThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("missingLoader");
+
+        // when
+        LazyFactory.proxy(new MissingLoaderClass());
+    }
+
     private static class MyClass {
         public static final String LAZY_LOADED_STRING_CONTENT = "This string was loaded lazily";
         public static final Integer LAZY_LOADED_INTEGER_CONTENT = 123;
@@ -179,9 +265,55 @@ public class LazyFactoryTest {
         }
     }
 
+    private static class GenericSuperclass<T> {
+        public T get() {
+            return null;
+        }
+
+        public boolean matches(T value) {
+            return false;
+        }
+    }
+
+    private static class GenericSubclass extends GenericSuperclass<String> {
+        private String value = null;
+        private int loadCount = 0;
+
+        @Override
+        @LazyLoadWith("load")
+        public String get() {
+            return value;
+        }
+
+        @Override
+        @LazyLoadWith("load")
+        public boolean matches(String value) {
+            return value.equals(this.value);
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {
+            loadCount++;
+            value = "loaded";
+        }
+    }
+
     private static class AwkwardConstructorClass {
         private AwkwardConstructorClass(@SuppressWarnings("UnusedParameters") String dummy) {}
     }
 
     private static final class FinalClass {}
+
+    private static class FailingLoaderClass {
+        @LazyLoadWith("failingLoader") String getFailingString() { return null; }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void failingLoader() {
+            throw new IllegalStateException("Loader failed");
+        }
+    }
+
+    private static class MissingLoaderClass {
+        @LazyLoadWith("missingLoader") String getMissingLoaderString() { return null; }
+    }
 }
@@ -0,0 +1,382 @@
+package io.boneidle;
+
+import io.boneidle.exception.InvalidLazyFieldRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyFieldTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    @Test
+    public void getterInitialisesOnlyTheFieldItReads() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name");
+        assertThat(proxy.getSupplied()).containsExactly("name");
+    }
+
+    @Test
+    public void fieldIsOnlyInitialisedOnce() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+
+        // when
+        proxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getSupplied()).containsExactly("name");
+    }
+
+    @Test
+    public void booleanGetterInitialisesItsField() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+
+        // when
+        boolean active = proxy.isActive();
+
+        // then
+        assertThat(active).isTrue();
+        assertThat(proxy.getSupplied()).containsExactly("active");
+    }
+
+    @Test
+    public void methodAnnotatedWithReadsLazyFieldsInitialisesEachNamedField() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+
+        // when
+        String description = proxy.describe();
+
+        // then
+        assertThat(description).isEqualTo("name: 42");
+        assertThat(proxy.getSupplied()).containsExactly("name", "size");
+    }
+
+    @Test
+    public void fieldsAlreadyInitialisedByOneMethodAreNotInitialisedAgainByAnother() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+        proxy.getName();
+
+        // when
+        proxy.describe();
+
+        // then
+        assertThat(proxy.getSupplied()).containsExactly("name", "size");
+    }
+
+    @Test
+    public void methodLoaderIsInvokedBeforeFieldsAreInitialised() {
+        // given
+        FieldClass proxy = LazyFactory.proxy(new FieldClass());
+
+        // when
+        proxy.getSizeAfterLoading();
+
+        // then
+        assertThat(proxy.getSupplied()).containsExactly("loader", "size");
+    }
+
+    @Test
+    public void excludedGetterDoesNotInitialiseItsField() {
+        // given
+        ExcludedGetterClass proxy = LazyFactory.proxy(new ExcludedGetterClass());
+
+        // when
+        String value = proxy.getValue();
+
+        // then
+        assertThat(value).isNull();
+    }
+
+    @Test
+    public void readingUnknownLazyFieldThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(InvalidLazyFieldRuntimeException.class)
+                .hasMessageContaining("missing")
+                .hasMessageContaining("annotated with @LazyField");
+
+        // when
+        LazyFactory.proxy(new UnknownFieldClass());
+    }
+
+    @Test
+    public void finalLazyFieldThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(InvalidLazyFieldRuntimeException.class)
+                .hasMessageContaining("value")
+                .hasMessageContaining("neither static nor final");
+
+        // when
+        LazyFactory.proxy(new FinalFieldClass());
+    }
+
+    @Test
+    public void supplierOfWrongTypeThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(InvalidLazyFieldRuntimeException.class)
+                .hasMessageContaining("supplyValue")
+                .hasMessageContaining("can be assigned to the field");
+
+        // when
+        LazyFactory.proxy(new WrongSupplierTypeClass());
+    }
+
+    @Test
+    public void classesWithMoreThan32LazyFieldsInitialiseEachIndependently() {
+        // given
+        ManyFieldsClass proxy = LazyFactory.proxy(new ManyFieldsClass());
+
+        // when
+        int last = proxy.getF33();
+        int supplyCountAfterLast = proxy.getSupplyCount();
+        int sum = proxy.sum();
+
+        // then
+        assertThat(last).isEqualTo(1);
+        assertThat(supplyCountAfterLast).isEqualTo(1);
+        assertThat(sum).isEqualTo(34);
+        assertThat(proxy.getSupplyCount()).isEqualTo(34);
+    }
+
+    private static class FieldClass {
+        private final List<String> supplied = new ArrayList<String>();
+
+        @LazyField("supplyName")
+        private String name;
+
+        @LazyField("supplySize")
+        private int size;
+
+        @LazyField("supplyActive")
+        private boolean active;
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        @ReadsLazyFields({ "name", "size" })
+        public String describe() {
+            return name + ": " + size;
+        }
+
+        @LazyLoadWith("load")
+        @ReadsLazyFields("size")
+        public int getSizeAfterLoading() {
+            return size;
+        }
+
+        public List<String> getSupplied() {
+            return supplied;
+        }
+
+        private void load() {
+            supplied.add("loader");
+        }
+
+        private String supplyName() {
+            supplied.add("name");
+            return "name";
+        }
+
+        private int supplySize() {
+            supplied.add("size");
+            return 42;
+        }
+
+        private boolean supplyActive() {
+            supplied.add("active");
+            return true;
+        }
+    }
+
+    private static class ManyFieldsClass {
+        private int supplyCount = 0;
+
+        @LazyField("supply")
+        private int f0;
+
+        @LazyField("supply")
+        private int f1;
+
+        @LazyField("supply")
+        private int f2;
+
+        @LazyField("supply")
+        private int f3;
+
+        @LazyField("supply")
+        private int f4;
+
+        @LazyField("supply")
+        private int f5;
+
+        @LazyField("supply")
+        private int f6;
+
+        @LazyField("supply")
+        private int f7;
+
+        @LazyField("supply")
+        private int f8;
+
+        @LazyField("supply")
+        private int f9;
+
+        @LazyField("supply")
+        private int f10;
+
+        @LazyField("supply")
+        private int f11;
+
+        @LazyField("supply")
+        private int f12;
+
+        @LazyField("supply")
+        private int f13;
+
+        @LazyField("supply")
+        private int f14;
+
+        @LazyField("supply")
+        private int f15;
+
+        @LazyField("supply")
+        private int f16;
+
+        @LazyField("supply")
+        private int f17;
+
+        @LazyField("supply")
+        private int f18;
+
+        @LazyField("supply")
+        private int f19;
+
+        @LazyField("supply")
+        private int f20;
+
+        @LazyField("supply")
+        private int f21;
+
+        @LazyField("supply")
+        private int f22;
+
+        @LazyField("supply")
+        private int f23;
+
+        @LazyField("supply")
+        private int f24;
+
+        @LazyField("supply")
+        private int f25;
+
+        @LazyField("supply")
+        private int f26;
+
+        @LazyField("supply")
+        private int f27;
+
+        @LazyField("supply")
+        private int f28;
+
+        @LazyField("supply")
+        private int f29;
+
+        @LazyField("supply")
+        private int f30;
+
+        @LazyField("supply")
+        private int f31;
+
+        @LazyField("supply")
+        private int f32;
+
+        @LazyField("supply")
+        private int f33;
+
+        public int getF33() {
+            return f33;
+        }
+
+        @ReadsLazyFields({
+                "f0", "f1", "f2", "f3", "f4", "f5", "f6", "f7", "f8", "f9", "f10", "f11",
+                "f12", "f13", "f14", "f15", "f16", "f17", "f18", "f19", "f20", "f21", "f22", "f23",
+                "f24", "f25", "f26", "f27", "f28", "f29", "f30", "f31", "f32", "f33"
+        })
+        public int sum() {
+            return f0 + f1 + f2 + f3 + f4 + f5 + f6 + f7 + f8 + f9 + f10 + f11 + f12 + f13 + f14 + f15 + f16
+                    + f17 + f18 + f19 + f20 + f21 + f22 + f23 + f24 + f25 + f26 + f27 + f28 + f29 + f30 + f31 + f32
+                    + f33;
+        }
+
+        public int getSupplyCount() {
+            return supplyCount;
+        }
+
+        private int supply() {
+            supplyCount++;
+            return 1;
+        }
+    }
+
+    private static class ExcludedGetterClass {
+        @LazyField("supplyValue")
+        private String value;
+
+        @ExcludeFromLazyLoading
+        public String getValue() {
+            return value;
+        }
+
+        private String supplyValue() {
+            return "value";
+        }
+    }
+
+    private static class UnknownFieldClass {
+        @ReadsLazyFields("missing")
+        public String getValue() {
+            return null;
+        }
+    }
+
+    private static class FinalFieldClass {
+        @LazyField("supplyValue")
+        private final String value = null;
+
+        private String supplyValue() {
+            return "value";
+        }
+    }
+
+    private static class WrongSupplierTypeClass {
+        @LazyField("supplyValue")
+        private String value;
+
+        private Integer supplyValue() {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package io.boneidle;
+
+import io.boneidle.exception.LazyLoaderTimeoutRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class LoadPolicyTest {
+    private FakeTicker ticker;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        ticker = new FakeTicker();
+        factory = LazyFactory.builder().ticker(ticker).build();
+    }
+
+    @Test
+    public void failingLoaderIsRetriedUntilItSucceeds() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(2));
+
+        // when
+        String value = proxy.getRetried();
+
+        // then
+        assertThat(value).isEqualTo("loaded");
+        assertThat(proxy.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    public void loaderThatFailsEveryAttemptThrowsItsLastFailure() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(5));
+
+        // when
+        IllegalStateException failure = null;
+        try {
+            proxy.getRetried();
+            fail("Expected the loader to throw");
+        } catch (IllegalStateException e) {
+            failure = e;
+        }
+
+        // then
+        assertThat(failure).hasMessage("Failure 3");
+        assertThat(proxy.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    public void errorsAreNotRetried() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(5));
+
+        // when
+        try {
+            proxy.getRetriedWithError();
+            fail("Expected the loader to throw");
+        } catch (AssertionError e) {
+            // expected
+        }
+
+        // then
+        assertThat(proxy.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void cachedFailureIsRethrownWithoutInvokingLoaderAgain() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(1));
+        IllegalStateException firstFailure = getFailureCachingFailure(proxy);
+
+        // when
+        ticker.advance(99);
+        IllegalStateException secondFailure = getFailureCachingFailure(proxy);
+
+        // then
+        assertThat(secondFailure).isSameAs(firstFailure);
+        assertThat(proxy.getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    public void loaderIsInvokedAgainOnceFailureIsNoLongerCached() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(1));
+        getFailureCachingFailure(proxy);
+
+        // when
+        ticker.advance(100);
+        String value = proxy.getFailureCaching();
+
+        // then
+        assertThat(value).isEqualTo("loaded");
+        assertThat(proxy.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    public void callGivesUpWaitingForSlowLoaderAfterTimeout() throws Exception {
+        // given
+        SlowClass proxy = factory.createProxy(new SlowClass());
+
+        // when
+        LazyLoaderTimeoutRuntimeException timeout = null;
+        try {
+            proxy.getSlow();
+            fail("Expected the call to time out");
+        } catch (LazyLoaderTimeoutRuntimeException e) {
+            timeout = e;
+        }
+
+        // then
+        assertThat(timeout).hasMessageContaining("loadSlow").hasMessageContaining("50 ms");
+        proxy.releaseLoader();
+    }
+
+    @Test
+    public void loaderThatTimedOutIsUsedOnceItFinishes() throws Exception {
+        // given
+        SlowClass proxy = factory.createProxy(new SlowClass());
+        try {
+            proxy.getSlow();
+            fail("Expected the call to time out");
+        } catch (LazyLoaderTimeoutRuntimeException e) {
+            // expected
+        }
+
+        // when
+        proxy.releaseLoader();
+        proxy.awaitLoaderFinished();
+        String value = proxy.getSlow();
+
+        // then
+        assertThat(value).isEqualTo("loaded");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void failureOfLoaderWithTimeoutIsThrownByCall() {
+        // given
+        FlakyClass proxy = factory.createProxy(new FlakyClass(1));
+
+        // when
+        try {
+            proxy.getTimed();
+            fail("Expected the loader to throw");
+        } catch (IllegalStateException e) {
+            // then
+            assertThat(e).hasMessage("Failure 1");
+        }
+    }
+
+    private IllegalStateException getFailureCachingFailure(FlakyClass proxy) {
+        try {
+            proxy.getFailureCaching();
+        } catch (IllegalStateException e) {
+            return e;
+        }
+        throw new AssertionError("Expected the loader to throw");
+    }
+
+    private static class FlakyClass {
+        private final int failures;
+        private int attempts = 0;
+        private String value;
+
+        FlakyClass(int failures) {
+            this.failures = failures;
+        }
+
+        @LazyLoadWith(value = "loadRetried", maxAttempts = 3, retryBackoffMillis = 1)
+        public String getRetried() {
+            return value;
+        }
+
+        @LazyLoadWith(value = "loadWithError", maxAttempts = 3)
+        public String getRetriedWithError() {
+            return value;
+        }
+
+        @LazyLoadWith(value = "loadFailureCaching", cacheFailureMillis = 100)
+        public String getFailureCaching() {
+            return value;
+        }
+
+        @LazyLoadWith(value = "loadTimed", timeoutMillis = 1000)
+        public String getTimed() {
+            return value;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        void loadRetried() {
+            attempt();
+        }
+
+        void loadFailureCaching() {
+            attempt();
+        }
+
+        void loadTimed() {
+            attempt();
+        }
+
+        private void attempt() {
+            attempts++;
+            if (attempts <= failures) {
+                throw new IllegalStateException("Failure " + attempts);
+            }
+            value = "loaded";
+        }
+
+        void loadWithError() {
+            attempts++;
+            throw new AssertionError("Failure " + attempts);
+        }
+    }
+
+    private static class SlowClass {
+        private final CountDownLatch loaderReleased = new CountDownLatch(1);
+        private final CountDownLatch loaderFinished = new CountDownLatch(1);
+        private volatile int loadCount = 0;
+        private volatile String value;
+
+        @LazyLoadWith(value = "loadSlow", timeoutMillis = 50)
+        public String getSlow() {
+            return value;
+        }
+
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        public void releaseLoader() {
+            loaderReleased.countDown();
+        }
+
+        public void awaitLoaderFinished() throws InterruptedException {
+            loaderFinished.await(5, TimeUnit.SECONDS);
+        }
+
+        void loadSlow() throws InterruptedException {
+            loadCount++;
+            loaderReleased.await();
+            value = "loaded";
+            loaderFinished.countDown();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadedCheckTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private final LazyFactory factory = LazyFactory.builder().build();
+
+    @Test
+    public void loaderIsNotInvokedWhileBackingFieldIsSet() {
+        // given
+        Customer original = new Customer();
+        original.name = "cached name";
+        Customer proxy = factory.createProxy(original);
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("cached name");
+        assertThat(proxy.getLoadersInvoked()).isEmpty();
+    }
+
+    @Test
+    public void loaderIsInvokedWhileBackingFieldIsNull() {
+        // given
+        Customer proxy = factory.createProxy(new Customer());
+
+        // when
+        String name = proxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("loaded name");
+        assertThat(proxy.getLoadersInvoked()).containsExactly("loadName");
+    }
+
+    @Test
+    public void otherMethodsNeedingLoaderStillInvokeIt() {
+        // given
+        Customer original = new Customer();
+        original.name = "cached name";
+        Customer proxy = factory.createProxy(original);
+        proxy.getName();
+
+        // when
+        String greeting = proxy.getGreeting();
+
+        // then
+        assertThat(greeting).isEqualTo("Hello, loaded name");
+        assertThat(proxy.getLoadersInvoked()).containsExactly("loadName");
+    }
+
+    @Test
+    public void loaderIsNotInvokedOnceAnyLoaderOfGroupHasBeenInvoked() {
+        // given
+        Customer proxy = factory.createProxy(new Customer());
+        proxy.getAddress();
+
+        // when
+        String summary = proxy.getSummary();
+
+        // then
+        assertThat(summary).isEqualTo("summary from details");
+        assertThat(proxy.getLoadersInvoked()).containsExactly("loadDetails");
+    }
+
+    @Test
+    public void loaderIsInvokedWhileNoLoaderOfGroupHasBeenInvoked() {
+        // given
+        Customer proxy = factory.createProxy(new Customer());
+
+        // when
+        String summary = proxy.getSummary();
+
+        // then
+        assertThat(summary).isEqualTo("summary");
+        assertThat(proxy.getLoadersInvoked()).containsExactly("loadSummary");
+    }
+
+    @Test
+    public void loaderIsNotInvokedWhileLoadedIfMethodReturnsTrue() {
+        // given
+        Customer original = new Customer();
+        original.orderCount = 7;
+        Customer proxy = factory.createProxy(original);
+
+        // when
+        int orderCount = proxy.getOrderCount();
+
+        // then
+        assertThat(orderCount).isEqualTo(7);
+        assertThat(proxy.getLoadersInvoked()).isEmpty();
+    }
+
+    @Test
+    public void loaderIsInvokedOnceLoadedIfMethodReturnsFalse() {
+        // given
+        Customer proxy = factory.createProxy(new Customer());
+
+        // when
+        int orderCount = proxy.getOrderCount();
+        proxy.getOrderCount();
+
+        // then
+        assertThat(orderCount).isEqualTo(3);
+        assertThat(proxy.getLoadersInvoked()).containsExactly("loadOrderCount");
+    }
+
+    @Test
+    public void loadedIfMethodIsNotLazilyLoadedByInPlaceProxies() {
+        // given
+        Customer original = new Customer();
+        original.orderCount = 7;
+        Customer proxy = LazyFactory.builder().inPlaceProxies(true).build().createProxy(original);
+
+        // when
+        int orderCount = proxy.getOrderCount();
+
+        // then
+        assertThat(orderCount).isEqualTo(7);
+        assertThat(proxy.getLoadersInvoked()).isEmpty();
+    }
+
+    @Test
+    public void classAnnotationOnlyChecksGettersWithBackingFields() {
+        // given
+        Supplier original = new Supplier();
+        original.name = "cached name";
+        Supplier proxy = factory.createProxy(original);
+
+        // when
+        String name = proxy.getName();
+        int loadCountBeforeOtherCall = proxy.getLoadCount();
+        proxy.describe();
+
+        // then
+        assertThat(name).isEqualTo("cached name");
+        assertThat(loadCountBeforeOtherCall).isEqualTo(0);
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void fieldCheckOnMethodWithoutBackingFieldThrows() {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("describe");
+
+        // when
+        factory.createProxy(new NoBackingField());
+    }
+
+    @Test
+    public void unusableLoadedIfMethodThrows() {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("countOrders");
+
+        // when
+        factory.createProxy(new WrongLoadedIfMethod());
+    }
+
+    @Test
+    public void unknownLoaderInGroupThrows() {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("loadMissing");
+
+        // when
+        factory.createProxy(new UnknownGroupLoader());
+    }
+
+    private static class Customer {
+        private final List<String> loadersInvoked = new ArrayList<String>();
+        private String name;
+        private String summary;
+        private String address;
+        private int orderCount;
+
+        @LazyLoadWith(value = "loadName", loadedIfFieldSet = true)
+        public String getName() {
+            return name;
+        }
+
+        @LazyLoadWith("loadName")
+        public String getGreeting() {
+            return "Hello, " + name;
+        }
+
+        @LazyLoadWith(value = "loadSummary", loadedIfAnyInvoked = "loadDetails")
+        public String getSummary() {
+            return summary;
+        }
+
+        @LazyLoadWith("loadDetails")
+        public String getAddress() {
+            return address;
+        }
+
+        @LazyLoadWith(value = "loadOrderCount", loadedIf = "hasOrderCount")
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        public List<String> getLoadersInvoked() {
+            return loadersInvoked;
+        }
+
+        boolean hasOrderCount() {
+            return orderCount > 0;
+        }
+
+        void loadName() {
+            loadersInvoked.add("loadName");
+            name = "loaded name";
+        }
+
+        void loadSummary() {
+            loadersInvoked.add("loadSummary");
+            summary = "summary";
+        }
+
+        void loadDetails() {
+            loadersInvoked.add("loadDetails");
+            summary = "summary from details";
+            address = "address";
+        }
+
+        void loadOrderCount() {
+            loadersInvoked.add("loadOrderCount");
+            orderCount = 3;
+        }
+    }
+
+    @LazyLoadWith(value = "load", loadedIfFieldSet = true)
+    private static class Supplier {
+        private String name;
+        private int loadCount = 0;
+
+        public String getName() {
+            return name;
+        }
+
+        public String describe() {
+            return "Supplier " + name;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            name = "loaded name";
+        }
+    }
+
+    private static class NoBackingField {
+        @LazyLoadWith(value = "load", loadedIfFieldSet = true)
+        public String describe() {
+            return "";
+        }
+
+        void load() {
+        }
+    }
+
+    private static class WrongLoadedIfMethod {
+        @LazyLoadWith(value = "load", loadedIf = "countOrders")
+        public int getOrderCount() {
+            return 0;
+        }
+
+        int countOrders() {
+            return 0;
+        }
+
+        void load() {
+        }
+    }
+
+    private static class UnknownGroupLoader {
+        @LazyLoadWith(value = "load", loadedIfAnyInvoked = "loadMissing")
+        public String getName() {
+            return "";
+        }
+
+        void load() {
+        }
+    }
+}
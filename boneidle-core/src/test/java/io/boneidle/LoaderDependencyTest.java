@@ -0,0 +1,206 @@
+package io.boneidle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoaderDependencyTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    @Test
+    public void dependenciesAreLoadedBeforeDependentLoader() {
+        // given
+        OrderedClass proxy = LazyFactory.proxy(new OrderedClass());
+
+        // when
+        String total = proxy.getTotal();
+
+        // then
+        assertThat(total).isEqualTo("items+prices");
+        assertThat(proxy.getLoadOrder()).containsExactly("loadItems", "loadPrices", "loadTotal");
+    }
+
+    @Test
+    public void alreadyLoadedDependenciesAreNotLoadedAgain() {
+        // given
+        OrderedClass proxy = LazyFactory.proxy(new OrderedClass());
+        proxy.getPrices();
+
+        // when
+        proxy.getTotal();
+
+        // then
+        assertThat(proxy.getLoadOrder()).containsExactly("loadItems", "loadPrices", "loadTotal");
+    }
+
+    @Test
+    public void independentDependenciesAreLoadedInParallel() {
+        // given
+        ParallelClass proxy = LazyFactory.proxy(new ParallelClass());
+
+        // when
+        String combined = proxy.getCombined();
+
+        // then
+        assertThat(combined).isEqualTo("left+right");
+    }
+
+    @Test
+    public void dependenciesRejectedByExecutorAreLoadedByCaller() {
+        // given
+        LazyFactory factory = LazyFactory.builder().loaderExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }).build();
+        OrderedClass proxy = factory.createProxy(new OrderedClass());
+
+        // when
+        String total = proxy.getTotal();
+
+        // then
+        assertThat(total).isEqualTo("items+prices");
+    }
+
+    @Test
+    public void dependenciesNotStartedByExecutorAreLoadedByCaller() {
+        // given
+        LazyFactory factory = LazyFactory.builder().loaderExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                // Never runs anything
+            }
+        }).build();
+        OrderedClass proxy = factory.createProxy(new OrderedClass());
+
+        // when
+        String total = proxy.getTotal();
+
+        // then
+        assertThat(total).isEqualTo("items+prices");
+    }
+
+    @Test
+    public void failedDependencyPreventsDependentLoader() {
+        // given
+        FailingDependencyClass proxy = LazyFactory.proxy(new FailingDependencyClass());
+
+        // expect
+        expectedException.expect(IllegalStateException.class).hasMessage("dependency failed");
+
+        // when
+        try {
+            proxy.getValue();
+        } finally {
+            assertThat(proxy.getLoadCount()).isEqualTo(0);
+        }
+    }
+
+    private static class OrderedClass {
+        private final List<String> loadOrder = Collections.synchronizedList(new ArrayList<String>());
+        private volatile String items;
+        private volatile String prices;
+        private String total;
+
+        @ExcludeFromLazyLoading
+        public List<String> getLoadOrder() {
+            return loadOrder;
+        }
+
+        @LazyLoadWith(value = "loadPrices", after = "loadItems")
+        public String getPrices() {
+            return prices;
+        }
+
+        @LazyLoadWith(value = "loadTotal", after = { "loadItems", "loadPrices" })
+        public String getTotal() {
+            return total;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadItems() {
+            loadOrder.add("loadItems");
+            items = "items";
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadPrices() {
+            loadOrder.add("loadPrices");
+            prices = "prices";
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadTotal() {
+            loadOrder.add("loadTotal");
+            total = items + "+" + prices;
+        }
+    }
+
+    private static class ParallelClass {
+        /**
+         * Each side waits for the other to start, so the two can only load if they're loaded at the same time
+         */
+        private final CyclicBarrier bothLoading = new CyclicBarrier(2);
+        private volatile String left;
+        private volatile String right;
+        private String combined;
+
+        @LazyLoadWith(value = "loadCombined", after = { "loadLeft", "loadRight" })
+        public String getCombined() {
+            return combined;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadLeft() throws Exception {
+            bothLoading.await(5, TimeUnit.SECONDS);
+            left = "left";
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadRight() throws Exception {
+            bothLoading.await(5, TimeUnit.SECONDS);
+            right = "right";
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadCombined() {
+            combined = left + "+" + right;
+        }
+    }
+
+    private static class FailingDependencyClass {
+        private int loadCount = 0;
+
+        @ExcludeFromLazyLoading
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        @LazyLoadWith(value = "load", after = "failingLoad")
+        public String getValue() {
+            return null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void failingLoad() {
+            throw new IllegalStateException("dependency failed");
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {
+            loadCount++;
+        }
+    }
+}
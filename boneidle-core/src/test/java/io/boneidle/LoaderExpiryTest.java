@@ -0,0 +1,196 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoaderExpiryTest {
+    private FakeTicker ticker;
+    private ManualExecutor executor;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        ticker = new FakeTicker();
+        executor = new ManualExecutor();
+        factory = LazyFactory.builder().ticker(ticker).loaderExecutor(executor).build();
+    }
+
+    @Test
+    public void loaderIsNotInvokedAgainBeforeItExpires() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getExpiring();
+
+        // when
+        ticker.advance(99);
+        proxy.getExpiring();
+
+        // then
+        assertThat(proxy.getExpiringLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredLoaderIsInvokedAgainByNextCall() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getExpiring();
+
+        // when
+        ticker.advance(100);
+        int value = proxy.getExpiring();
+
+        // then
+        assertThat(value).isEqualTo(2);
+        assertThat(proxy.getExpiringLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void expiryIsMeasuredFromLastInvocation() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getExpiring();
+        ticker.advance(100);
+        proxy.getExpiring();
+
+        // when
+        ticker.advance(99);
+        proxy.getExpiring();
+
+        // then
+        assertThat(proxy.getExpiringLoadCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void refreshServesOldDataWhileReloadingInBackground() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getRefreshing();
+        ticker.advance(50);
+
+        // when
+        int valueDuringRefresh = proxy.getRefreshing();
+        int loadCountBeforeRefreshRuns = proxy.getRefreshingLoadCount();
+        executor.runAll();
+        int valueAfterRefresh = proxy.getRefreshing();
+
+        // then
+        assertThat(valueDuringRefresh).isEqualTo(1);
+        assertThat(loadCountBeforeRefreshRuns).isEqualTo(1);
+        assertThat(valueAfterRefresh).isEqualTo(2);
+    }
+
+    @Test
+    public void onlyOneRefreshIsStartedAtOnce() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getRefreshing();
+        ticker.advance(50);
+
+        // when
+        proxy.getRefreshing();
+        proxy.getRefreshing();
+
+        // then
+        assertThat(executor.tasks).hasSize(1);
+    }
+
+    @Test
+    public void failedRefreshIsRetriedByNextCall() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getRefreshing();
+        ticker.advance(50);
+        proxy.failNextRefresh();
+        proxy.getRefreshing();
+        executor.runAll();
+
+        // when
+        int valueAfterFailure = proxy.getRefreshing();
+        executor.runAll();
+
+        // then
+        assertThat(valueAfterFailure).isEqualTo(1);
+        assertThat(proxy.getRefreshing()).isEqualTo(2);
+    }
+
+    @Test
+    public void untimedLoadersNeverReadTicker() {
+        // given
+        ExpiringClass proxy = factory.createProxy(new ExpiringClass());
+        proxy.getUntimed();
+        int readsAfterLoad = ticker.reads;
+
+        // when
+        ticker.advance(TimeUnit.DAYS.toMillis(1));
+        proxy.getUntimed();
+
+        // then
+        assertThat(ticker.reads).isEqualTo(readsAfterLoad);
+        assertThat(proxy.getUntimedLoadCount()).isEqualTo(1);
+    }
+
+    private static class ExpiringClass {
+        private int expiringLoadCount = 0;
+        private int refreshingLoadCount = 0;
+        private int untimedLoadCount = 0;
+        private boolean failNextRefresh = false;
+
+        @ExcludeFromLazyLoading
+        public int getExpiringLoadCount() {
+            return expiringLoadCount;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getRefreshingLoadCount() {
+            return refreshingLoadCount;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getUntimedLoadCount() {
+            return untimedLoadCount;
+        }
+
+        @ExcludeFromLazyLoading
+        public void failNextRefresh() {
+            failNextRefresh = true;
+        }
+
+        @LazyLoadWith(value = "loadExpiring", expireAfterWriteMillis = 100)
+        public int getExpiring() {
+            return expiringLoadCount;
+        }
+
+        @LazyLoadWith(value = "loadRefreshing", refreshAfterWriteMillis = 50)
+        public int getRefreshing() {
+            return refreshingLoadCount;
+        }
+
+        @LazyLoadWith("loadUntimed")
+        public int getUntimed() {
+            return untimedLoadCount;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadExpiring() {
+            expiringLoadCount++;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadRefreshing() {
+            if (failNextRefresh) {
+                failNextRefresh = false;
+                throw new IllegalStateException("refresh failed");
+            }
+            refreshingLoadCount++;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadUntimed() {
+            untimedLoadCount++;
+        }
+    }
+}
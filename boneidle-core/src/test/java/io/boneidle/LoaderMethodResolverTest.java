@@ -1,6 +1,7 @@
 package io.boneidle;
 
 import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
+import io.boneidle.exception.CyclicLoaderDependencyRuntimeException;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -23,72 +24,57 @@ public class LoaderMethodResolverTest {
 
     @Test
     public void unannotatedMethodHasNoLoader() throws Exception {
-        // given
-        Method unannotatedMethod = SimpleClass.class.getDeclaredMethod("getUnannotatedString");
-
         // when
-        Method loaderMethod = resolver.getLoaderFor(unannotatedMethod);
+        LazyLoadingMetadata metadata = resolver.resolve(SimpleClass.class);
 
         // then
-        assertThat(loaderMethod).isNull();
+        assertThat(getLoaderFor(metadata, "getUnannotatedString")).isNull();
     }
 
     @Test
     public void annotatedMethodHasSpecifiedLoader() throws Exception {
-        // given
-        Method annotatedMethod = SimpleClass.class.getDeclaredMethod("getAnnotatedString");
-
         // when
-        Method loaderMethod = resolver.getLoaderFor(annotatedMethod);
+        LazyLoadingMetadata metadata = resolver.resolve(SimpleClass.class);
 
         // then
+        Method loaderMethod = getLoaderFor(metadata, "getAnnotatedString");
         assertThat(loaderMethod).isNotNull();
         assertThat(loaderMethod.getName()).isEqualTo("load");
     }
 
     @Test
     public void unannotatedMethodOnAnnotatedClassHasClassDefaultLoader() throws Exception {
-        // given
-        Method unannotatedMethod = DefaultedClass.class.getDeclaredMethod("getUnannotatedString");
-
         // when
-        Method loaderMethod = resolver.getLoaderFor(unannotatedMethod);
+        LazyLoadingMetadata metadata = resolver.resolve(DefaultedClass.class);
 
         // then
+        Method loaderMethod = getLoaderFor(metadata, "getUnannotatedString");
         assertThat(loaderMethod).isNotNull();
         assertThat(loaderMethod.getName()).isEqualTo("defaultLoad");
     }
 
     @Test
     public void annotatedMethodOnAnnotatedClassUsesMethodLoader() throws Exception {
-        // given
-        Method unannotatedMethod = DefaultedClass.class.getDeclaredMethod("getAnnotatedString");
-
         // when
-        Method loaderMethod = resolver.getLoaderFor(unannotatedMethod);
+        LazyLoadingMetadata metadata = resolver.resolve(DefaultedClass.class);
 
         // then
+        Method loaderMethod = getLoaderFor(metadata, "getAnnotatedString");
         assertThat(loaderMethod).isNotNull();
         assertThat(loaderMethod.getName()).isEqualTo("load");
     }
 
     @Test
     public void excludedMethodOnDefaultedClassHasNoLoader() throws Exception {
-        // given
-        Method excludedMethod = DefaultedClass.class.getDeclaredMethod("getExcludedString");
-
         // when
-        Method loaderMethod = resolver.getLoaderFor(excludedMethod);
+        LazyLoadingMetadata metadata = resolver.resolve(DefaultedClass.class);
 
         // then
-        assertThat(loaderMethod).isNull();
+        assertThat(getLoaderFor(metadata, "getExcludedString")).isNull();
     }
 
     @Test
     public void specifyingMissingLoaderMethodThrowsHelpfulException() throws Exception {
-        // given
-        Method missingLoaderMethod = MisconfiguredClass.class.getDeclaredMethod("getMissingLoaderString");
-
         // expect
         expectedException
                 .expect(CannotInvokeLazyLoaderRuntimeException.class)
@@ -96,22 +82,111 @@ public class LoaderMethodResolverTest {
                 .hasMessageContaining("Ensure it exists and takes no parameters");
 
         // when
-        resolver.getLoaderFor(missingLoaderMethod);
+        resolver.resolve(MissingLoaderClass.class);
     }
 
     @Test
     public void specifyingParameterisedLoaderMethodThrowsHelpfulException() throws Exception {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("loaderWithParameters")
+                .hasMessageContaining("Ensure it exists and takes no parameters");
+
+        // when
+        resolver.resolve(ParameterisedLoaderClass.class);
+    }
+
+    @Test
+    public void resolvedMetadataHasNoLoaderForUnannotatedMethod() throws Exception {
+        // given
+        Method unannotatedMethod = SimpleClass.class.getDeclaredMethod("getUnannotatedString");
+
+        // when
+        LazyLoadingMetadata metadata = resolver.resolve(SimpleClass.class);
+
+        // then
+        assertThat(metadata.getLazyMethod(unannotatedMethod)).isNull();
+    }
+
+    @Test
+    public void resolvedMetadataMapsAnnotatedMethodToSpecifiedLoader() throws Exception {
+        // given
+        Method annotatedMethod = SimpleClass.class.getDeclaredMethod("getAnnotatedString");
+
+        // when
+        LazyLoadingMetadata metadata = resolver.resolve(SimpleClass.class);
+
+        // then
+        LazyLoadingMetadata.LazyMethod lazyMethod = metadata.getLazyMethod(annotatedMethod);
+        assertThat(lazyMethod.loaderIndices).hasSize(1);
+        assertThat(metadata.getLoader(lazyMethod.loaderIndices[0]).method.getName()).isEqualTo("load");
+    }
+
+    @Test
+    public void resolvedMetadataGivesEachLoaderOneIndex() throws Exception {
         // given
-        Method missingLoaderMethod = MisconfiguredClass.class.getDeclaredMethod("getParameterisedLoaderString");
+        Method unannotatedMethod = DefaultedClass.class.getDeclaredMethod("getUnannotatedString");
+        Method otherUnannotatedMethod = DefaultedClass.class.getDeclaredMethod("getOtherUnannotatedString");
+        Method excludedMethod = DefaultedClass.class.getDeclaredMethod("getExcludedString");
+
+        // when
+        LazyLoadingMetadata metadata = resolver.resolve(DefaultedClass.class);
 
+        // then
+        assertThat(metadata.getLoaderCount()).isEqualTo(2);
+        assertThat(metadata.getLazyMethod(unannotatedMethod).loaderIndices)
+                .isEqualTo(metadata.getLazyMethod(otherUnannotatedMethod).loaderIndices);
+        assertThat(metadata.getLazyMethod(excludedMethod)).isNull();
+    }
+
+    @Test
+    public void resolvingMisconfiguredClassThrowsHelpfulException() throws Exception {
         // expect
         expectedException
                 .expect(CannotInvokeLazyLoaderRuntimeException.class)
-                .hasMessageContaining("loaderWithParameters")
                 .hasMessageContaining("Ensure it exists and takes no parameters");
 
         // when
-        resolver.getLoaderFor(missingLoaderMethod);
+        resolver.resolve(MisconfiguredClass.class);
+    }
+
+    @Test
+    public void resolvedMetadataIncludesLoaderDependencies() throws Exception {
+        // given
+        Method pricesMethod = DependentClass.class.getDeclaredMethod("getPrices");
+
+        // when
+        LazyLoadingMetadata metadata = resolver.resolve(DependentClass.class);
+
+        // then
+        int pricesLoaderIndex = metadata.getLazyMethod(pricesMethod).loaderIndices[0];
+        LazyLoadingMetadata.Loader pricesLoader = metadata.getLoader(pricesLoaderIndex);
+        assertThat(pricesLoader.dependencies).hasSize(2);
+        assertThat(metadata.getLoader(pricesLoader.dependencies[0]).method.getName()).isEqualTo("loadItems");
+        assertThat(metadata.getLoader(pricesLoader.dependencies[1]).method.getName()).isEqualTo("loadRates");
+    }
+
+    @Test
+    public void resolvingClassWithCyclicLoaderDependenciesThrowsHelpfulException() throws Exception {
+        // expect
+        expectedException
+                .expect(CyclicLoaderDependencyRuntimeException.class)
+                .hasMessageContaining("found the cycle load")
+                .hasMessageContaining("loadA -> loadB")
+                .hasMessageContaining("loadB -> loadA");
+
+        // when
+        resolver.resolve(CyclicClass.class);
+    }
+
+    /**
+     * @return The loader method of the given method of the proxied class, or null if it isn't lazily loaded
+     */
+    private static Method getLoaderFor(LazyLoadingMetadata metadata, String methodName) throws Exception {
+        Method method = metadata.getProxiedClass().getDeclaredMethod(methodName);
+        LazyLoadingMetadata.LazyMethod lazyMethod = metadata.getLazyMethod(method);
+        return lazyMethod == null ? null : metadata.getLoader(lazyMethod.loaderIndices[0]).method;
     }
 
     private static class SimpleClass {
@@ -127,6 +202,8 @@ public class LoaderMethodResolverTest {
     private static class DefaultedClass {
         String getUnannotatedString() { return null; }
 
+        String getOtherUnannotatedString() { return null; }
+
         @LazyLoadWith("load") String getAnnotatedString() { return null; }
 
         @ExcludeFromLazyLoading
@@ -139,6 +216,31 @@ public class LoaderMethodResolverTest {
         private void load() {}
     }
 
+    private static class DependentClass {
+        @LazyLoadWith(value = "loadPrices", after = { "loadItems", "loadRates" }) String getPrices() { return null; }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadItems() {}
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadRates() {}
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadPrices() {}
+    }
+
+    private static class CyclicClass {
+        @LazyLoadWith(value = "loadA", after = "loadB") String getA() { return null; }
+
+        @LazyLoadWith(value = "loadB", after = "loadA") String getB() { return null; }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadA() {}
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadB() {}
+    }
+
     private static class MisconfiguredClass {
         @LazyLoadWith("missingLoader") String getMissingLoaderString() { return null; }
 
@@ -147,4 +249,15 @@ public class LoaderMethodResolverTest {
         @SuppressWarnings("UnusedDeclaration")
         private void loaderWithParameters(String dummy) {}
     }
-}
\ No newline at end of file
+
+    private static class MissingLoaderClass {
+        @LazyLoadWith("missingLoader") String getMissingLoaderString() { return null; }
+    }
+
+    private static class ParameterisedLoaderClass {
+        @LazyLoadWith("loaderWithParameters") String getParameterisedLoaderString() { return null; }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loaderWithParameters(String dummy) {}
+    }
+}
@@ -0,0 +1,225 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class LoaderMetricsTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private LoaderMetrics metrics;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        metrics = new LoaderMetrics();
+        factory = LazyFactory.builder().metricsSink(metrics).build();
+    }
+
+    @Test
+    public void interceptedCallsLoadsAndSkippedLoadsAreCountedPerLoader() {
+        // given
+        MeasuredClass proxy = factory.createProxy(new MeasuredClass());
+
+        // when
+        proxy.getName();
+        proxy.getName();
+        proxy.getName();
+        proxy.getSize();
+
+        // then
+        LoaderStatistics nameStatistics = getStatistics("loadName");
+        assertThat(nameStatistics.getProxiedClass()).isEqualTo(MeasuredClass.class);
+        assertThat(nameStatistics.getInterceptedCallCount()).isEqualTo(3);
+        assertThat(nameStatistics.getLoadCount()).isEqualTo(1);
+        assertThat(nameStatistics.getSkippedLoadCount()).isEqualTo(2);
+        assertThat(nameStatistics.getFailureCount()).isEqualTo(0);
+
+        LoaderStatistics sizeStatistics = getStatistics("loadSize");
+        assertThat(sizeStatistics.getInterceptedCallCount()).isEqualTo(1);
+        assertThat(sizeStatistics.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void classStatisticsAddUpAllOfTheClasssLoaders() {
+        // given
+        MeasuredClass proxy = factory.createProxy(new MeasuredClass());
+
+        // when
+        proxy.getName();
+        proxy.getName();
+        proxy.getSize();
+
+        // then
+        LoaderStatistics classStatistics = metrics.getClassStatistics(MeasuredClass.class);
+        assertThat(classStatistics.getLoaderName()).isNull();
+        assertThat(classStatistics.getInterceptedCallCount()).isEqualTo(3);
+        assertThat(classStatistics.getLoadCount()).isEqualTo(2);
+        assertThat(classStatistics.getSkippedLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void loadLatencyIsRecordedInHistogram() {
+        // given
+        MeasuredClass proxy = factory.createProxy(new MeasuredClass());
+
+        // when
+        proxy.getSlow();
+
+        // then
+        LoaderStatistics statistics = getStatistics("loadSlow");
+        long[] histogram = statistics.getLoadLatencyHistogram();
+        long invocations = 0;
+        for (long count : histogram) {
+            invocations += count;
+        }
+        assertThat(invocations).isEqualTo(1);
+        assertThat(statistics.getTotalLoadNanos()).isGreaterThanOrEqualTo(10000000L);
+        assertThat(statistics.getLoadLatencyPercentileNanos(50)).isGreaterThanOrEqualTo(10000000L);
+        assertThat(statistics.getLoadLatencyPercentileNanos(50)).isLessThan(2 * statistics.getTotalLoadNanos());
+    }
+
+    @Test
+    public void failuresAreCounted() {
+        // given
+        MeasuredClass proxy = factory.createProxy(new MeasuredClass());
+
+        // when
+        try {
+            proxy.getFailing();
+            fail("Expected the loader to throw");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // then
+        LoaderStatistics statistics = getStatistics("loadFailing");
+        assertThat(statistics.getInterceptedCallCount()).isEqualTo(1);
+        assertThat(statistics.getFailureCount()).isEqualTo(1);
+        assertThat(statistics.getLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void waitsForOtherThreadsLoadsAreMeasured() throws Exception {
+        // given
+        final BlockingClass proxy = factory.createProxy(new BlockingClass());
+        Thread loadingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                proxy.getValue();
+            }
+        });
+        loadingThread.start();
+        proxy.awaitLoaderStarted();
+
+        // when
+        Thread waitingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                proxy.getValue();
+            }
+        });
+        waitingThread.start();
+        while (waitingThread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        proxy.releaseLoader();
+        loadingThread.join();
+        waitingThread.join();
+
+        // then
+        LoaderStatistics statistics = getStatistics("loadValue");
+        assertThat(statistics.getWaitCount()).isEqualTo(1);
+        assertThat(statistics.getTotalWaitNanos()).isGreaterThan(0);
+        assertThat(statistics.getLoadCount()).isEqualTo(1);
+        assertThat(statistics.getSkippedLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void enablingFlightRecorderEventsWithoutBoneidleJfrThrows() {
+        // expect
+        expectedException
+                .expect(IllegalStateException.class)
+                .hasMessageContaining("boneidle-jfr");
+
+        // when
+        LazyFactory.builder().flightRecorderEvents(true).build();
+    }
+
+    private LoaderStatistics getStatistics(String loaderName) {
+        for (LoaderStatistics statistics : metrics.getStatistics()) {
+            if (statistics.getLoaderName().equals(loaderName)) {
+                return statistics;
+            }
+        }
+        throw new AssertionError("No statistics for " + loaderName + " in " + metrics.getStatistics());
+    }
+
+    private static class MeasuredClass {
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return "name";
+        }
+
+        @LazyLoadWith("loadSize")
+        public int getSize() {
+            return 1;
+        }
+
+        @LazyLoadWith("loadSlow")
+        public int getSlow() {
+            return 2;
+        }
+
+        @LazyLoadWith("loadFailing")
+        public int getFailing() {
+            return 3;
+        }
+
+        void loadName() {}
+
+        void loadSize() {}
+
+        void loadSlow() {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void loadFailing() {
+            throw new IllegalStateException("Cannot load");
+        }
+    }
+
+    private static class BlockingClass {
+        private final CountDownLatch loaderStarted = new CountDownLatch(1);
+        private final CountDownLatch loaderReleased = new CountDownLatch(1);
+
+        @LazyLoadWith("loadValue")
+        public int getValue() {
+            return 1;
+        }
+
+        void loadValue() throws InterruptedException {
+            loaderStarted.countDown();
+            loaderReleased.await();
+        }
+
+        public void awaitLoaderStarted() throws InterruptedException {
+            loaderStarted.await();
+        }
+
+        public void releaseLoader() {
+            loaderReleased.countDown();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.boneidle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * An executor that queues tasks until a test runs them
+ */
+class ManualExecutor implements Executor {
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+    }
+
+    void runAll() {
+        List<Runnable> toRun = new ArrayList<Runnable>(tasks);
+        tasks.clear();
+        for (Runnable task : toRun) {
+            task.run();
+        }
+    }
+}
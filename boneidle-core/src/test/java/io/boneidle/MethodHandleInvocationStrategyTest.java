@@ -0,0 +1,238 @@
+package io.boneidle;
+
+import io.boneidle.InvocationStrategy.CheckInvoker;
+import io.boneidle.InvocationStrategy.DelegateInvoker;
+import io.boneidle.InvocationStrategy.LoaderInvoker;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MethodHandleInvocationStrategyTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private MethodHandleInvocationStrategy strategy;
+    private TargetClass target;
+
+    @Before
+    public void setUp() {
+        strategy = new MethodHandleInvocationStrategy();
+        target = new TargetClass();
+    }
+
+    @Test
+    public void boundLoaderInvokesPrivateLoaderMethod() throws Throwable {
+        // given
+        LoaderInvoker loader = strategy.bindLoader(TargetClass.class.getDeclaredMethod("load"));
+
+        // when
+        loader.invoke(target);
+
+        // then
+        assertThat(target.loadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void boundLoaderPropagatesLoaderExceptionsUnwrapped() throws Throwable {
+        // given
+        LoaderInvoker loader = strategy.bindLoader(TargetClass.class.getDeclaredMethod("failingLoad"));
+
+        // expect
+        expectedException.expect(IllegalStateException.class).hasMessage("Loader failed");
+
+        // when
+        loader.invoke(target);
+    }
+
+    @Test
+    public void boundDelegatePassesPrimitiveArgumentsAndReturnsBoxedResult() throws Throwable {
+        // given
+        DelegateInvoker delegate =
+                strategy.bindDelegate(TargetClass.class.getDeclaredMethod("add", int.class, long.class));
+
+        // when
+        Object result = delegate.invoke(target, new Object[] { 1, 2L }, null);
+
+        // then
+        assertThat(result).isEqualTo(3L);
+    }
+
+    @Test
+    public void boundDelegateForVoidMethodReturnsNull() throws Throwable {
+        // given
+        DelegateInvoker delegate = strategy.bindDelegate(TargetClass.class.getDeclaredMethod("load"));
+
+        // when
+        Object result = delegate.invoke(target, new Object[0], null);
+
+        // then
+        assertThat(result).isNull();
+        assertThat(target.loadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void boundFieldSupplierSetsPrivateFieldToSuppliedValue() throws Throwable {
+        // given
+        LoaderInvoker supplier = strategy.bindFieldSupplier(TargetClass.class.getDeclaredMethod("supplySize"),
+                TargetClass.class.getDeclaredField("size"));
+
+        // when
+        supplier.invoke(target);
+
+        // then
+        assertThat(target.size).isEqualTo(42);
+    }
+
+    @Test
+    public void boundFieldSetCheckTellsWhetherPrivateFieldIsSet() throws Throwable {
+        // given
+        CheckInvoker check = strategy.bindFieldSetCheck(TargetClass.class.getDeclaredField("name"));
+
+        // when
+        boolean setBefore = check.invoke(target);
+        target.name = "name";
+        boolean setAfter = check.invoke(target);
+
+        // then
+        assertThat(setBefore).isFalse();
+        assertThat(setAfter).isTrue();
+    }
+
+    @Test
+    public void boundPredicateReturnsWhatPrivatePredicateReturns() throws Throwable {
+        // given
+        CheckInvoker predicate = strategy.bindPredicate(TargetClass.class.getDeclaredMethod("hasLoaded"));
+
+        // when
+        boolean loadedBefore = predicate.invoke(target);
+        target.load();
+        boolean loadedAfter = predicate.invoke(target);
+
+        // then
+        assertThat(loadedBefore).isFalse();
+        assertThat(loadedAfter).isTrue();
+    }
+
+    @Test
+    public void factoryBuiltForMethodHandleInvocationChecksLoadedIfThroughThisStrategy() {
+        // given
+        LazyFactory factory = LazyFactory.builder().methodHandleInvocation(true).build();
+        CheckedTargetClass proxy = factory.createProxy(new CheckedTargetClass());
+
+        // when
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getPredicateCallers()).contains(MethodHandleInvocationStrategy.class.getName());
+    }
+
+    @Test
+    public void factoryBuiltForMethodHandleInvocationInvokesLoadersThroughThisStrategy() {
+        // given
+        LazyFactory factory = LazyFactory.builder().methodHandleInvocation(true).build();
+        LazyTargetClass proxy = factory.createProxy(new LazyTargetClass());
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name");
+        assertThat(proxy.getLoaderCallers()).contains(MethodHandleInvocationStrategy.class.getName());
+    }
+
+    @Test
+    public void factoryInvokesLoadersByReflectionByDefault() {
+        // given
+        LazyTargetClass proxy = LazyFactory.builder().build().createProxy(new LazyTargetClass());
+
+        // when
+        proxy.getName();
+
+        // then
+        assertThat(proxy.getLoaderCallers()).doesNotContain(MethodHandleInvocationStrategy.class.getName());
+    }
+
+    private static class LazyTargetClass {
+        private final List<String> loaderCallers = new ArrayList<String>();
+        private String name;
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getLoaderCallers() {
+            return loaderCallers;
+        }
+
+        private void load() {
+            // The classes (ignoring nesting) of the methods on the stack
+            for (StackTraceElement element : new Throwable().getStackTrace()) {
+                String className = element.getClassName();
+                loaderCallers.add(className.contains("$") ? className.substring(0, className.indexOf('$')) : className);
+            }
+            name = "name";
+        }
+    }
+
+    private static class CheckedTargetClass {
+        private final List<String> predicateCallers = new ArrayList<String>();
+
+        @LazyLoadWith(value = "load", loadedIf = "isNameLoaded")
+        public String getName() {
+            return "name";
+        }
+
+        public List<String> getPredicateCallers() {
+            return predicateCallers;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {}
+
+        @SuppressWarnings("UnusedDeclaration")
+        private boolean isNameLoaded() {
+            for (StackTraceElement element : new Throwable().getStackTrace()) {
+                String className = element.getClassName();
+                predicateCallers.add(className.contains("$") ? className.substring(0, className.indexOf('$'))
+                        : className);
+            }
+            return true;
+        }
+    }
+
+    private static class TargetClass {
+        private int loadCount = 0;
+        private int size = 0;
+        private String name;
+
+        long add(int a, long b) {
+            return a + b;
+        }
+
+        private void load() {
+            loadCount++;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private boolean hasLoaded() {
+            return loadCount > 0;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private int supplySize() {
+            return 42;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void failingLoad() {
+            throw new IllegalStateException("Loader failed");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ObjectGraphTest {
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = LazyFactory.builder().proxyReturnedObjects(true).build();
+    }
+
+    @Test
+    public void returnedObjectIsProxiedAndOnlyLoadedWhenUsed() {
+        // given
+        Node root = factory.createProxy(new Node("root", new Node("child")));
+
+        // when
+        Node child = root.getFirstChild();
+        int loadCountBeforeUse = child.getLoadCount();
+        String name = child.getName();
+
+        // then
+        assertThat(loadCountBeforeUse).isEqualTo(0);
+        assertThat(name).isEqualTo("child");
+        assertThat(child.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void repeatedCallsReturnTheSameProxy() {
+        // given
+        Node root = factory.createProxy(new Node("root", new Node("child")));
+
+        // when
+        Node child = root.getFirstChild();
+        Node sameChild = root.getFirstChild();
+
+        // then
+        assertThat(sameChild).isSameAs(child);
+    }
+
+    @Test
+    public void proxyingExtendsThroughTheWholeGraph() {
+        // given
+        Node grandchild = new Node("grandchild");
+        Node root = factory.createProxy(new Node("root", new Node("child", grandchild)));
+
+        // when
+        String name = root.getFirstChild().getFirstChild().getName();
+
+        // then
+        assertThat(name).isEqualTo("grandchild");
+        assertThat(grandchild.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void listElementsAreProxiedAsTheyAreRead() {
+        // given
+        Node first = new Node("first");
+        Node second = new Node("second");
+        Node root = factory.createProxy(new Node("root", first, second));
+
+        // when
+        List<Node> children = root.getChildren();
+        String name = children.get(0).getName();
+
+        // then
+        assertThat(name).isEqualTo("first");
+        assertThat(first.getLoadCount()).isEqualTo(1);
+        assertThat(second.getLoadCount()).isEqualTo(0);
+        assertThat(children.get(0)).isSameAs(children.get(0));
+        assertThat(root.getChildren()).isSameAs(children);
+    }
+
+    @Test
+    public void listViewForgetsProxiesOfRemovedElements() throws Exception {
+        // given
+        Node root = factory.createProxy(new Node("root", new Node("removed")));
+        List<Node> children = root.getChildren();
+        WeakReference<Node> removed = new WeakReference<Node>(children.get(0));
+
+        // when
+        children.remove(0);
+        children.add(new Node("added"));
+        for (int i = 0; i < 5; i++) {
+            children.set(0, new Node("replacement"));
+            children.get(0).getName();
+        }
+        for (int i = 0; i < 20 && removed.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        // then
+        assertThat(removed.get()).isNull();
+        assertThat(children.get(0)).isSameAs(children.get(0));
+    }
+
+    @Test
+    public void setElementsAreProxied() {
+        // given
+        Node child = new Node("child");
+        Node root = factory.createProxy(new Node("root", child));
+
+        // when
+        Set<Node> children = root.getChildSet();
+        Node proxiedChild = children.iterator().next();
+
+        // then
+        assertThat(proxiedChild).isNotSameAs(child);
+        assertThat(proxiedChild.getName()).isEqualTo("child");
+        assertThat(child.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void mapValuesAreProxied() {
+        // given
+        Node child = new Node("child");
+        Node root = factory.createProxy(new Node("root", child));
+
+        // when
+        Map<String, Node> children = root.getChildrenByName();
+        Node proxiedChild = children.get("child");
+
+        // then
+        assertThat(proxiedChild).isNotSameAs(child);
+        assertThat(proxiedChild.getName()).isEqualTo("child");
+        assertThat(children.values().iterator().next()).isSameAs(proxiedChild);
+    }
+
+    @Test
+    public void collectionsAreReturnedAsTheyAreIfTheirDeclaredTypeIsMoreSpecific() {
+        // given
+        Node child = new Node("child");
+        Node root = factory.createProxy(new Node("root", child));
+
+        // when
+        ArrayList<Node> children = root.getChildArrayList();
+
+        // then
+        assertThat(children.get(0)).isSameAs(child);
+    }
+
+    @Test
+    public void objectsOfClassesWithoutLazyLoadingAreReturnedAsTheyAre() {
+        // given
+        Node root = factory.createProxy(new Node("root"));
+
+        // when
+        Object label = root.getLabel();
+
+        // then
+        assertThat(label).isSameAs(Node.LABEL);
+    }
+
+    @Test
+    public void returnedObjectsAreNotProxiedByDefault() {
+        // given
+        Node child = new Node("child");
+        Node root = LazyFactory.builder().build().createProxy(new Node("root", child));
+
+        // when
+        Node returnedChild = root.getFirstChild();
+
+        // then
+        assertThat(returnedChild).isSameAs(child);
+    }
+
+    private static class Node {
+        static final Object LABEL = new Object();
+
+        private final String loadedName;
+        private final List<Node> loadedChildren;
+        private int loadCount = 0;
+        private String name;
+        private List<Node> children;
+
+        Node(String name, Node... children) {
+            this.loadedName = name;
+            this.loadedChildren = new ArrayList<Node>(Arrays.asList(children));
+        }
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        @LazyLoadWith("load")
+        public Node getFirstChild() {
+            return children.get(0);
+        }
+
+        @LazyLoadWith("load")
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        @LazyLoadWith("load")
+        public Set<Node> getChildSet() {
+            return new LinkedHashSet<Node>(children);
+        }
+
+        @LazyLoadWith("load")
+        public Map<String, Node> getChildrenByName() {
+            return Collections.singletonMap(children.get(0).loadedName, children.get(0));
+        }
+
+        @LazyLoadWith("load")
+        public ArrayList<Node> getChildArrayList() {
+            return new ArrayList<Node>(children);
+        }
+
+        @LazyLoadWith("load")
+        public Object getLabel() {
+            return LABEL;
+        }
+
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            name = loadedName;
+            children = loadedChildren;
+        }
+    }
+}
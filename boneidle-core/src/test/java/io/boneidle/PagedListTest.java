@@ -0,0 +1,273 @@
+package io.boneidle;
+
+import io.boneidle.exception.InvalidPagedListRuntimeException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PagedListTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private ManualExecutor executor;
+    private LazyFactory factory;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        factory = LazyFactory.builder().prefetchExecutor(executor).build();
+    }
+
+    @Test
+    public void readingAnElementOnlyLoadsItsPage() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+
+        // when
+        String item = proxy.getItems().get(12);
+
+        // then
+        assertThat(item).isEqualTo("item 12");
+        assertThat(proxy.getPagesLoaded()).containsExactly(10);
+    }
+
+    @Test
+    public void sizeIsFoundWithSizeMethodWithoutLoadingPages() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+
+        // when
+        int size = proxy.getItems().size();
+
+        // then
+        assertThat(size).isEqualTo(25);
+        assertThat(proxy.getPagesLoaded()).isEmpty();
+    }
+
+    @Test
+    public void sizeIsFoundByLoadingPagesUntilOneIsNotFullWithoutSizeMethod() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+
+        // when
+        int size = proxy.getUncountedItems().size();
+
+        // then
+        assertThat(size).isEqualTo(25);
+        assertThat(proxy.getPagesLoaded()).containsExactly(0, 10, 20);
+    }
+
+    @Test
+    public void readingPastTheEndDoesNotChangeSize() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+        List<String> items = proxy.getUncountedItemList();
+        try {
+            items.get(45);
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+
+        // when
+        int size = items.size();
+
+        // then
+        assertThat(size).isEqualTo(25);
+    }
+
+    @Test
+    public void iteratingStopsAtFirstPageThatIsNotFull() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(20));
+
+        // when
+        List<String> items = new ArrayList<String>();
+        for (String item : proxy.getUncountedItems()) {
+            items.add(item);
+        }
+
+        // then
+        assertThat(items).hasSize(20).startsWith("item 0").endsWith("item 19");
+        assertThat(proxy.getPagesLoaded()).containsExactly(0, 10, 20);
+    }
+
+    @Test
+    public void leastRecentlyReadPagesAreDroppedOnceMoreAreCached() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(40));
+        List<String> items = proxy.getItems();
+
+        // when
+        items.get(0);
+        items.get(10);
+        items.get(0);
+        items.get(20);
+        items.get(10);
+        items.get(20);
+
+        // then
+        assertThat(proxy.getPagesLoaded()).containsExactly(0, 10, 20, 10);
+    }
+
+    @Test
+    public void nextPageIsPrefetchedInBackgroundIfEnabled() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+        List<String> items = proxy.getPrefetchedItems();
+
+        // when
+        items.get(0);
+        executor.runAll();
+        String item = items.get(10);
+
+        // then
+        assertThat(item).isEqualTo("item 10");
+        assertThat(proxy.getPagesLoaded()).containsExactly(0, 10);
+    }
+
+    @Test
+    public void everyCallReturnsTheSameListUntilProxyIsInvalidated() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+        List<String> items = proxy.getItems();
+
+        // when
+        List<String> sameItems = proxy.getItems();
+        LazyFactory.invalidate(proxy);
+        List<String> itemsAfterInvalidation = proxy.getItems();
+
+        // then
+        assertThat(sameItems).isSameAs(items);
+        assertThat(itemsAfterInvalidation).isNotSameAs(items);
+    }
+
+    @Test
+    public void failedPageLoadIsRetriedByNextRead() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+        proxy.failNextLoad();
+        try {
+            proxy.getItems().get(0);
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // when
+        String item = proxy.getItems().get(0);
+
+        // then
+        assertThat(item).isEqualTo("item 0");
+        assertThat(proxy.getPagesLoaded()).containsExactly(0, 0);
+    }
+
+    @Test
+    public void loadersOfMethodAreInvokedBeforePagesAreLoaded() {
+        // given
+        Catalogue proxy = factory.createProxy(new Catalogue(25));
+
+        // when
+        String item = proxy.getNamedItems().get(0);
+
+        // then
+        assertThat(item).isEqualTo("catalogue: item 0");
+    }
+
+    @Test
+    public void missingPageLoaderThrows() {
+        // expect
+        expectedException
+                .expect(InvalidPagedListRuntimeException.class)
+                .hasMessageContaining("loadMissing");
+
+        // when
+        factory.createProxy(new MisconfiguredCatalogue());
+    }
+
+    private static class Catalogue {
+        private final int size;
+        private final List<Integer> pagesLoaded = new ArrayList<Integer>();
+        private boolean failNextLoad = false;
+        private String name;
+
+        Catalogue(int size) {
+            this.size = size;
+        }
+
+        @LoadPagesWith(value = "loadItems", sizeWith = "countItems", pageSize = 10, maxCachedPages = 2)
+        public List<String> getItems() {
+            return null;
+        }
+
+        @LoadPagesWith(value = "loadItems", pageSize = 10)
+        public Collection<String> getUncountedItems() {
+            return null;
+        }
+
+        @LoadPagesWith(value = "loadItems", pageSize = 10)
+        public List<String> getUncountedItemList() {
+            return null;
+        }
+
+        @LoadPagesWith(value = "loadItems", pageSize = 10, prefetchNextPage = true)
+        public List<String> getPrefetchedItems() {
+            return null;
+        }
+
+        @LazyLoadWith("loadName")
+        @LoadPagesWith(value = "loadNamedItems", pageSize = 10)
+        public List<String> getNamedItems() {
+            return null;
+        }
+
+        public List<Integer> getPagesLoaded() {
+            return pagesLoaded;
+        }
+
+        public void failNextLoad() {
+            failNextLoad = true;
+        }
+
+        List<String> loadItems(int offset, int limit) {
+            pagesLoaded.add(offset);
+            if (failNextLoad) {
+                failNextLoad = false;
+                throw new IllegalStateException("Failed to load page");
+            }
+            List<String> page = new ArrayList<String>();
+            for (int i = offset; i < Math.min(offset + limit, size); i++) {
+                page.add("item " + i);
+            }
+            return page;
+        }
+
+        List<String> loadNamedItems(int offset, int limit) {
+            List<String> page = new ArrayList<String>();
+            for (String item : loadItems(offset, limit)) {
+                page.add(name + ": " + item);
+            }
+            return page;
+        }
+
+        int countItems() {
+            return size;
+        }
+
+        void loadName() {
+            name = "catalogue";
+        }
+    }
+
+    private static class MisconfiguredCatalogue {
+        @LoadPagesWith("loadMissing")
+        public List<String> getItems() {
+            return null;
+        }
+    }
+}
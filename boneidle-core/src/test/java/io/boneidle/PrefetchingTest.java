@@ -0,0 +1,134 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrefetchingTest {
+    private ManualExecutor executor;
+    private LazyFactory factory;
+    private PrefetchingClass original;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        factory = LazyFactory.builder().prefetchExecutor(executor).build();
+        original = new PrefetchingClass();
+    }
+
+    @Test
+    public void prefetchedLoadersAreSubmittedWhenProxyIsCreated() {
+        // when
+        factory.createProxy(original);
+
+        // then
+        assertThat(executor.tasks).hasSize(1);
+        assertThat(original.prefetchedLoadCount).isEqualTo(0);
+    }
+
+    @Test
+    public void prefetchedLoaderIsNotInvokedAgainOnFirstUse() {
+        // given
+        PrefetchingClass proxy = factory.createProxy(original);
+        executor.runAll();
+
+        // when
+        String prefetched = proxy.getPrefetchedString();
+
+        // then
+        assertThat(prefetched).isEqualTo(PrefetchingClass.LOADED_CONTENT);
+        assertThat(original.prefetchedLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void prefetchedLoaderIsInvokedByCallerIfPrefetchHasNotStarted() {
+        // given
+        PrefetchingClass proxy = factory.createProxy(original);
+
+        // when
+        String prefetched = proxy.getPrefetchedString();
+        executor.runAll();
+
+        // then
+        assertThat(prefetched).isEqualTo(PrefetchingClass.LOADED_CONTENT);
+        assertThat(original.prefetchedLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void unprefetchedLoadersAreStillInvokedOnFirstUse() {
+        // given
+        PrefetchingClass proxy = factory.createProxy(original);
+        executor.runAll();
+
+        // when
+        proxy.getLazyString();
+
+        // then
+        assertThat(original.lazyLoadCount).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectedPrefetchesFallBackToLoadingOnFirstUse() {
+        // given
+        LazyFactory rejectingFactory = LazyFactory.builder().prefetchExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }).build();
+        PrefetchingClass proxy = rejectingFactory.createProxy(original);
+
+        // when
+        String prefetched = proxy.getPrefetchedString();
+
+        // then
+        assertThat(prefetched).isEqualTo(PrefetchingClass.LOADED_CONTENT);
+    }
+
+    @Test
+    public void defaultExecutorPrefetchesInTheBackground() throws Exception {
+        // when
+        LazyFactory.proxy(original);
+
+        // then
+        long deadline = System.currentTimeMillis() + 5000;
+        while (original.prefetchedLoadCount == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(original.prefetchedLoadCount).isEqualTo(1);
+    }
+
+    private static class PrefetchingClass {
+        public static final String LOADED_CONTENT = "This string was loaded eagerly in the background";
+
+        private volatile int prefetchedLoadCount = 0;
+        private int lazyLoadCount = 0;
+
+        private String prefetchedString = null;
+
+        @LazyLoadWith(value = "prefetchedLoad", prefetch = true)
+        String getPrefetchedString() {
+            return prefetchedString;
+        }
+
+        @LazyLoadWith("lazyLoad")
+        String getLazyString() {
+            return null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void prefetchedLoad() {
+            prefetchedLoadCount++;
+            prefetchedString = LOADED_CONTENT;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void lazyLoad() {
+            lazyLoadCount++;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotCreateLazyProxyRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProxyEngineTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    private final LazyFactory factory = LazyFactory.builder().proxyEngine(ProxyEngine.INTERFACES).build();
+
+    @Test
+    public void finalClassIsLazilyLoadedThroughItsInterface() {
+        // given
+        Named proxy = factory.createProxy((Named) new FinalNamed());
+
+        // when
+        String name = proxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name 1");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void methodsWithoutLazyLoadingDoNotInvokeLoader() {
+        // given
+        Named proxy = factory.createProxy((Named) new FinalNamed());
+
+        // when
+        int loadCount = proxy.getLoadCount();
+
+        // then
+        assertThat(loadCount).isEqualTo(0);
+    }
+
+    @Test
+    public void objectMethodsAreDelegatedToOriginal() {
+        // given
+        FinalNamed original = new FinalNamed();
+
+        // when
+        Named proxy = factory.createProxy((Named) original);
+
+        // then
+        assertThat(proxy.toString()).isEqualTo(original.toString());
+        assertThat(proxy.hashCode()).isEqualTo(original.hashCode());
+    }
+
+    @Test
+    public void interfaceProxyCanBeInvalidated() {
+        // given
+        Named proxy = factory.createProxy((Named) new FinalNamed());
+        proxy.getName();
+
+        // when
+        LazyFactory.invalidate(proxy);
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name 2");
+    }
+
+    @Test
+    public void engineCanBeChosenPerClass() {
+        // given
+        LazyFactory mixedFactory = LazyFactory.builder().proxyEngine(FinalNamed.class, ProxyEngine.INTERFACES).build();
+
+        // when
+        Named interfaceProxy = mixedFactory.createProxy((Named) new FinalNamed());
+        Named subclassProxy = mixedFactory.createProxy((Named) new ExtensibleNamed());
+
+        // then
+        assertThat(Proxy.isProxyClass(interfaceProxy.getClass())).isTrue();
+        assertThat(subclassProxy).isInstanceOf(ExtensibleNamed.class);
+        assertThat(subclassProxy.getName()).isEqualTo("name 1");
+    }
+
+    @Test
+    public void classImplementingInterfaceWithDefaultMethodsCanBeProxied() {
+        // given
+        Team proxy = factory.createProxy((Team) new FinalTeam());
+
+        // when
+        List<String> members = new ArrayList<String>();
+        for (String member : proxy) {
+            members.add(member);
+        }
+
+        // then
+        assertThat(members).containsExactly("member");
+        assertThat(proxy.getName()).isEqualTo("team");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void methodsOfGenericInterfacesAreLazilyLoaded() {
+        // given
+        Matcher<String> proxy = factory.createProxy((Matcher<String>) new FinalMatcher());
+
+        // when
+        boolean matches = proxy.matches("loaded");
+        proxy.matches("loaded");
+
+        // then
+        assertThat(matches).isTrue();
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void classWithoutInterfacesCannotBeProxiedWithInterfaceEngine() {
+        // expect
+        expectedException.expect(CannotCreateLazyProxyRuntimeException.class);
+
+        // when
+        factory.createProxy(new Unnamed());
+    }
+
+    @Test
+    public void cglibProxiesDoNotStopClassLoaderOfProxiedClassBeingCollected() throws Exception {
+        // given
+        LazyFactory cglibFactory = LazyFactory.builder().build();
+        WeakReference<ClassLoader> loader = proxyInThrowawayClassLoader(cglibFactory, Plugin.class.getName());
+
+        // when
+        for (int i = 0; i < 20 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        // then
+        assertThat(loader.get()).isNull();
+    }
+
+    /**
+     * Proxies an instance of the given class, loaded by a class loader of its own, and calls a lazily loaded method
+     *
+     * @return A weak reference to that class loader
+     */
+    private static WeakReference<ClassLoader> proxyInThrowawayClassLoader(LazyFactory factory, String className)
+            throws Exception
+    {
+        URL testClasses = ProxyEngineTest.class.getProtectionDomain().getCodeSource().getLocation();
+        ClassLoader loader = new ChildFirstClassLoader(testClasses, className);
+        Constructor<?> constructor = loader.loadClass(className).getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object proxy = factory.createProxy(constructor.newInstance());
+        assertThat(proxy.getClass().getMethod("getName").invoke(proxy)).isEqualTo("plugin");
+        return new WeakReference<ClassLoader>(loader);
+    }
+
+    private interface Named {
+        String getName();
+
+        int getLoadCount();
+    }
+
+    private static final class FinalNamed implements Named {
+        private int loadCount = 0;
+        private String name;
+
+        @Override
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            name = "name " + loadCount;
+        }
+    }
+
+    private static class ExtensibleNamed implements Named {
+        private int loadCount = 0;
+        private String name;
+
+        @Override
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            name = "name " + loadCount;
+        }
+    }
+
+    /**
+     * Iterable has default methods on JDK 8 and later, which the class doesn't declare
+     */
+    private interface Team extends Named, Iterable<String> {}
+
+    private static final class FinalTeam implements Team {
+        private int loadCount = 0;
+        private List<String> members;
+
+        @Override
+        public String getName() {
+            return "team";
+        }
+
+        @Override
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        @Override
+        @LazyLoadWith("load")
+        public Iterator<String> iterator() {
+            return members.iterator();
+        }
+
+        void load() {
+            loadCount++;
+            members = Collections.singletonList("member");
+        }
+    }
+
+    private interface Matcher<T> {
+        boolean matches(T value);
+
+        int getLoadCount();
+    }
+
+    private static final class FinalMatcher implements Matcher<String> {
+        private int loadCount = 0;
+        private String value;
+
+        @Override
+        @LazyLoadWith("load")
+        public boolean matches(String value) {
+            return value.equals(this.value);
+        }
+
+        @Override
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            value = "loaded";
+        }
+    }
+
+    public static class Plugin {
+        private String name;
+
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        void load() {
+            name = "plugin";
+        }
+    }
+
+    /**
+     * Loads one class itself, rather than from its parent, so that it's a different class from the one on the
+     * classpath
+     */
+    private static final class ChildFirstClassLoader extends URLClassLoader {
+        private final String childFirstClassName;
+
+        ChildFirstClassLoader(URL url, String childFirstClassName) {
+            super(new URL[] { url }, ChildFirstClassLoader.class.getClassLoader());
+            this.childFirstClassName = childFirstClassName;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(childFirstClassName)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                return c != null ? c : findClass(name);
+            }
+        }
+    }
+
+    private static class Unnamed {
+        @LazyLoadWith("load")
+        public String getName() {
+            return null;
+        }
+
+        void load() {}
+    }
+}
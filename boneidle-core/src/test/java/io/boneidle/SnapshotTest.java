@@ -0,0 +1,292 @@
+package io.boneidle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SnapshotTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path file;
+    private ManualExecutor executor;
+
+    @Before
+    public void setUp() throws IOException {
+        file = temporaryFolder.getRoot().toPath().resolve("proxies.snapshot");
+        executor = new ManualExecutor();
+    }
+
+    @Test
+    public void restoredProxyUsesSnapshottedStateWithoutInvokingLoader() throws IOException {
+        // given
+        snapshotCustomerWithLoadedName(1);
+
+        // when
+        Customer restored = restoringFactory(Long.MAX_VALUE).createProxy(new Customer(1));
+        String name = restored.getName();
+
+        // then
+        assertThat(name).isEqualTo("customer 1 (load 1)");
+        assertThat(restored.getNameLoadCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void loadersNotInvokedBeforeSnapshotAreInvokedAsUsual() throws IOException {
+        // given
+        snapshotCustomerWithLoadedName(1);
+
+        // when
+        Customer restored = restoringFactory(Long.MAX_VALUE).createProxy(new Customer(1));
+        restored.getOrderCount();
+
+        // then
+        assertThat(restored.getOrderCountLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void staleStateIsUsedWhileLoaderIsRefreshedInBackground() throws Exception {
+        // given
+        snapshotCustomerWithLoadedName(1);
+        Thread.sleep(10);
+
+        // when
+        Customer restored = restoringFactory(0).createProxy(new Customer(1));
+        String staleName = restored.getName();
+        int loadCountBeforeRefresh = restored.getNameLoadCount();
+        executor.runAll();
+
+        // then
+        assertThat(staleName).isEqualTo("customer 1 (load 1)");
+        assertThat(loadCountBeforeRefresh).isEqualTo(0);
+        assertThat(restored.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void eachEntityIsRestoredOnlyByItsFirstProxy() throws IOException {
+        // given
+        snapshotCustomerWithLoadedName(1);
+        LazyFactory factory = restoringFactory(Long.MAX_VALUE);
+        factory.createProxy(new Customer(1));
+
+        // when
+        Customer secondProxy = factory.createProxy(new Customer(1));
+        secondProxy.getName();
+
+        // then
+        assertThat(secondProxy.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onlyEntitiesInSnapshotAreRestored() throws IOException {
+        // given
+        snapshotCustomerWithLoadedName(1);
+
+        // when
+        Customer restored = restoringFactory(Long.MAX_VALUE).createProxy(new Customer(2));
+        restored.getName();
+
+        // then
+        assertThat(restored.getNameLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void missingSnapshotFileIsIgnored() {
+        // given
+        Customer proxy = restoringFactory(Long.MAX_VALUE).createProxy(new Customer(1));
+
+        // when
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("customer 1 (load 1)");
+    }
+
+    @Test
+    public void lazyFieldsSharingSupplierAreEachRestored() throws IOException {
+        // given
+        LazyFactory factory = LazyFactory.builder().snapshotCodec(Account.class, new AccountCodec()).build();
+        Account proxy = factory.createProxy(new Account(1));
+        proxy.getOwner();
+        proxy.getManager();
+        factory.writeSnapshot(file, Collections.singletonList(proxy));
+
+        // when
+        Account restored = LazyFactory.builder()
+                .snapshotCodec(Account.class, new AccountCodec())
+                .restoreSnapshot(file, Long.MAX_VALUE)
+                .build()
+                .createProxy(new Account(1));
+        String owner = restored.getOwner();
+        String manager = restored.getManager();
+
+        // then
+        assertThat(owner).isEqualTo("person 1");
+        assertThat(manager).isEqualTo("person 2");
+        assertThat(restored.getSupplyCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void snapshottingObjectThatIsNotProxyThrows() throws IOException {
+        // expect
+        expectedException.expect(IllegalArgumentException.class);
+
+        // when
+        newFactory().writeSnapshot(file, Collections.singletonList(new Customer(1)));
+    }
+
+    private void snapshotCustomerWithLoadedName(int id) throws IOException {
+        LazyFactory factory = newFactory();
+        Customer proxy = factory.createProxy(new Customer(id));
+        proxy.getName();
+        factory.writeSnapshot(file, Collections.singletonList(proxy));
+    }
+
+    private LazyFactory newFactory() {
+        return LazyFactory.builder().snapshotCodec(Customer.class, new CustomerCodec()).build();
+    }
+
+    private LazyFactory restoringFactory(long maxAgeMillis) {
+        return LazyFactory.builder()
+                .snapshotCodec(Customer.class, new CustomerCodec())
+                .restoreSnapshot(file, maxAgeMillis)
+                .loaderExecutor(executor)
+                .build();
+    }
+
+    private static class Customer {
+        private final int id;
+        private int nameLoadCount = 0;
+        private int orderCountLoadCount = 0;
+        private String name;
+        private int orderCount;
+
+        Customer(int id) {
+            this.id = id;
+        }
+
+        @EntityKey
+        public int getId() {
+            return id;
+        }
+
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return name;
+        }
+
+        @LazyLoadWith("loadOrderCount")
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        public int getNameLoadCount() {
+            return nameLoadCount;
+        }
+
+        public int getOrderCountLoadCount() {
+            return orderCountLoadCount;
+        }
+
+        void loadName() {
+            nameLoadCount++;
+            name = "customer " + id + " (load " + nameLoadCount + ")";
+        }
+
+        void loadOrderCount() {
+            orderCountLoadCount++;
+            orderCount = 3;
+        }
+    }
+
+    private static class Account {
+        private final int id;
+        private int supplyCount = 0;
+
+        @LazyField("supplyPerson")
+        private String owner;
+
+        @LazyField("supplyPerson")
+        private String manager;
+
+        Account(int id) {
+            this.id = id;
+        }
+
+        @EntityKey
+        public int getId() {
+            return id;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getManager() {
+            return manager;
+        }
+
+        public int getSupplyCount() {
+            return supplyCount;
+        }
+
+        String supplyPerson() {
+            supplyCount++;
+            return "person " + supplyCount;
+        }
+    }
+
+    private static class AccountCodec implements SnapshotCodec<Account> {
+        @Override
+        public void encode(Account original, DataOutput out) throws IOException {
+            out.writeUTF(original.owner);
+            out.writeUTF(original.manager);
+        }
+
+        @Override
+        public void decode(Account original, ByteBuffer state) {
+            original.owner = readUtf(state);
+            original.manager = readUtf(state);
+        }
+
+        private static String readUtf(ByteBuffer state) {
+            byte[] bytes = new byte[state.getShort()];
+            state.get(bytes);
+            return new String(bytes);
+        }
+    }
+
+    private static class CustomerCodec implements SnapshotCodec<Customer> {
+        @Override
+        public void encode(Customer original, DataOutput out) throws IOException {
+            out.writeBoolean(original.name != null);
+            if (original.name != null) {
+                out.writeUTF(original.name);
+            }
+            out.writeInt(original.orderCount);
+        }
+
+        @Override
+        public void decode(Customer original, ByteBuffer state) {
+            if (state.get() != 0) {
+                byte[] bytes = new byte[state.getShort()];
+                state.get(bytes);
+                original.name = new String(bytes);
+            }
+            original.orderCount = state.getInt();
+        }
+    }
+}
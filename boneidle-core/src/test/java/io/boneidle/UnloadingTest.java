@@ -0,0 +1,204 @@
+package io.boneidle;
+
+import io.boneidle.exception.CannotInvokeLazyLoaderRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import pl.wkr.fluentrule.api.FluentExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UnloadingTest {
+    @Rule
+    public final FluentExpectedException expectedException = FluentExpectedException.none();
+
+    @Test
+    public void leastRecentlyUsedStateIsUnloadedWhenBudgetIsExceeded() {
+        // given
+        LazyFactory factory = LazyFactory.builder().maxLoadedEntries(2).build();
+        UnloadableClass first = factory.createProxy(new UnloadableClass());
+        UnloadableClass second = factory.createProxy(new UnloadableClass());
+        UnloadableClass third = factory.createProxy(new UnloadableClass());
+        first.getPayload();
+        second.getPayload();
+
+        // when
+        third.getPayload();
+
+        // then
+        assertThat(first.isLoaded()).isFalse();
+        assertThat(second.isLoaded()).isTrue();
+        assertThat(third.isLoaded()).isTrue();
+        assertThat(factory.getUnloadStatistics().getBudgetUnloadCount()).isEqualTo(1);
+        assertThat(factory.getUnloadStatistics().getTrackedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void recentlyUsedStateGetsSecondChance() {
+        // given
+        LazyFactory factory = LazyFactory.builder().maxLoadedEntries(2).build();
+        UnloadableClass first = factory.createProxy(new UnloadableClass());
+        UnloadableClass second = factory.createProxy(new UnloadableClass());
+        UnloadableClass third = factory.createProxy(new UnloadableClass());
+        first.getPayload();
+        second.getPayload();
+        third.getPayload();
+        UnloadableClass fourth = factory.createProxy(new UnloadableClass());
+
+        // when
+        second.getPayload();
+        fourth.getPayload();
+
+        // then
+        assertThat(second.isLoaded()).isTrue();
+        assertThat(third.isLoaded()).isFalse();
+        assertThat(fourth.isLoaded()).isTrue();
+    }
+
+    @Test
+    public void unloadedStateIsReloadedTransparently() {
+        // given
+        LazyFactory factory = LazyFactory.builder().maxLoadedEntries(1).build();
+        UnloadableClass first = factory.createProxy(new UnloadableClass());
+        UnloadableClass second = factory.createProxy(new UnloadableClass());
+        first.getPayload();
+        second.getPayload();
+
+        // when
+        String payload = first.getPayload();
+
+        // then
+        assertThat(payload).isEqualTo(UnloadableClass.PAYLOAD);
+        assertThat(first.getLoadCount()).isEqualTo(2);
+        assertThat(first.getUnloadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void loadersWithoutUnloaderAreNotTracked() {
+        // given
+        LazyFactory factory = LazyFactory.builder().maxLoadedEntries(1).build();
+        UnloadableClass first = factory.createProxy(new UnloadableClass());
+        UnloadableClass second = factory.createProxy(new UnloadableClass());
+
+        // when
+        first.getPermanent();
+        second.getPermanent();
+
+        // then
+        assertThat(factory.getUnloadStatistics().getTrackedCount()).isEqualTo(0);
+        assertThat(first.getPermanentLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void halfOfStateIsUnloadedUnderMemoryPressure() {
+        // given
+        LazyFactory factory = LazyFactory.builder().unloadUnderMemoryPressure(true).build();
+        UnloadableClass[] proxies = new UnloadableClass[4];
+        for (int i = 0; i < proxies.length; i++) {
+            proxies[i] = factory.createProxy(new UnloadableClass());
+            proxies[i].getPayload();
+        }
+
+        // when
+        MemoryPressureMonitor.relieveMemoryPressure();
+
+        // then
+        assertThat(factory.getUnloadStatistics().getMemoryPressureUnloadCount()).isEqualTo(2);
+        assertThat(factory.getUnloadStatistics().getTrackedCount()).isEqualTo(2);
+        assertThat(proxies[0].isLoaded()).isFalse();
+        assertThat(proxies[1].isLoaded()).isFalse();
+        assertThat(proxies[2].isLoaded()).isTrue();
+        assertThat(proxies[3].isLoaded()).isTrue();
+    }
+
+    @Test
+    public void stateIsNotUnloadedUnderMemoryPressureByDefault() {
+        // given
+        LazyFactory factory = LazyFactory.builder().build();
+        UnloadableClass proxy = factory.createProxy(new UnloadableClass());
+        proxy.getPayload();
+
+        // when
+        MemoryPressureMonitor.relieveMemoryPressure();
+
+        // then
+        assertThat(factory.getUnloadStatistics().getMemoryPressureUnloadCount()).isEqualTo(0);
+        assertThat(proxy.isLoaded()).isTrue();
+    }
+
+    @Test
+    public void missingUnloaderThrowsHelpfulException() {
+        // expect
+        expectedException
+                .expect(CannotInvokeLazyLoaderRuntimeException.class)
+                .hasMessageContaining("missingUnloader");
+
+        // when
+        LazyFactory.proxy(new MissingUnloaderClass());
+    }
+
+    private static class UnloadableClass {
+        public static final String PAYLOAD = "A large payload";
+
+        private String payload = null;
+        private int loadCount = 0;
+        private int unloadCount = 0;
+        private int permanentLoadCount = 0;
+
+        @ExcludeFromLazyLoading
+        public boolean isLoaded() {
+            return payload != null;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getUnloadCount() {
+            return unloadCount;
+        }
+
+        @ExcludeFromLazyLoading
+        public int getPermanentLoadCount() {
+            return permanentLoadCount;
+        }
+
+        @LazyLoadWith(value = "load", unloadWith = "unload")
+        public String getPayload() {
+            return payload;
+        }
+
+        @LazyLoadWith("loadPermanent")
+        public String getPermanent() {
+            return null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {
+            loadCount++;
+            payload = PAYLOAD;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void unload() {
+            unloadCount++;
+            payload = null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void loadPermanent() {
+            permanentLoadCount++;
+        }
+    }
+
+    private static class MissingUnloaderClass {
+        @LazyLoadWith(value = "load", unloadWith = "missingUnloader")
+        public String getPayload() {
+            return null;
+        }
+
+        @SuppressWarnings("UnusedDeclaration")
+        private void load() {}
+    }
+}
@@ -0,0 +1,143 @@
+package io.boneidle.engine;
+
+import io.boneidle.LazyClass;
+import io.boneidle.LazyFactory;
+import io.boneidle.LazyHandler;
+import io.boneidle.LazyLoadWith;
+import io.boneidle.ProxyClass;
+import io.boneidle.ProxyEngine;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that an engine outside boneidle's package can be written with its public types alone
+ */
+public class CustomProxyEngineTest {
+    private final LazyFactory factory = LazyFactory.builder().proxyEngine(new FirstInterfaceEngine()).build();
+
+    @Test
+    public void proxiesCreatedByCustomEngineAreLazilyLoaded() {
+        // given
+        Named proxy = factory.createProxy((Named) new FinalNamed());
+
+        // when
+        String name = proxy.getName();
+        proxy.getName();
+
+        // then
+        assertThat(Proxy.isProxyClass(proxy.getClass())).isTrue();
+        assertThat(name).isEqualTo("name 1");
+        assertThat(proxy.getLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void proxiesCreatedByCustomEngineCanBeInvalidated() {
+        // given
+        Named proxy = factory.createProxy((Named) new FinalNamed());
+        proxy.getName();
+
+        // when
+        LazyFactory.invalidate(proxy);
+        String name = proxy.getName();
+
+        // then
+        assertThat(name).isEqualTo("name 2");
+    }
+
+    @Test
+    public void customEngineIsToldWhichMethodsAreLazilyLoaded() throws Exception {
+        // given
+        final LazyClass[] lazyClasses = new LazyClass[1];
+        ProxyEngine engine = new FirstInterfaceEngine() {
+            @Override
+            public ProxyClass createProxyClass(LazyClass lazyClass) {
+                lazyClasses[0] = lazyClass;
+                return super.createProxyClass(lazyClass);
+            }
+        };
+
+        // when
+        LazyFactory.builder().proxyEngine(engine).build().createProxy((Named) new FinalNamed());
+
+        // then
+        assertThat(lazyClasses[0].getProxiedClass()).isEqualTo(FinalNamed.class);
+        assertThat(lazyClasses[0].isLazilyLoaded(Named.class.getMethod("getName"))).isTrue();
+        assertThat(lazyClasses[0].isLazilyLoaded(Named.class.getMethod("getLoadCount"))).isFalse();
+    }
+
+    /**
+     * Proxies the first interface of each class
+     */
+    private static class FirstInterfaceEngine extends ProxyEngine {
+        @Override
+        public ProxyClass createProxyClass(final LazyClass lazyClass) {
+            final Class<?> proxyClass = Proxy.getProxyClass(lazyClass.getProxiedClass().getClassLoader(),
+                    lazyClass.getProxiedClass().getInterfaces()[0]);
+            return new ProxyClass(lazyClass) {
+                @Override
+                @SuppressWarnings("unchecked") // The proxy class implements the original's first interface
+                public <T> T newProxy(T original) {
+                    try {
+                        return (T) proxyClass.getConstructor(InvocationHandler.class)
+                                .newInstance(new Handler(lazyClass.newHandler(original)));
+                    } catch (ReflectiveOperationException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public LazyHandler findHandler(Object proxy) {
+            if (Proxy.isProxyClass(proxy.getClass()) && Proxy.getInvocationHandler(proxy) instanceof Handler) {
+                return ((Handler) Proxy.getInvocationHandler(proxy)).lazyHandler;
+            }
+            return null;
+        }
+    }
+
+    private static class Handler implements InvocationHandler {
+        private final LazyHandler lazyHandler;
+
+        Handler(LazyHandler lazyHandler) {
+            this.lazyHandler = lazyHandler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return lazyHandler.invoke(method, args);
+        }
+    }
+
+    private interface Named {
+        String getName();
+
+        int getLoadCount();
+    }
+
+    private static final class FinalNamed implements Named {
+        private int loadCount = 0;
+        private String name;
+
+        @Override
+        @LazyLoadWith("load")
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getLoadCount() {
+            return loadCount;
+        }
+
+        void load() {
+            loadCount++;
+            name = "name " + loadCount;
+        }
+    }
+}
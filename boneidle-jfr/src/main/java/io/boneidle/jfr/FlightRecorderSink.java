@@ -0,0 +1,100 @@
+package io.boneidle.jfr;
+
+import io.boneidle.LazyFactory;
+import io.boneidle.LoaderMetricsSink;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.lang.reflect.Method;
+
+/**
+ * A {@link LoaderMetricsSink} that commits JDK Flight Recorder events for loader invocations and for waits on other
+ * threads' invocations. Intercepted calls and skipped loads are far too frequent to be worth an event each.
+ *
+ * This is the only class that refers to jdk.jfr, and is kept out of boneidle-core so that the core library still
+ * builds and runs on JDKs without it. Factories built with {@link LazyFactory.Builder#flightRecorderEvents(boolean)}
+ * create one, if this module is on the classpath, or it can be given to
+ * {@link LazyFactory.Builder#metricsSink(LoaderMetricsSink)} like any other sink.
+ */
+public final class FlightRecorderSink implements LoaderMetricsSink {
+    @Override
+    public void callIntercepted(Class<?> proxiedClass, Method loader) {}
+
+    @Override
+    public void loadSkipped(Class<?> proxiedClass, Method loader) {}
+
+    @Override
+    public void loadSucceeded(Class<?> proxiedClass, Method loader, long durationNanos) {
+        commitLoad(proxiedClass, loader, durationNanos, null);
+    }
+
+    @Override
+    public void loadFailed(Class<?> proxiedClass, Method loader, long durationNanos, Throwable failure) {
+        commitLoad(proxiedClass, loader, durationNanos, failure);
+    }
+
+    @Override
+    public void loadAwaited(Class<?> proxiedClass, Method loader, long waitNanos) {
+        LoadWaitEvent event = new LoadWaitEvent();
+        if (event.isEnabled()) {
+            event.proxiedClass = proxiedClass;
+            event.loader = loader.getName();
+            event.waitTime = waitNanos;
+            event.commit();
+        }
+    }
+
+    private void commitLoad(Class<?> proxiedClass, Method loader, long durationNanos, Throwable failure) {
+        LoadEvent event = new LoadEvent();
+        if (event.isEnabled()) {
+            event.proxiedClass = proxiedClass;
+            event.loader = loader.getName();
+            event.loadTime = durationNanos;
+            event.failure = failure == null ? null : failure.toString();
+            event.commit();
+        }
+    }
+
+    @Name("io.boneidle.Load")
+    @Label("Lazy Load")
+    @Category("boneidle")
+    @Description("A lazy loader was invoked")
+    @StackTrace(false)
+    static final class LoadEvent extends Event {
+        @Label("Proxied Class")
+        Class<?> proxiedClass;
+
+        @Label("Loader")
+        String loader;
+
+        @Label("Load Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long loadTime;
+
+        @Label("Failure")
+        @Description("What the loader threw, if it failed")
+        String failure;
+    }
+
+    @Name("io.boneidle.LoadWait")
+    @Label("Lazy Load Wait")
+    @Category("boneidle")
+    @Description("A thread waited for another thread to finish invoking a lazy loader")
+    @StackTrace(false)
+    static final class LoadWaitEvent extends Event {
+        @Label("Proxied Class")
+        Class<?> proxiedClass;
+
+        @Label("Loader")
+        String loader;
+
+        @Label("Wait Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long waitTime;
+    }
+}
@@ -0,0 +1,56 @@
+package io.boneidle.jfr;
+
+import io.boneidle.LazyFactory;
+import io.boneidle.LazyLoadWith;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderSinkTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void flightRecorderEventsAreCommittedForLoads() throws Exception {
+        // given
+        LazyFactory recordingFactory = LazyFactory.builder().flightRecorderEvents(true).build();
+        MeasuredClass proxy = recordingFactory.createProxy(new MeasuredClass());
+        File dump = new File(temporaryFolder.getRoot(), "boneidle.jfr");
+
+        // when
+        Recording recording = new Recording();
+        try {
+            recording.enable("io.boneidle.Load");
+            recording.start();
+            proxy.getName();
+            proxy.getName();
+            recording.stop();
+            recording.dump(dump.toPath());
+        } finally {
+            recording.close();
+        }
+
+        // then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump.toPath());
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("loader")).isEqualTo("loadName");
+        assertThat(events.get(0).getClass("proxiedClass").getName()).isEqualTo(MeasuredClass.class.getName());
+    }
+
+    private static class MeasuredClass {
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return "name";
+        }
+
+        void loadName() {}
+    }
+}
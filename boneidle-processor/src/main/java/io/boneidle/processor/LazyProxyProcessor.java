@@ -0,0 +1,406 @@
+package io.boneidle.processor;
+
+import io.boneidle.ExcludeFromLazyLoading;
+import io.boneidle.LazyField;
+import io.boneidle.LazyLoadWith;
+import io.boneidle.LoadPagesWith;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor that generates a plain Java lazy-loading subclass for each class using {@link LazyLoadWith},
+ * so that boneidle-core doesn't need to generate a proxy class at runtime.
+ *
+ * Each generated subclass is named after the binary name of the class it proxies plus {@link #SUFFIX}, and has a
+ * constructor taking the original object, to which it delegates every method (after invoking the method's loader, if
+ * it has one), and the counter of its class's invalidations shared by the factory's proxies. Classes that can't be
+ * subclassed from generated source (e.g. final or private classes, or classes without a non-private no-arg
+ * constructor), or which need loader features that generated subclasses don't support (prefetching, batch loading,
+ * dependencies, expiry, unloading, timeouts, retries, failure caching, loaded checks, lazy fields or paged lists), or
+ * which inherit protected methods from a class in another package, are skipped with a note, and are proxied with
+ * CGLIB at runtime instead.
+ *
+ * Missing or parameterised loader methods are reported as compilation errors.
+ */
+@SupportedAnnotationTypes("io.boneidle.LazyLoadWith")
+public class LazyProxyProcessor extends AbstractProcessor {
+    /**
+     * Must match the suffix expected by io.boneidle.GeneratedProxyClass
+     */
+    static final String SUFFIX = "$$BoneidleLazy";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> lazyTypes = new LinkedHashSet<TypeElement>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(LazyLoadWith.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                lazyTypes.add((TypeElement) element);
+            } else if (element.getKind() == ElementKind.METHOD) {
+                lazyTypes.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement lazyType : lazyTypes) {
+            processType(lazyType);
+        }
+
+        // Don't claim the annotations; other processors are welcome to them too
+        return false;
+    }
+
+    private void processType(TypeElement type) {
+        List<LazyProxySourceWriter.ProxiedMethod> methods = new ArrayList<LazyProxySourceWriter.ProxiedMethod>();
+        List<ExecutableElement> loaders = new ArrayList<ExecutableElement>();
+        boolean valid = true;
+        String unsupportedFeature = null;
+
+        DeclaredType rawType = (DeclaredType) processingEnv.getTypeUtils().erasure(type.asType());
+        List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(type);
+        for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+            if (!isOverridable(method, type)) {
+                continue;
+            }
+
+            int loaderIndex = LazyProxySourceWriter.NO_LOADER;
+            LazyLoadWith lazyLoadWith = getLoaderAnnotation(method);
+            if (lazyLoadWith != null) {
+                ExecutableElement loader = findLoader(method, lazyLoadWith.value());
+                if (loader == null) {
+                    valid = false;
+                    continue;
+                }
+                if (!loaders.contains(loader)) {
+                    loaders.add(loader);
+                }
+                loaderIndex = loaders.indexOf(loader);
+                for (String dependencyName : lazyLoadWith.after()) {
+                    valid &= findLoader(method, dependencyName) != null;
+                }
+                if (unsupportedFeature == null) {
+                    unsupportedFeature = getUnsupportedFeature(lazyLoadWith, loader);
+                }
+            }
+
+            ExecutableType methodType = (ExecutableType) processingEnv.getTypeUtils().asMemberOf(rawType, method);
+            methods.add(new LazyProxySourceWriter.ProxiedMethod(method, methodType, loaderIndex));
+        }
+
+        if (!valid) {
+            return;
+        }
+
+        if (unsupportedFeature == null && hasLazyFields(type)) {
+            unsupportedFeature = "it has lazy fields";
+        }
+        if (unsupportedFeature == null && hasPagedLists(type)) {
+            unsupportedFeature = "it has paged lists";
+        }
+        String reasonNotProxyable = unsupportedFeature != null ? unsupportedFeature
+                : getReasonNotProxyable(type, methods);
+        if (reasonNotProxyable != null) {
+            note(type, "Not generating a lazy-loading subclass of %s (%s); CGLIB will be used at runtime instead",
+                    type.getQualifiedName(), reasonNotProxyable);
+            return;
+        }
+
+        writeSource(type, methods, loaders);
+    }
+
+    private void writeSource(TypeElement type, List<LazyProxySourceWriter.ProxiedMethod> methods,
+                             List<ExecutableElement> loaders)
+    {
+        String packageName = getPackage(type).getQualifiedName().toString();
+        String simpleName = getBinarySimpleName(type) + SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+            Writer writer = sourceFile.openWriter();
+            try {
+                new LazyProxySourceWriter(processingEnv, writer, packageName, simpleName, type, loaders)
+                        .write(methods);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write lazy-loading subclass " + qualifiedName + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Mirrors io.boneidle.LoaderMethodResolver: method annotations take precedence over the annotation on the class
+     * declaring the method, and excluded methods have no loader.
+     */
+    private LazyLoadWith getLoaderAnnotation(ExecutableElement method) {
+        if (method.getAnnotation(ExcludeFromLazyLoading.class) != null) {
+            return null;
+        }
+
+        LazyLoadWith annotation = method.getAnnotation(LazyLoadWith.class);
+        if (annotation != null) {
+            return annotation;
+        }
+
+        return method.getEnclosingElement().getAnnotation(LazyLoadWith.class);
+    }
+
+    /**
+     * Mirrors io.boneidle.LoaderMethodResolver: an instance method taking no parameters takes precedence over a static
+     * batch loader taking a single List
+     */
+    private ExecutableElement findLoader(ExecutableElement method, String loaderName) {
+        List<? extends Element> siblings = method.getEnclosingElement().getEnclosedElements();
+        ExecutableElement batchLoader = null;
+        for (ExecutableElement candidate : ElementFilter.methodsIn(siblings)) {
+            if (!candidate.getSimpleName().contentEquals(loaderName)) {
+                continue;
+            }
+            boolean isStatic = candidate.getModifiers().contains(Modifier.STATIC);
+            if (!isStatic && candidate.getParameters().isEmpty()) {
+                return candidate;
+            }
+            if (isStatic && isBatchLoader(candidate)) {
+                batchLoader = candidate;
+            }
+        }
+
+        if (batchLoader == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(
+                    "Cannot use the specified lazy loader method '%s'. Ensure it exists and takes no parameters " +
+                            "(or, for a batch loader, is static and takes a single List).",
+                    loaderName
+            ), method);
+        }
+        return batchLoader;
+    }
+
+    private boolean isBatchLoader(ExecutableElement method) {
+        if (method.getParameters().size() != 1) {
+            return false;
+        }
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror list = types.erasure(processingEnv.getElementUtils().getTypeElement("java.util.List").asType());
+        return types.isAssignable(list, types.erasure(method.getParameters().get(0).asType()));
+    }
+
+    /**
+     * @return true if the generated subclass can both override the method and call it on the original object
+     */
+    private boolean isOverridable(ExecutableElement method, TypeElement proxiedType) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.PRIVATE)
+                || modifiers.contains(Modifier.FINAL)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || isInSamePackage(method, proxiedType);
+    }
+
+    private boolean hasLazyFields(TypeElement type) {
+        for (TypeElement t = type; t != null; t = getSuperclass(t)) {
+            for (Element field : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                if (field.getAnnotation(LazyField.class) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPagedLists(TypeElement type) {
+        for (TypeElement t = type; t != null; t = getSuperclass(t)) {
+            for (Element method : ElementFilter.methodsIn(t.getEnclosedElements())) {
+                if (method.getAnnotation(LoadPagesWith.class) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement) ((DeclaredType) superclass).asElement()
+                : null;
+    }
+
+    /**
+     * @return A description of the loader feature used by the annotation that generated subclasses don't support, or
+     * null if they support all of the features it uses
+     */
+    private String getUnsupportedFeature(LazyLoadWith lazyLoadWith, ExecutableElement loader) {
+        if (lazyLoadWith.prefetch()) {
+            return "it prefetches loaders";
+        }
+        if (loader.getModifiers().contains(Modifier.STATIC)) {
+            return "it has batch loaders";
+        }
+        if (lazyLoadWith.after().length > 0) {
+            return "its loaders have dependencies";
+        }
+        if (lazyLoadWith.expireAfterWriteMillis() > 0 || lazyLoadWith.refreshAfterWriteMillis() > 0) {
+            return "its loaders expire or refresh";
+        }
+        if (!lazyLoadWith.unloadWith().isEmpty()) {
+            return "its loaders can be unloaded";
+        }
+        if (lazyLoadWith.timeoutMillis() > 0 || lazyLoadWith.maxAttempts() > 1
+                || lazyLoadWith.cacheFailureMillis() > 0)
+        {
+            return "its loaders time out, are retried or cache failures";
+        }
+        if (lazyLoadWith.loadedIfFieldSet() || lazyLoadWith.loadedIfAnyInvoked().length > 0
+                || !lazyLoadWith.loadedIf().isEmpty())
+        {
+            return "it tells that data is loaded without invoking loaders";
+        }
+        return null;
+    }
+
+    private String getReasonNotProxyable(TypeElement type, List<LazyProxySourceWriter.ProxiedMethod> methods) {
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.FINAL)) {
+            return "it is final";
+        }
+        if (modifiers.contains(Modifier.ABSTRACT)) {
+            return "it is abstract";
+        }
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+            return "it is a local or anonymous class";
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)) {
+            return "it is an inner class";
+        }
+        if (!isAccessible(type, type)) {
+            return "it is not accessible from its package";
+        }
+        if (!hasAccessibleNoArgConstructor(type)) {
+            return "it has no non-private no-arg constructor";
+        }
+        ExecutableElement protectedMethod = findProtectedMethodFromOtherPackage(type);
+        if (protectedMethod != null) {
+            return "it inherits protected method " + protectedMethod.getSimpleName() + " from "
+                    + ((TypeElement) protectedMethod.getEnclosingElement()).getQualifiedName()
+                    + ", which can't be called on the original from its package";
+        }
+        for (LazyProxySourceWriter.ProxiedMethod method : methods) {
+            if (!isAccessible(method.type, type)) {
+                return "method " + method.element.getSimpleName() + " uses a type not accessible from its package";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return A protected method (other than one of Object's) that the type inherits from a class in another package,
+     * or null if there's none. A generated subclass could override it, but not delegate it to the original, and code
+     * in that package could call it on a proxy.
+     */
+    private ExecutableElement findProtectedMethodFromOtherPackage(TypeElement type) {
+        TypeElement object = processingEnv.getElementUtils().getTypeElement("java.lang.Object");
+        List<? extends Element> members = processingEnv.getElementUtils().getAllMembers(type);
+        for (ExecutableElement method : ElementFilter.methodsIn(members)) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.PROTECTED) && !modifiers.contains(Modifier.STATIC)
+                    && !modifiers.contains(Modifier.FINAL) && !method.getEnclosingElement().equals(object)
+                    && !isInSamePackage(method, type))
+            {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasAccessibleNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()) {
+                return !constructor.getModifiers().contains(Modifier.PRIVATE);
+            }
+        }
+        return false;
+    }
+
+    private boolean isAccessible(ExecutableType methodType, TypeElement proxiedType) {
+        List<TypeMirror> types = new ArrayList<TypeMirror>();
+        types.add(methodType.getReturnType());
+        types.addAll(methodType.getParameterTypes());
+        types.addAll(methodType.getThrownTypes());
+
+        for (TypeMirror type : types) {
+            TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+            while (erased.getKind() == TypeKind.ARRAY) {
+                erased = ((ArrayType) erased).getComponentType();
+            }
+            if (erased.getKind() == TypeKind.DECLARED
+                    && !isAccessible((TypeElement) ((DeclaredType) erased).asElement(), proxiedType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the type (and every type enclosing it) is accessible from the package of the proxied type, in
+     * which the generated class is written
+     */
+    private boolean isAccessible(TypeElement type, TypeElement proxiedType) {
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            Set<Modifier> modifiers = e.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!modifiers.contains(Modifier.PUBLIC) && !isInSamePackage(e, proxiedType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isInSamePackage(Element element, TypeElement type) {
+        return getPackage(element).equals(getPackage(type));
+    }
+
+    private PackageElement getPackage(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    private String getBinarySimpleName(TypeElement type) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1);
+    }
+
+    private void note(Element element, String format, Object... args) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format(format, args), element);
+    }
+}
@@ -0,0 +1,278 @@
+package io.boneidle.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the source of a lazy-loading subclass, as generated by {@link LazyProxyProcessor}.
+ *
+ * The subclass overrides every overridable method to delegate to the original object, first invoking the method's
+ * loader if it has one and it hasn't yet been invoked. Each loader has its own volatile load flag, checked inline, so
+ * loaders are invoked exactly once per proxy even when proxies are shared between threads.
+ *
+ * Invalidating a loader clears its load flag, so the next call that needs it invokes it again. Proxies created by the
+ * same factory share a counter of their class's invalidations, which each proxy checks before its load flags, and
+ * clears them all when the counter has moved on.
+ *
+ * Generated members are prefixed with "boneidle$" so they can't clash with members of the proxied class. Types are
+ * written in their erased forms, and the proxied class is extended as a raw type, so that generic classes and methods
+ * don't need any special handling.
+ */
+final class LazyProxySourceWriter {
+    static final int NO_LOADER = -1;
+
+    private final ProcessingEnvironment processingEnv;
+    private final Writer writer;
+    private final String packageName;
+    private final String simpleName;
+    private final String proxiedTypeName;
+    private final TypeElement proxiedType;
+    private final List<ExecutableElement> loaders;
+
+    LazyProxySourceWriter(ProcessingEnvironment processingEnv, Writer writer, String packageName, String simpleName,
+                          TypeElement proxiedType, List<ExecutableElement> loaders)
+    {
+        this.processingEnv = processingEnv;
+        this.writer = writer;
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.proxiedType = proxiedType;
+        this.proxiedTypeName = processingEnv.getTypeUtils().erasure(proxiedType.asType()).toString();
+        this.loaders = loaders;
+    }
+
+    void write(List<ProxiedMethod> methods) throws IOException {
+        if (!packageName.isEmpty()) {
+            line("package %s;", packageName);
+            line("");
+        }
+        line("/**");
+        line(" * Lazy-loading subclass of {@link %s}, generated by %s. Do not edit.", proxiedTypeName,
+                LazyProxyProcessor.class.getName());
+        line(" */");
+        line("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"deprecation\"})");
+        line("final class %s extends %s {", simpleName, proxiedTypeName);
+
+        writeFields();
+        writeConstructor();
+        for (ProxiedMethod method : methods) {
+            writeMethod(method);
+        }
+        for (int i = 0; i < loaders.size(); i++) {
+            writeLoadMethod(i);
+        }
+        writeInvalidateMethods();
+        writeHelpers();
+
+        line("}");
+    }
+
+    private void writeFields() throws IOException {
+        for (int i = 0; i < loaders.size(); i++) {
+            if (!isDirectlyCallable(loaders.get(i))) {
+                line("    private static final java.lang.reflect.Method boneidle$LOADER_%d =", i);
+                line("            boneidle$findLoader(\"%s\", \"%s\");", getBinaryName(loaders.get(i)),
+                        loaders.get(i).getSimpleName());
+            }
+        }
+        line("");
+        line("    private final %s boneidle$original;", proxiedTypeName);
+        line("    private final java.util.concurrent.atomic.AtomicInteger boneidle$invalidations;");
+        line("    private final Object boneidle$lock = new Object();");
+        line("    private volatile int boneidle$invalidationGeneration;");
+        for (int i = 0; i < loaders.size(); i++) {
+            line("    private volatile boolean boneidle$loaded%d;", i);
+        }
+        line("");
+    }
+
+    private void writeConstructor() throws IOException {
+        line("    %s(%s original, java.util.concurrent.atomic.AtomicInteger invalidations) {", simpleName,
+                proxiedTypeName);
+        line("        this.boneidle$original = original;");
+        line("        this.boneidle$invalidations = invalidations;");
+        line("        this.boneidle$invalidationGeneration = invalidations.get();");
+        line("    }");
+    }
+
+    private void writeMethod(ProxiedMethod method) throws IOException {
+        ExecutableElement element = method.element;
+        ExecutableType type = method.type;
+        List<? extends TypeMirror> parameterTypes = type.getParameterTypes();
+
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            if (i > 0) {
+                parameters.append(", ");
+                arguments.append(", ");
+            }
+            boolean varArgs = element.isVarArgs() && i == parameterTypes.size() - 1;
+            parameters.append(typeName(parameterTypes.get(i), varArgs)).append(" arg").append(i);
+            arguments.append("arg").append(i);
+        }
+
+        StringBuilder throwsClause = new StringBuilder();
+        for (TypeMirror thrownType : type.getThrownTypes()) {
+            throwsClause.append(throwsClause.length() == 0 ? " throws " : ", ").append(typeName(thrownType, false));
+        }
+
+        String returnType = typeName(type.getReturnType(), false);
+        String call = String.format("boneidle$original.%s(%s);", element.getSimpleName(), arguments);
+
+        line("");
+        line("    @Override");
+        line("    %s%s %s(%s)%s {", accessModifier(element), returnType, element.getSimpleName(), parameters,
+                throwsClause);
+        if (method.loaderIndex != NO_LOADER) {
+            line("        boneidle$load%d();", method.loaderIndex);
+        }
+        line("        %s%s", type.getReturnType().getKind() == TypeKind.VOID ? "" : "return ", call);
+        line("    }");
+    }
+
+    private void writeLoadMethod(int loaderIndex) throws IOException {
+        ExecutableElement loader = loaders.get(loaderIndex);
+
+        line("");
+        line("    private void boneidle$load%d() {", loaderIndex);
+        line("        if (boneidle$invalidations.get() != boneidle$invalidationGeneration) {");
+        line("            boneidle$catchUpWithInvalidations();");
+        line("        }");
+        line("        if (!boneidle$loaded%d) {", loaderIndex);
+        line("            synchronized (boneidle$lock) {");
+        line("                if (!boneidle$loaded%d) {", loaderIndex);
+        line("                    try {");
+        if (isDirectlyCallable(loader)) {
+            line("                        boneidle$original.%s();", loader.getSimpleName());
+        } else {
+            line("                        boneidle$LOADER_%d.invoke(boneidle$original);", loaderIndex);
+        }
+        line("                    } catch (Throwable t) {");
+        line("                        throw boneidle$rethrow(t);");
+        line("                    }");
+        line("                    boneidle$loaded%d = true;", loaderIndex);
+        line("                }");
+        line("            }");
+        line("        }");
+        line("    }");
+    }
+
+    /**
+     * Writes the method that core's GeneratedProxyClass calls to invalidate a proxy's loaders (all of them, given a
+     * null name), which returns whether any loader has the name, and the method catching up with invalidations of the
+     * class. A loader being invoked meanwhile sets its flag once it finishes, so is unaffected, as in core's proxies.
+     */
+    private void writeInvalidateMethods() throws IOException {
+        line("");
+        line("    boolean boneidle$invalidate(String loaderName) {");
+        line("        boolean invalidated = false;");
+        for (int i = 0; i < loaders.size(); i++) {
+            line("        if (loaderName == null || loaderName.equals(\"%s\")) {", loaders.get(i).getSimpleName());
+            line("            boneidle$loaded%d = false;", i);
+            line("            invalidated = true;");
+            line("        }");
+        }
+        line("        return invalidated;");
+        line("    }");
+
+        line("");
+        line("    private void boneidle$catchUpWithInvalidations() {");
+        line("        boneidle$invalidationGeneration = boneidle$invalidations.get();");
+        line("        boneidle$invalidate(null);");
+        line("    }");
+    }
+
+    private void writeHelpers() throws IOException {
+        boolean anyReflectiveLoaders = false;
+        for (ExecutableElement loader : loaders) {
+            anyReflectiveLoaders |= !isDirectlyCallable(loader);
+        }
+
+        if (anyReflectiveLoaders) {
+            line("");
+            line("    private static java.lang.reflect.Method boneidle$findLoader(String className, String name) {");
+            line("        try {");
+            line("            java.lang.reflect.Method loader = Class.forName(className).getDeclaredMethod(name);");
+            line("            loader.setAccessible(true);");
+            line("            return loader;");
+            line("        } catch (ReflectiveOperationException e) {");
+            line("            throw new IllegalStateException(e);");
+            line("        }");
+            line("    }");
+        }
+
+        line("");
+        line("    private static RuntimeException boneidle$rethrow(Throwable t) {");
+        line("        if (t instanceof java.lang.reflect.InvocationTargetException) {");
+        line("            t = t.getCause();");
+        line("        }");
+        line("        if (t instanceof RuntimeException) {");
+        line("            throw (RuntimeException) t;");
+        line("        }");
+        line("        if (t instanceof Error) {");
+        line("            throw (Error) t;");
+        line("        }");
+        line("        throw new java.lang.reflect.UndeclaredThrowableException(t);");
+        line("    }");
+    }
+
+    /**
+     * Loaders declared on the proxied class itself can be called directly unless they're private; loaders inherited
+     * from elsewhere also need to be accessible from the generated class's package.
+     */
+    private boolean isDirectlyCallable(ExecutableElement loader) {
+        if (loader.getModifiers().contains(Modifier.PRIVATE) || loader.getModifiers().contains(Modifier.STATIC)) {
+            return false;
+        }
+        return loader.getEnclosingElement().equals(proxiedType);
+    }
+
+    private String getBinaryName(ExecutableElement loader) {
+        return processingEnv.getElementUtils().getBinaryName((TypeElement) loader.getEnclosingElement()).toString();
+    }
+
+    private String accessModifier(ExecutableElement method) {
+        if (method.getModifiers().contains(Modifier.PUBLIC)) {
+            return "public ";
+        }
+        if (method.getModifiers().contains(Modifier.PROTECTED)) {
+            return "protected ";
+        }
+        return "";
+    }
+
+    private String typeName(TypeMirror type, boolean varArgs) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (varArgs && erased.getKind() == TypeKind.ARRAY) {
+            return typeName(((ArrayType) erased).getComponentType(), false) + "...";
+        }
+        return erased.toString();
+    }
+
+    private void line(String format, Object... args) throws IOException {
+        writer.write(String.format(format, args));
+        writer.write('\n');
+    }
+
+    static final class ProxiedMethod {
+        final ExecutableElement element;
+        final ExecutableType type;
+        final int loaderIndex;
+
+        ProxiedMethod(ExecutableElement element, ExecutableType type, int loaderIndex) {
+            this.element = element;
+            this.type = type;
+            this.loaderIndex = loaderIndex;
+        }
+    }
+}
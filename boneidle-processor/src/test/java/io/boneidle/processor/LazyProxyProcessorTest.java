@@ -0,0 +1,399 @@
+package io.boneidle.processor;
+
+import io.boneidle.LazyFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyProxyProcessorTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outputDir;
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp() throws Exception {
+        outputDir = temporaryFolder.newFolder();
+        diagnostics = new DiagnosticCollector<JavaFileObject>();
+    }
+
+    @Test
+    public void generatesLazySubclassForClassWithAnnotatedMethods() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        Class<?> generated = classLoader.loadClass("fixtures.Entity$$BoneidleLazy");
+        assertThat(generated.getSuperclass()).isEqualTo(classLoader.loadClass("fixtures.Entity"));
+    }
+
+    @Test
+    public void generatedSubclassInvokesLoaderOnceBeforeDelegatingToOriginal() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity").newInstance();
+        Object proxy = newGeneratedProxy(classLoader, "fixtures.Entity", original);
+
+        // when
+        Object name = invoke(proxy, "getName");
+        Object otherName = invoke(proxy, "getNameInPackage");
+
+        // then
+        assertThat(name).isEqualTo("name");
+        assertThat(otherName).isEqualTo("name");
+        assertThat(original.getClass().getField("nameLoadCount").get(original)).isEqualTo(1);
+        assertThat(original.getClass().getField("sizeLoadCount").get(original)).isEqualTo(0);
+    }
+
+    @Test
+    public void generatedSubclassHandlesPrimitivesVarArgsAndGenerics() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity").newInstance();
+        Object proxy = newGeneratedProxy(classLoader, "fixtures.Entity", original);
+
+        Method getSize = proxy.getClass().getMethod("getSize", int.class, String[].class);
+        Method addName = proxy.getClass().getMethod("addName", List.class);
+        getSize.setAccessible(true);
+        addName.setAccessible(true);
+
+        // when
+        Object size = getSize.invoke(proxy, 2, new String[0]);
+        Object names = addName.invoke(proxy, new ArrayList<String>());
+
+        // then
+        assertThat(size).isEqualTo(84);
+        assertThat(names).isEqualTo(Collections.singletonList("name"));
+    }
+
+    @Test
+    public void generatedSubclassOfDefaultedClassRespectsExclusions() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity$DefaultedEntity").newInstance();
+        Object proxy = newGeneratedProxy(classLoader, "fixtures.Entity$DefaultedEntity", original);
+
+        // when
+        invoke(proxy, "getExcluded");
+        int loadCountAfterExcluded = (Integer) original.getClass().getField("loadCount").get(original);
+        invoke(proxy, "getDefaulted");
+
+        // then
+        assertThat(loadCountAfterExcluded).isEqualTo(0);
+        assertThat(original.getClass().getField("loadCount").get(original)).isEqualTo(1);
+    }
+
+    @Test
+    public void lazyFactoryUsesGeneratedSubclassWhenPresent() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity").newInstance();
+
+        // when
+        Object proxy = LazyFactory.proxy(original);
+
+        // then
+        assertThat(proxy.getClass().getName()).isEqualTo("fixtures.Entity$$BoneidleLazy");
+        assertThat(invoke(proxy, "getName")).isEqualTo("name");
+    }
+
+    @Test
+    public void generatedProxiesCanBeInvalidated() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity").newInstance();
+        Object proxy = LazyFactory.proxy(original);
+        invoke(proxy, "getName");
+
+        // when
+        LazyFactory.invalidate(proxy, "loadSize");
+        invoke(proxy, "getName");
+        int loadCountAfterSizeInvalidated = (Integer) original.getClass().getField("nameLoadCount").get(original);
+        LazyFactory.invalidate(proxy);
+        invoke(proxy, "getName");
+
+        // then
+        assertThat(loadCountAfterSizeInvalidated).isEqualTo(1);
+        assertThat(original.getClass().getField("nameLoadCount").get(original)).isEqualTo(2);
+    }
+
+    @Test
+    public void refreshingGeneratedProxiesInvalidatesThem() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object original = classLoader.loadClass("fixtures.Entity").newInstance();
+        Object proxy = LazyFactory.proxy(original);
+        invoke(proxy, "getName");
+
+        // when
+        LazyFactory.refresh(proxy, "loadName");
+        invoke(proxy, "getName");
+
+        // then
+        assertThat(original.getClass().getField("nameLoadCount").get(original)).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidatingUnknownLoaderOfGeneratedProxyThrows() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Object proxy = LazyFactory.proxy(classLoader.loadClass("fixtures.Entity").newInstance());
+
+        // when
+        LazyFactory.invalidate(proxy, "loadNothing");
+    }
+
+    @Test
+    public void generatedProxiesOfClassCanBeInvalidatedTogether() throws Exception {
+        // given
+        ClassLoader classLoader = compile("Entity.java");
+        Class<?> entityClass = classLoader.loadClass("fixtures.Entity");
+        LazyFactory factory = LazyFactory.builder().build();
+        Object original = entityClass.newInstance();
+        Object otherOriginal = entityClass.newInstance();
+        Object proxy = factory.createProxy(original);
+        Object otherProxy = factory.createProxy(otherOriginal);
+        invoke(proxy, "getName");
+        invoke(otherProxy, "getName");
+
+        // when
+        factory.invalidateProxies(entityClass);
+        invoke(proxy, "getName");
+        invoke(otherProxy, "getName");
+        invoke(proxy, "getName");
+
+        // then
+        assertThat(proxy.getClass().getName()).isEqualTo("fixtures.Entity$$BoneidleLazy");
+        assertThat(entityClass.getField("nameLoadCount").get(original)).isEqualTo(2);
+        assertThat(entityClass.getField("nameLoadCount").get(otherOriginal)).isEqualTo(2);
+    }
+
+    @Test
+    public void finalClassesAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$FinalEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.FinalEntity (it is final)");
+    }
+
+    @Test
+    public void classesWithBatchLoadersAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$BatchEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.BatchEntity")
+                .contains("(it has batch loaders)");
+    }
+
+    @Test
+    public void classesWithLoaderDependenciesAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$DependentEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.DependentEntity")
+                .contains("(its loaders have dependencies)");
+    }
+
+    @Test
+    public void classesWithPrefetchingLoadersAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$PrefetchingEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.PrefetchingEntity")
+                .contains("(it prefetches loaders)");
+    }
+
+    @Test
+    public void classesWithExpiringLoadersAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$ExpiringEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.ExpiringEntity")
+                .contains("(its loaders expire or refresh)");
+    }
+
+    @Test
+    public void classesWithUnloadersAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$UnloadableEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.UnloadableEntity")
+                .contains("(its loaders can be unloaded)");
+    }
+
+    @Test
+    public void classesWithLoaderTimeoutsAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$TimedOutEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.TimedOutEntity")
+                .contains("(its loaders time out, are retried or cache failures)");
+    }
+
+    @Test
+    public void classesWithLoadedChecksAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$CheckedEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.CheckedEntity")
+                .contains("(it tells that data is loaded without invoking loaders)");
+    }
+
+    @Test
+    public void classesWithLazyFieldsAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$LazyFieldEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.LazyFieldEntity")
+                .contains("(it has lazy fields)");
+    }
+
+    @Test
+    public void classesWithPagedListsAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("Entity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/Entity$PagedEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.Entity.PagedEntity")
+                .contains("(it has paged lists)");
+    }
+
+    @Test
+    public void classesInheritingProtectedMethodsFromAnotherPackageAreSkippedWithNote() throws Exception {
+        // when
+        ClassLoader classLoader = compile("InheritingEntity.java", "base/BaseEntity.java");
+
+        // then
+        assertThat(classLoader.getResource("fixtures/InheritingEntity$$BoneidleLazy.class")).isNull();
+        assertThat(getMessages(Diagnostic.Kind.NOTE).toString())
+                .contains("Not generating a lazy-loading subclass of fixtures.InheritingEntity")
+                .contains("(it inherits protected method getDescription from fixtures.base.BaseEntity");
+    }
+
+    @Test
+    public void missingAndParameterisedLoadersAreCompilationErrors() throws Exception {
+        // when
+        boolean success = tryCompile("MisconfiguredEntity.java");
+
+        // then
+        assertThat(success).isFalse();
+        List<String> errors = getMessages(Diagnostic.Kind.ERROR);
+        assertThat(errors).hasSize(2);
+        assertThat(errors.get(0) + errors.get(1))
+                .contains("missingLoader")
+                .contains("loaderWithParameters")
+                .contains("Ensure it exists and takes no parameters");
+    }
+
+    private ClassLoader compile(String... fixtures) throws Exception {
+        assertThat(tryCompile(fixtures)).as(diagnostics.getDiagnostics().toString()).isTrue();
+        return new URLClassLoader(new URL[] { outputDir.toURI().toURL() }, getClass().getClassLoader());
+    }
+
+    private boolean tryCompile(String... fixtures) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            List<File> sources = new ArrayList<File>();
+            for (String fixture : fixtures) {
+                sources.add(new File(getClass().getResource("/fixtures/" + fixture).toURI()));
+            }
+            List<String> options = Arrays.asList(
+                    "-d", outputDir.getPath(),
+                    "-s", outputDir.getPath(),
+                    "-classpath", System.getProperty("java.class.path")
+            );
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(Collections.singletonList(new LazyProxyProcessor()));
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private List<String> getMessages(Diagnostic.Kind kind) {
+        List<String> messages = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == kind) {
+                messages.add(diagnostic.getMessage(null));
+            }
+        }
+        return messages;
+    }
+
+    private Object newGeneratedProxy(ClassLoader classLoader, String className, Object original) throws Exception {
+        Class<?> originalClass = classLoader.loadClass(className);
+        Class<?> generated = classLoader.loadClass(className + LazyProxyProcessor.SUFFIX);
+        Constructor<?> constructor = generated.getDeclaredConstructor(originalClass, AtomicInteger.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(original, new AtomicInteger());
+    }
+
+    private Object invoke(Object target, String methodName) throws Exception {
+        Method method = findMethod(target.getClass(), methodName);
+        method.setAccessible(true);
+        return method.invoke(target);
+    }
+
+    private Method findMethod(Class<?> type, String methodName) throws NoSuchMethodException {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.getName().equals(methodName) && method.getParameterTypes().length == 0) {
+                    return method;
+                }
+            }
+        }
+        throw new NoSuchMethodException(methodName);
+    }
+}
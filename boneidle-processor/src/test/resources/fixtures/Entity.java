@@ -0,0 +1,187 @@
+package fixtures;
+
+import io.boneidle.ExcludeFromLazyLoading;
+import io.boneidle.LazyField;
+import io.boneidle.LazyLoadWith;
+import io.boneidle.LoadPagesWith;
+
+import java.util.List;
+
+public class Entity {
+    public int nameLoadCount = 0;
+    public int sizeLoadCount = 0;
+
+    private String name;
+    private Integer size;
+
+    public String getUnannotated() {
+        return "unannotated";
+    }
+
+    @LazyLoadWith("loadName")
+    public String getName() {
+        return name;
+    }
+
+    @LazyLoadWith("loadName")
+    String getNameInPackage() {
+        return name;
+    }
+
+    @LazyLoadWith("loadSize")
+    public int getSize(int multiplier, String... ignored) {
+        return size * multiplier;
+    }
+
+    @LazyLoadWith("loadName")
+    public <T extends List<String>> T addName(T names) throws Exception {
+        names.add(name);
+        return names;
+    }
+
+    private void loadName() {
+        nameLoadCount++;
+        name = "name";
+    }
+
+    void loadSize() {
+        sizeLoadCount++;
+        size = 42;
+    }
+
+    @LazyLoadWith("defaultLoad")
+    public static class DefaultedEntity {
+        public int loadCount = 0;
+
+        public String getDefaulted() {
+            return "defaulted";
+        }
+
+        @ExcludeFromLazyLoading
+        public String getExcluded() {
+            return "excluded";
+        }
+
+        private void defaultLoad() {
+            loadCount++;
+        }
+    }
+
+    public static class BatchEntity {
+        @LazyLoadWith("loadAll")
+        public String getName() {
+            return null;
+        }
+
+        private static void loadAll(List<BatchEntity> entities) {}
+    }
+
+    public static class DependentEntity {
+        @LazyLoadWith(value = "loadPrices", after = "loadItems")
+        public String getPrices() {
+            return null;
+        }
+
+        private void loadItems() {}
+
+        private void loadPrices() {}
+    }
+
+    public static class PrefetchingEntity {
+        @LazyLoadWith(value = "loadName", prefetch = true)
+        public String getName() {
+            return null;
+        }
+
+        private void loadName() {}
+    }
+
+    public static class ExpiringEntity {
+        @LazyLoadWith(value = "loadName", expireAfterWriteMillis = 1000)
+        public String getName() {
+            return null;
+        }
+
+        private void loadName() {}
+    }
+
+    public static class UnloadableEntity {
+        @LazyLoadWith(value = "loadName", unloadWith = "unloadName")
+        public String getName() {
+            return null;
+        }
+
+        private void loadName() {}
+
+        private void unloadName() {}
+    }
+
+    public static class TimedOutEntity {
+        @LazyLoadWith(value = "loadName", timeoutMillis = 1000)
+        public String getName() {
+            return null;
+        }
+
+        private void loadName() {}
+    }
+
+    public static class CheckedEntity {
+        @LazyLoadWith(value = "loadName", loadedIf = "hasName")
+        public String getName() {
+            return null;
+        }
+
+        private boolean hasName() {
+            return false;
+        }
+
+        private void loadName() {}
+    }
+
+    public static class LazyFieldEntity {
+        @LazyField("supplyPrices")
+        private String prices;
+
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return null;
+        }
+
+        public String getPrices() {
+            return prices;
+        }
+
+        private void loadName() {}
+
+        private String supplyPrices() {
+            return "prices";
+        }
+    }
+
+    public static class PagedEntity {
+        @LazyLoadWith("loadName")
+        public String getName() {
+            return null;
+        }
+
+        @LoadPagesWith("loadOrders")
+        public List<String> getOrders() {
+            return null;
+        }
+
+        private void loadName() {}
+
+        private List<String> loadOrders(int offset, int limit) {
+            return null;
+        }
+    }
+
+    public static final class FinalEntity {
+        @LazyLoadWith("load")
+        public String getName() {
+            return null;
+        }
+
+        private void load() {}
+    }
+}
@@ -0,0 +1,13 @@
+package fixtures;
+
+import fixtures.base.BaseEntity;
+import io.boneidle.LazyLoadWith;
+
+public class InheritingEntity extends BaseEntity {
+    @LazyLoadWith("load")
+    public String getName() {
+        return null;
+    }
+
+    private void load() {}
+}
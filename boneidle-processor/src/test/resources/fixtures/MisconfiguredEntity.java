@@ -0,0 +1,17 @@
+package fixtures;
+
+import io.boneidle.LazyLoadWith;
+
+public class MisconfiguredEntity {
+    @LazyLoadWith("missingLoader")
+    public String getMissingLoaderString() {
+        return null;
+    }
+
+    @LazyLoadWith("loaderWithParameters")
+    public String getParameterisedLoaderString() {
+        return null;
+    }
+
+    private void loaderWithParameters(String dummy) {}
+}
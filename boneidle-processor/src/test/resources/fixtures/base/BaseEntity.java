@@ -0,0 +1,7 @@
+package fixtures.base;
+
+public class BaseEntity {
+    protected String getDescription() {
+        return "description";
+    }
+}